@@ -0,0 +1,127 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The arithmetic of {@link BigInt} against {@link BigInteger} as the baseline.
+ * The dividends have twice as many digits as the other operands.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 22.07.2016.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArithmeticBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000", "1000000"})
+    private int digits;
+
+    private String text;
+    private BigInt value1;
+    private BigInt value2;
+    private BigInt dividend;
+    private BigInteger bigInteger1;
+    private BigInteger bigInteger2;
+    private BigInteger bigIntegerDividend;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(digits);
+        text = randomNumber(random, digits);
+        String text2 = randomNumber(random, digits);
+        String dividendText = randomNumber(random, 2 * digits);
+        value1 = new BigInt(text);
+        value2 = new BigInt(text2);
+        dividend = new BigInt(dividendText);
+        bigInteger1 = new BigInteger(text);
+        bigInteger2 = new BigInteger(text2);
+        bigIntegerDividend = new BigInteger(dividendText);
+    }
+
+    static String randomNumber(Random random, int digits) {
+        char[] chars = new char[digits];
+        chars[0] = (char) ('1' + random.nextInt(9));
+        for (int i = 1; i < digits; i++) {
+            chars[i] = (char) ('0' + random.nextInt(10));
+        }
+        return new String(chars);
+    }
+
+    @Benchmark
+    public BigInt parse() {
+        return new BigInt(text);
+    }
+
+    @Benchmark
+    public BigInteger parseBaseline() {
+        return new BigInteger(text);
+    }
+
+    @Benchmark
+    public String format() {
+        return value1.toString();
+    }
+
+    @Benchmark
+    public String formatBaseline() {
+        return bigInteger1.toString();
+    }
+
+    @Benchmark
+    public BigNumber add() {
+        return value1.add(value2);
+    }
+
+    @Benchmark
+    public BigInteger addBaseline() {
+        return bigInteger1.add(bigInteger2);
+    }
+
+    @Benchmark
+    public BigNumber multiply() {
+        return value1.multiply(value2);
+    }
+
+    @Benchmark
+    public BigInteger multiplyBaseline() {
+        return bigInteger1.multiply(bigInteger2);
+    }
+
+    @Benchmark
+    public BigNumber divide() {
+        return dividend.divide(value2);
+    }
+
+    @Benchmark
+    public BigInteger divideBaseline() {
+        return bigIntegerDividend.divide(bigInteger2);
+    }
+
+    @Benchmark
+    public int compareTo() {
+        return value1.compareTo(value2);
+    }
+
+    @Benchmark
+    public int compareToBaseline() {
+        return bigInteger1.compareTo(bigInteger2);
+    }
+}
@@ -0,0 +1,132 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The evaluation of the short, long and deeply nested expressions.
+ * The baseline evaluates the same compiled program with {@link BigInteger} arithmetic.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 22.07.2016.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculatorBenchmark {
+
+    @Param({"short", "long", "nested"})
+    private String shape;
+
+    private String expression;
+    private Program program;
+    private BigInteger[] bigIntegerConstants;
+    private ExpressionEvaluator evaluator;
+    private Calculator calculator;
+
+    @Setup
+    public void setUp() {
+        expression = expression(shape);
+        program = Parser.parse(expression);
+        bigIntegerConstants = new BigInteger[program.size()];
+        for (int i = 0; i < program.size(); i++) {
+            if (program.operator(i) == null) {
+                bigIntegerConstants[i] = new BigInteger(program.operand(i, null).toString());
+            }
+        }
+        evaluator = new ExpressionEvaluator();
+        calculator = new Calculator();
+    }
+
+    static String expression(String shape) {
+        Random random = new Random(shape.hashCode());
+        StringBuilder stringBuilder = new StringBuilder();
+        switch (shape) {
+            case "short":
+                return "98123746189 * -9123419237 + 8170239847109238741241 / 19283746189237";
+            case "long":
+                for (int i = 0; i < 1000; i++) {
+                    stringBuilder.append(i == 0 ? "" : i % 3 == 0 ? " - " : " + ")
+                            .append(ArithmeticBenchmark.randomNumber(random, 30)).append(" * ")
+                            .append(ArithmeticBenchmark.randomNumber(random, 20));
+                }
+                return stringBuilder.toString();
+            case "nested":
+                for (int i = 0; i < 500; i++) {
+                    stringBuilder.append('(').append(ArithmeticBenchmark.randomNumber(random, 12))
+                            .append(i % 2 == 0 ? " + " : " * ");
+                }
+                stringBuilder.append('1');
+                for (int i = 0; i < 500; i++) {
+                    stringBuilder.append(')');
+                }
+                return stringBuilder.toString();
+            default:
+                throw new IllegalArgumentException("Unknown shape '" + shape + "'");
+        }
+    }
+
+    @Benchmark
+    public BigNumber calculate() {
+        return evaluator.calculate(expression);
+    }
+
+    @Benchmark
+    public BigNumber calculateStateful() {
+        return calculator.calculate(expression);
+    }
+
+    @Benchmark
+    public BigNumber execute() {
+        return program.execute();
+    }
+
+    @Benchmark
+    public BigInteger executeBaseline() {
+        BigInteger[] stack = new BigInteger[program.size()];
+        int top = -1;
+        for (int i = 0; i < program.size(); i++) {
+            Operator operator = program.operator(i);
+            if (operator == null) {
+                stack[++top] = bigIntegerConstants[i];
+            } else if (operator == Operator.NEGATE) {
+                stack[top] = stack[top].negate();
+            } else {
+                BigInteger right = stack[top--];
+                stack[top] = apply(operator, stack[top], right);
+            }
+        }
+        return stack[0];
+    }
+
+    private static BigInteger apply(Operator operator, BigInteger left, BigInteger right) {
+        switch (operator) {
+            case ADD:
+                return left.add(right);
+            case SUBTRACT:
+                return left.subtract(right);
+            case MULTIPLY:
+                return left.multiply(right);
+            case DIVIDE:
+                return left.divide(right);
+            default:
+                throw new IllegalArgumentException("Unsupported operator " + operator);
+        }
+    }
+}
@@ -1,22 +1,60 @@
 package ua.com.goqajava.group2;
 
 
-import ua.com.goqajava.group2.calculator.Calculator;
+import ua.com.goqajava.group2.calculator.BatchEvaluator;
+import ua.com.goqajava.group2.calculator.BigNumber;
+import ua.com.goqajava.group2.calculator.CalculatorServer;
+import ua.com.goqajava.group2.calculator.Evaluation;
+import ua.com.goqajava.group2.calculator.EvaluatorSettings;
+import ua.com.goqajava.group2.calculator.ExpressionEvaluator;
+import ua.com.goqajava.group2.calculator.MetricsRegistry;
+import ua.com.goqajava.group2.calculator.Session;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Scanner;
 
 public class CalculatorRunner {
 
     private static final String HELP_MESSAGE =
-            "Please, enter a valid arithmetic expression or one of the following commands: ':help', ':?', ':exit', ':!'";
+            "Please, enter a valid arithmetic expression, an assignment '<name> = <expression>' or one of the following"
+                    + " commands: ':help', ':?', ':exit', ':!', ':vars', ':stats' [json|reset]. The results are referred"
+                    + " by '$1', '$2', ... and the last one by 'ans'";
 
     private static final String ERROR_MESSAGE =
             "Error. The entered arithmetic expression is invalid. Please, enter a valid one.";
 
+    private static final String USAGE_MESSAGE =
+            "Usage: [--batch [<input file>|-]] [--out <output file>] [--threads <number>] [--exact] [--optimize]"
+                    + " [--stats [json]]\n"
+                    + "       --serve <port> [--http <port>] [--bind <address>] [--exact] [--optimize]";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
     private static final Scanner scanner = new Scanner(System.in);
-    private static final Calculator calculator = new Calculator();
+    private static final MetricsRegistry metrics = new MetricsRegistry();
+    private static final Session session =
+            new Session(new ExpressionEvaluator(EvaluatorSettings.DEFAULT.withListener(metrics)));
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (Arrays.asList(args).contains("--serve") || Arrays.asList(args).contains("--http")) {
+            runServer(args);
+            return;
+        }
+        if (args.length > 0) {
+            runBatch(args);
+            return;
+        }
         String commandLine;
         System.out.println(HELP_MESSAGE);
         while (true) {
@@ -28,15 +66,173 @@ public class CalculatorRunner {
             }else if (commandLine.equals(":help") ||
                     commandLine.equals(":?")) {
                 System.out.println(HELP_MESSAGE);
+            } else if (commandLine.startsWith(":stats")) {
+                printStats(commandLine.substring(":stats".length()).trim());
+            } else if (commandLine.equals(":vars")) {
+                for (Map.Entry<String, BigNumber> variable : session.getVariables().entrySet()) {
+                    System.out.println(new Evaluation(variable.getKey(), variable.getValue(), true));
+                }
             } else {
                 try {
-                    calculator.calculate(commandLine);
-                    System.out.println(calculator);
-                } catch (IllegalArgumentException e) {
-                    System.out.println(ERROR_MESSAGE);
+                    Evaluation evaluation = session.execute(commandLine);
+                    if (commandLine.indexOf('=') < 0) {
+                        System.out.println("$" + session.getHistory().size() + ": " + evaluation);
+                    } else {
+                        System.out.println(evaluation);
+                    }
+                    for (Evaluation recomputed : session.getRecomputed()) {
+                        System.out.println(recomputed);
+                    }
+                } catch (IllegalArgumentException | ArithmeticException e) {
+                    System.out.println(ERROR_MESSAGE + " " + e.getMessage());
                 }
             }
         }
     }
 
+    /**
+     * Prints the measurements of the evaluations so far as text or, with the argument 'json', as JSON;
+     * the argument 'reset' forgets them
+     */
+    private static void printStats(String argument) {
+        switch (argument) {
+            case "":
+                System.out.print(metrics.toText());
+                break;
+            case "json":
+                System.out.println(metrics.toJson());
+                break;
+            case "reset":
+                metrics.reset();
+                break;
+            default:
+                System.out.println(HELP_MESSAGE);
+        }
+    }
+
+    /**
+     * Serves the line protocol and the HTTP endpoint of {@link CalculatorServer} till the JVM is stopped,
+     * the expressions already read are answered before the exit
+     */
+    private static void runServer(String[] args) throws IOException {
+        int linePort = -1;
+        int httpPort = -1;
+        InetAddress address = InetAddress.getLoopbackAddress();
+        EvaluatorSettings settings = EvaluatorSettings.DEFAULT;
+        MetricsRegistry serverMetrics = new MetricsRegistry();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--serve":
+                        linePort = Integer.parseInt(args[++i]);
+                        break;
+                    case "--http":
+                        httpPort = Integer.parseInt(args[++i]);
+                        break;
+                    case "--bind":
+                        address = InetAddress.getByName(args[++i]);
+                        break;
+                    case "--exact":
+                        settings = settings.withExactArithmetic(true);
+                        break;
+                    case "--optimize":
+                        settings = settings.withOptimization(true);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException | IOException e) {
+            System.err.println(USAGE_MESSAGE);
+            return;
+        }
+
+        CalculatorServer server = new CalculatorServer(
+                new ExpressionEvaluator(settings.withListener(serverMetrics)), serverMetrics,
+                CalculatorServer.DEFAULT_MAX_CONNECTIONS, CalculatorServer.DEFAULT_PIPELINE_DEPTH,
+                CalculatorServer.DEFAULT_MAX_LINE_LENGTH);
+        server.start(linePort < 0 ? null : new InetSocketAddress(address, linePort),
+                httpPort < 0 ? null : new InetSocketAddress(address, httpPort));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "calculator-shutdown"));
+        if (linePort >= 0) {
+            System.err.println("Serving the expressions on " + address.getHostAddress() + ":" + server.getLinePort());
+        }
+        if (httpPort >= 0) {
+            System.err.println("Serving HTTP on http://" + address.getHostAddress() + ":" + server.getHttpPort()
+                    + "/evaluate");
+        }
+        try {
+            server.awaitTermination();
+        } catch (InterruptedException e) {
+            server.close();
+        }
+    }
+
+    /**
+     * Evaluates the expressions of the input file, or of the standard input, one per line
+     * and writes the results in the same order to the output file, or to the standard output.
+     * With '--stats' the measurements of the evaluations are written to the standard error at the end.
+     */
+    private static void runBatch(String[] args) throws IOException {
+        String input = "-";
+        String output = "-";
+        int threads = Runtime.getRuntime().availableProcessors();
+        EvaluatorSettings settings = EvaluatorSettings.DEFAULT;
+        MetricsRegistry batchMetrics = null;
+        boolean json = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--batch":
+                        if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                            input = args[++i];
+                        }
+                        break;
+                    case "--out":
+                        output = args[++i];
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        if (threads < 1) {
+                            throw new IllegalArgumentException(args[i]);
+                        }
+                        break;
+                    case "--exact":
+                        settings = settings.withExactArithmetic(true);
+                        break;
+                    case "--optimize":
+                        settings = settings.withOptimization(true);
+                        break;
+                    case "--stats":
+                        batchMetrics = new MetricsRegistry();
+                        settings = settings.withListener(batchMetrics);
+                        if (i + 1 < args.length && args[i + 1].equals("json")) {
+                            json = true;
+                            i++;
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println(USAGE_MESSAGE);
+            return;
+        }
+
+        BatchEvaluator batchEvaluator = new BatchEvaluator(new ExpressionEvaluator(settings), threads,
+                BatchEvaluator.DEFAULT_CHUNK_SIZE, 2 * threads);
+        try (BufferedReader reader = input.equals("-") ?
+                new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), BUFFER_SIZE) :
+                Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8);
+             BufferedWriter writer = output.equals("-") ?
+                     new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), BUFFER_SIZE) :
+                     Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+            batchEvaluator.run(reader, writer);
+        }
+        if (batchMetrics != null) {
+            System.err.print(json ? batchMetrics.toJson() + System.lineSeparator() : batchMetrics.toText());
+        }
+    }
+
 }
@@ -0,0 +1,124 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates a stream of the expressions, one per line, and writes one result per line in the same order.
+ * <p>
+ * The lines are read in chunks and the chunks are evaluated by a fixed number of threads.
+ * At most {@code queueCapacity} chunks are in flight, so a fast reader can't run ahead of the evaluation
+ * and the memory stays bounded whatever the size of the input.
+ * An expression which can't be evaluated gives an inline error line, a blank line gives a blank line.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 25.07.2016.
+ */
+public final class BatchEvaluator {
+
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private final Evaluator evaluator;
+    private final int threads;
+    private final int chunkSize;
+    private final int queueCapacity;
+
+    public BatchEvaluator(Evaluator evaluator) {
+        this(evaluator, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE,
+                2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param evaluator     the evaluator shared by the threads, it has to be thread-safe
+     * @param threads       the number of the evaluating threads
+     * @param chunkSize     the number of the lines evaluated by a single task
+     * @param queueCapacity the maximal number of the chunks read but not written yet
+     */
+    public BatchEvaluator(Evaluator evaluator, int threads, int chunkSize, int queueCapacity) {
+        if (threads < 1 || chunkSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("The threads '" + threads + "', the chunk size '" + chunkSize
+                    + "' and the queue capacity '" + queueCapacity + "' have to be positive");
+        }
+        this.evaluator = evaluator;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Evaluates the lines of the reader till its end, the writer isn't flushed or closed
+     *
+     * @return the number of the evaluated lines
+     */
+    public long run(BufferedReader reader, Writer writer) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "batch-evaluator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            ArrayDeque<Future<List<String>>> pending = new ArrayDeque<>(queueCapacity);
+            long lines = 0;
+            List<String> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                chunk.add(line);
+                lines++;
+                if (chunk.size() == chunkSize) {
+                    if (pending.size() == queueCapacity) {
+                        write(pending.poll(), writer);
+                    }
+                    pending.add(submit(executor, chunk));
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                pending.add(submit(executor, chunk));
+            }
+            while (!pending.isEmpty()) {
+                write(pending.poll(), writer);
+            }
+            return lines;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Future<List<String>> submit(ExecutorService executor, List<String> chunk) {
+        return executor.submit(() -> evaluate(chunk));
+    }
+
+    /**
+     * @return the result lines of the expression lines
+     */
+    List<String> evaluate(List<String> lines) {
+        return evaluator.calculateAll(lines.stream())
+                .map(evaluation -> evaluation.getExpression().isEmpty() ? "" : evaluation.getResultText())
+                .collect(Collectors.toList());
+    }
+
+    private static void write(Future<List<String>> results, Writer writer) throws IOException {
+        List<String> lines;
+        try {
+            lines = results.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("The batch evaluation has been interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("The batch evaluation has failed", e.getCause());
+        }
+        for (String line : lines) {
+            writer.write(line);
+            writer.write(System.lineSeparator());
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.math.RoundingMode;
+
+import static ua.com.goqajava.group2.calculator.Calculable.Sign.*;
+
+/**
+ * The decimal number of an unscaled big integer and a scale: the value is {@code unscaled / 10^scale}.
+ * The class is immutable, the scale is never negative.
+ * <p>
+ * The addition, the subtraction and the multiplication are exact. The division rounds the quotient to
+ * the precision of a {@link DecimalContext}, {@link DecimalContext#DEFAULT} for {@link #divide(BigNumber)};
+ * an exact quotient drops its trailing zeros down to the difference of the scales, as {@link java.math.BigDecimal}
+ * does. The scales are aligned and the digits are rounded on the limbs directly,
+ * the text is neither built nor parsed but for the printing.
+ * <p>
+ * The decimals are equal if their values are, whatever their scales are. {@link #getValues()} and
+ * {@link #getLength()} describe the integer part. The operations with a {@link BigRational} are done by it.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 31.07.2016.
+ */
+public final class BigDecimalNumber implements BigNumber {
+
+    private static final int[] ONE_LIMB = {1};
+
+    private final BigInt unscaled;
+    private final int scale;
+
+    private BigDecimalNumber(BigInt unscaled, int scale) {
+        this.unscaled = unscaled;
+        this.scale = scale;
+    }
+
+    /**
+     * @return the decimal {@code unscaled / 10^scale}
+     */
+    public static BigDecimalNumber valueOf(BigNumber unscaled, int scale) {
+        BigInt value = BigInt.valueOf(unscaled);
+        return create(value.limbs(), value.getSign() == NEGATIVE, scale);
+    }
+
+    /**
+     * Converts an integer of any {@link BigNumber} type to the decimal of the scale 0,
+     * a fraction to its exact decimal expansion, a decimal is returned as is
+     *
+     * @throws ArithmeticException if the fraction has no finite decimal expansion
+     */
+    public static BigDecimalNumber valueOf(BigNumber value) {
+        if (value instanceof BigDecimalNumber) {
+            return (BigDecimalNumber) value;
+        }
+        if (value instanceof BigRational) {
+            BigRational fraction = (BigRational) value;
+            return (BigDecimalNumber) valueOf(fraction.getNumerator(), 0)
+                    .divide(fraction.getDenominator(), DecimalContext.UNLIMITED);
+        }
+        return valueOf(value, 0);
+    }
+
+    /**
+     * Parses an optionally signed run of the decimal digits with an optional point inside, as {@code -12.5}
+     *
+     * @throws IllegalArgumentException if the characters aren't a valid number
+     */
+    public static BigDecimalNumber parse(CharSequence values) {
+        return DecimalCodec.parseDecimal(values, 0, values.length());
+    }
+
+    private static BigDecimalNumber create(int[] mag, boolean negative, int scale) {
+        if (scale < 0) {
+            mag = Limbs.multiplyByPowerOfTen(mag, -scale);
+            scale = 0;
+        }
+        return new BigDecimalNumber(new BigInt(mag, negative ? NEGATIVE : POSITIVE), scale);
+    }
+
+    public BigInt getUnscaledValue() {
+        return unscaled;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * @return the number of the digits of the unscaled value
+     */
+    public int precision() {
+        return unscaled.getLength();
+    }
+
+    /**
+     * @return the integer part, truncated toward zero
+     */
+    public BigInt toBigInt() {
+        return new BigInt(Limbs.divideByPowerOfTen(unscaled.limbs(), scale), unscaled.getSign());
+    }
+
+    /**
+     * @return the decimal rounded to the precision of the context
+     * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY} and a digit is dropped
+     */
+    public BigDecimalNumber round(DecimalContext context) {
+        return round(unscaled.limbs(), scale, isNegative(), context, false, null);
+    }
+
+    /**
+     * @return the decimal of the same value and the least scale
+     */
+    public BigDecimalNumber stripTrailingZeros() {
+        return strip(0);
+    }
+
+    private boolean isNegative() {
+        return unscaled.getSign() == NEGATIVE;
+    }
+
+    /**
+     * @return the unscaled value aligned to the greater scale
+     */
+    private BigInt rescale(int newScale) {
+        return newScale == scale ? unscaled :
+                new BigInt(Limbs.multiplyByPowerOfTen(unscaled.limbs(), newScale - scale), unscaled.getSign());
+    }
+
+    /**
+     * Drops the trailing zeros while the scale is above the minimal one
+     */
+    private BigDecimalNumber strip(int minScale) {
+        if (unscaled.isZero()) {
+            return scale <= minScale ? this : new BigDecimalNumber(unscaled, minScale);
+        }
+        int drop = Math.min(Limbs.trailingZeros(unscaled.limbs()), scale - minScale);
+        return drop <= 0 ? this :
+                create(Limbs.divideByPowerOfTen(unscaled.limbs(), drop), isNegative(), scale - drop);
+    }
+
+    /**
+     * Rounds the magnitude to the precision of the context
+     *
+     * @param sticky     {@code true} if a non-zero tail lies below the digits of the magnitude
+     * @param evaluation the evaluation to mark truncated if a non-zero digit is dropped, may be {@code null}
+     */
+    private static BigDecimalNumber round(int[] mag, int scale, boolean negative, DecimalContext context,
+                                          boolean sticky, EvaluationContext evaluation) {
+        int drop = context.isUnlimited() ? 0 : Math.max(Limbs.digitCount(mag) - context.getPrecision(), 0);
+        if (drop == 0 && !sticky) {
+            return create(mag, negative, scale);
+        }
+        int[] kept = drop > 0 ? Limbs.divideByPowerOfTen(mag, drop) : mag;
+        int first = drop > 0 ? Limbs.digitAt(mag, drop - 1) : 0;
+        boolean rest = sticky || drop > 0 && Limbs.hasDigitsBelow(mag, drop - 1);
+        if (first == 0 && !rest) {
+            return create(kept, negative, scale - drop);
+        }
+        if (evaluation != null) {
+            evaluation.markTruncated();
+        }
+        if (roundsUp(context.getRoundingMode(), negative, first, rest, kept)) {
+            kept = Limbs.add(kept, ONE_LIMB);
+            if (!context.isUnlimited() && Limbs.digitCount(kept) > context.getPrecision()) {
+                kept = Limbs.divideByPowerOfTen(kept, 1);
+                drop++;
+            }
+        }
+        return create(kept, negative, scale - drop);
+    }
+
+    /**
+     * @param first the first dropped digit
+     * @param rest  {@code true} if a dropped digit after the first one isn't zero
+     * @return {@code true} if the magnitude of the kept digits has to be incremented
+     */
+    private static boolean roundsUp(RoundingMode mode, boolean negative, int first, boolean rest, int[] kept) {
+        switch (mode) {
+            case UP:
+                return true;
+            case DOWN:
+                return false;
+            case CEILING:
+                return !negative;
+            case FLOOR:
+                return negative;
+            case HALF_UP:
+                return first >= 5;
+            case HALF_DOWN:
+                return first > 5 || first == 5 && rest;
+            case HALF_EVEN:
+                // the base is even, so the lowest limb has the parity of the whole magnitude
+                return first > 5 || first == 5 && (rest || kept.length > 0 && (kept[0] & 1) != 0);
+            default:
+                throw new ArithmeticException("Rounding is necessary");
+        }
+    }
+
+    @Override
+    public BigNumber add(BigNumber addend) {
+        if (addend instanceof BigRational) {
+            return addend.add(this);
+        }
+        BigDecimalNumber that = valueOf(addend);
+        int common = Math.max(scale, that.scale);
+        return new BigDecimalNumber((BigInt) rescale(common).add(that.rescale(common)), common);
+    }
+
+    @Override
+    public BigNumber subtract(BigNumber deduction) {
+        return add(deduction.negate());
+    }
+
+    @Override
+    public BigNumber multiply(BigNumber multiplier) {
+        if (multiplier instanceof BigRational) {
+            return multiplier.multiply(this);
+        }
+        BigDecimalNumber that = valueOf(multiplier);
+        return new BigDecimalNumber((BigInt) unscaled.multiply(that.unscaled), scale + that.scale);
+    }
+
+    /**
+     * Divides with the precision and the rounding of {@link DecimalContext#DEFAULT}
+     */
+    @Override
+    public BigNumber divide(BigNumber divisor) {
+        return divide(divisor, DecimalContext.DEFAULT, null);
+    }
+
+    /**
+     * Divides with the precision and the rounding of the context
+     *
+     * @throws ArithmeticException if the divisor is zero, or the context is unlimited and the quotient
+     *                             has no finite decimal expansion
+     */
+    public BigNumber divide(BigNumber divisor, DecimalContext context) {
+        return divide(divisor, context, null);
+    }
+
+    /**
+     * @param evaluation the evaluation to mark truncated if the quotient is rounded, may be {@code null}
+     */
+    BigNumber divide(BigNumber divisor, DecimalContext context, EvaluationContext evaluation) {
+        if (divisor instanceof BigRational) {
+            return BigRational.valueOf(this).divide(divisor);
+        }
+        BigDecimalNumber that = valueOf(divisor);
+        if (that.isZero()) {
+            throw new ArithmeticException("Division by zero");
+        }
+        int preferredScale = Math.max(scale - that.scale, 0);
+        if (isZero()) {
+            return new BigDecimalNumber(unscaled, preferredScale);
+        }
+        boolean negative = isNegative() != that.isNegative();
+        int[] a = unscaled.limbs();
+        int[] b = that.unscaled.limbs();
+        if (context.isUnlimited()) {
+            return divideExactly(a, b, negative, scale - that.scale).strip(preferredScale);
+        }
+        // the quotient gets at least one digit beyond the precision, the remainder tells if more are non-zero
+        int shift = Math.max(context.getPrecision() + Limbs.digitCount(b) - Limbs.digitCount(a) + 1, 0);
+        int[][] result = Division.divideAndRemainder(Limbs.multiplyByPowerOfTen(a, shift), b);
+        int[] quotient = result[0];
+        BigDecimalNumber rounded = round(quotient, scale - that.scale + shift, negative, context,
+                result[1].length > 0, evaluation);
+        boolean exact = result[1].length == 0
+                && !Limbs.hasDigitsBelow(quotient, Math.max(Limbs.digitCount(quotient) - context.getPrecision(), 0));
+        return exact ? rounded.strip(preferredScale) : rounded;
+    }
+
+    /**
+     * The quotient is finite if the divisor reduced by the common divisor has no prime factors but 2 and 5,
+     * then it needs as many more digits as the greater power of them
+     */
+    private static BigDecimalNumber divideExactly(int[] a, int[] b, boolean negative, int scale) {
+        int[] rest = Division.divideAndRemainder(b, Gcd.gcd(a, b))[0];
+        int twos = 0;
+        while ((rest[0] & 1) == 0) {
+            Limbs.divideByInt(rest, 2, rest);
+            rest = Limbs.trim(rest);
+            twos++;
+        }
+        int fives = 0;
+        while (rest[0] % 5 == 0) {
+            Limbs.divideByInt(rest, 5, rest);
+            rest = Limbs.trim(rest);
+            fives++;
+        }
+        if (rest.length != 1 || rest[0] != 1) {
+            throw new ArithmeticException("The quotient has no finite decimal expansion");
+        }
+        int shift = Math.max(twos, fives);
+        int[] quotient = Division.divideAndRemainder(Limbs.multiplyByPowerOfTen(a, shift), b)[0];
+        return create(quotient, negative, scale + shift);
+    }
+
+    @Override
+    public BigNumber[] divideAndRemainder(BigNumber divisor) {
+        if (divisor instanceof BigRational) {
+            return BigRational.valueOf(this).divideAndRemainder(divisor);
+        }
+        BigDecimalNumber that = valueOf(divisor);
+        if (that.isZero()) {
+            throw new ArithmeticException("Division by zero");
+        }
+        int common = Math.max(scale, that.scale);
+        BigDecimalNumber quotient = new BigDecimalNumber((BigInt) rescale(common).divide(that.rescale(common)), 0);
+        return new BigNumber[]{quotient, subtract(that.multiply(quotient))};
+    }
+
+    @Override
+    public BigNumber mod(BigNumber divisor) {
+        return divideAndRemainder(divisor)[1];
+    }
+
+    /**
+     * The exact average, the half is five tenths
+     */
+    @Override
+    public BigNumber average(BigNumber value) {
+        if (value instanceof BigRational) {
+            return value.average(this);
+        }
+        BigDecimalNumber sum = (BigDecimalNumber) add(value);
+        return new BigDecimalNumber((BigInt) sum.unscaled.multiply(SmallInt.valueOf(5)), sum.scale + 1)
+                .strip(sum.scale);
+    }
+
+    @Override
+    public BigNumber square() {
+        return pow(2);
+    }
+
+    /**
+     * Raises the unscaled value to the power and multiplies the scale by it, as {@link java.math.BigDecimal#pow(int)}
+     *
+     * @throws ArithmeticException if the exponent is negative or the scale overflows
+     */
+    @Override
+    public BigNumber pow(int exponent) {
+        if (exponent < 0) {
+            throw new ArithmeticException("Negative exponent");
+        }
+        long powerScale = (long) scale * exponent;
+        if (powerScale > Integer.MAX_VALUE) {
+            throw new ArithmeticException("The scale of the power overflows");
+        }
+        return new BigDecimalNumber((BigInt) unscaled.pow(exponent), (int) powerScale);
+    }
+
+    /**
+     * @throws ArithmeticException if the decimal isn't an integer
+     */
+    @Override
+    public BigNumber modPow(BigNumber exponent, BigNumber modulus) {
+        return BigInt.valueOfExact(this).modPow(exponent, modulus);
+    }
+
+    @Override
+    public BigNumber abs() {
+        return isNegative() ? negate() : this;
+    }
+
+    @Override
+    public BigNumber negate() {
+        return new BigDecimalNumber((BigInt) unscaled.negate(), scale);
+    }
+
+    @Override
+    public boolean isZero() {
+        return unscaled.isZero();
+    }
+
+    @Override
+    public int[] getValues() {
+        return toBigInt().getValues();
+    }
+
+    @Override
+    public Sign getSign() {
+        return unscaled.getSign();
+    }
+
+    @Override
+    public int signum() {
+        return unscaled.signum();
+    }
+
+    @Override
+    public int compareMagnitude(BigNumber that) {
+        if (that instanceof BigRational) {
+            return -that.compareMagnitude(this);
+        }
+        BigDecimalNumber other = valueOf(that);
+        if (isZero() || other.isZero()) {
+            return isZero() ? other.isZero() ? 0 : -1 : 1;
+        }
+        int exponent = precision() - scale;
+        int otherExponent = other.precision() - other.scale;
+        if (exponent != otherExponent) {
+            return exponent > otherExponent ? 1 : -1;
+        }
+        int common = Math.max(scale, other.scale);
+        return Limbs.compare(rescale(common).limbs(), other.rescale(common).limbs());
+    }
+
+    @Override
+    public int compareTo(BigNumber that) {
+        if (that instanceof BigRational) {
+            return -that.compareTo(this);
+        }
+        if (getSign() != that.getSign()) {
+            return signum() > that.signum() ? 1 : -1;
+        }
+        int compareResult = compareMagnitude(that);
+        return isNegative() ? -compareResult : compareResult;
+    }
+
+    @Override
+    public int getLength() {
+        return toBigInt().getLength();
+    }
+
+    /**
+     * @return the sign, the digits and the point before the last {@code scale} of them, as {@code +0.25}
+     */
+    @Override
+    public String toString() {
+        return new String(DecimalCodec.toChars(unscaled.limbs(), isNegative() ? '-' : '+', scale));
+    }
+
+    /**
+     * @return {@code true} for the decimals of the same value, whatever their scales are
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        return compareTo((BigDecimalNumber) obj) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        BigDecimalNumber stripped = strip(0);
+        return 31 * stripped.unscaled.hashCode() + stripped.scale;
+    }
+}
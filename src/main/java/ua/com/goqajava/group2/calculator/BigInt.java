@@ -1,5 +1,10 @@
 package ua.com.goqajava.group2.calculator;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.util.Arrays;
 
 import static ua.com.goqajava.group2.calculator.Calculable.Sign.*;
@@ -8,6 +13,10 @@ import static ua.com.goqajava.group2.calculator.Calculable.Sign.*;
 /**
  * The abstract class of a big numbers.
  * The class is immutable
+ * <p>
+ * The magnitude is kept in little-endian limbs of base 10^9, so every limb carries nine decimal digits.
+ * {@link #getValues()} and {@link #getLength()} still describe the number digit by digit:
+ * the values are the little-endian decimal digits and the length is their count.
  *
  * @author Dmitrij Lenchuk
  * @since 14.07.2016.
@@ -16,165 +25,165 @@ public class BigInt implements BigNumber {
 
     public static final String VALID_VALUE_REGEXP = "(-|\\+)?\\d+";
 
-    private final int[] values;
+    private static final BigInt ZERO_VALUE = new BigInt(Limbs.EMPTY, ZERO);
+
+    private final int[] mag;
     private final Sign sign;
     private final int length;
 
+    private int[] values;
+
     public BigInt(String values) {
-        if (!values.matches(VALID_VALUE_REGEXP)) {
-            throw new IllegalArgumentException("\n'" + values + "'\nisn't a valid number");
-        }
+        this(DecimalCodec.parse(values, 0, values.length()));
+    }
 
-        String validValue =
-                new StringBuilder(values.replaceAll("(\\+|-)", "").replaceAll("^0+", "")).reverse().toString();
-        int length = validValue.length();
-        this.sign = length == 0 ? ZERO : values.charAt(0) == '-' ? NEGATIVE : POSITIVE;
+    private BigInt(BigInt value) {
+        this.mag = value.mag;
+        this.sign = value.sign;
+        this.length = value.length;
+    }
 
-        this.values = new int[length];
-        this.length = length;
+    /**
+     * Creates a number from a normalized magnitude, which is not copied
+     */
+    BigInt(int[] mag, Sign sign) {
+        this.mag = mag;
+        this.sign = mag.length == 0 ? ZERO : sign;
+        this.length = Limbs.digitCount(mag);
+    }
 
-        for (int i = 0; i < length; i++) {
-            this.values[i] = Integer.valueOf(String.valueOf(validValue.charAt(i)));
-        }
+    /**
+     * Parses the characters in a single pass, they are matched by {@link #VALID_VALUE_REGEXP}
+     *
+     * @throws IllegalArgumentException if the characters aren't a valid number
+     */
+    public static BigInt parse(CharSequence values) {
+        return DecimalCodec.parse(values, 0, values.length());
+    }
+
+    public static BigInt parse(CharSequence values, int offset, int length) {
+        return DecimalCodec.parse(values, offset, length);
+    }
+
+    public static BigInt parse(char[] values, int offset, int length) {
+        return DecimalCodec.parse(CharBuffer.wrap(values), offset, length);
+    }
+
+    /**
+     * Parses the ASCII characters in a single pass
+     *
+     * @throws IllegalArgumentException if the characters aren't a valid number
+     */
+    public static BigInt parse(byte[] values, int offset, int length) {
+        return DecimalCodec.parse(ByteBuffer.wrap(values, offset, length));
+    }
+
+    /**
+     * Parses the ASCII characters between the position and the limit of the buffer in a single pass,
+     * the position isn't changed
+     *
+     * @throws IllegalArgumentException if the characters aren't a valid number
+     */
+    public static BigInt parse(ByteBuffer values) {
+        return DecimalCodec.parse(values);
+    }
+
+    /**
+     * Parses the number written in the file, with optional surrounding whitespaces.
+     * The file is memory-mapped, so besides the mapping only the limbs of the number are allocated.
+     *
+     * @throws IllegalArgumentException if the file doesn't contain a valid number
+     */
+    public static BigInt read(Path file) throws IOException {
+        return DecimalCodec.parse(AsciiSequence.map(file).buffer());
     }
 
-    private BigInt(int[] values, Sign sign, int length) {
-        int currLength = this.length = Math.min(values.length, length);
-        for (int i = 0; i < currLength; i++) {
-            if (values[i] < 0 || values[i] > 9) {
-                throw new IllegalArgumentException("\n'" + values[i] + "'\nisn't a valid cipher on '" + i + "'-th position");
-            }
+    /**
+     * Streams the decimal digits to the channel, preceded by '-' if the number is negative
+     *
+     * @return the number of the written bytes
+     */
+    public long write(WritableByteChannel channel) throws IOException {
+        return DecimalCodec.write(mag, sign == NEGATIVE, channel);
+    }
+
+    /**
+     * Converts any {@link BigNumber} to the {@code BigInt} with the same integer value,
+     * a {@link BigRational} or a {@link BigDecimalNumber} is truncated toward zero
+     */
+    public static BigInt valueOf(BigNumber value) {
+        if (value instanceof BigInt) {
+            return (BigInt) value;
         }
-        this.sign = sign;
-        this.values = new int[currLength];
-        System.arraycopy(values, 0, this.values, 0, currLength);
-    }
-
-    private BigInt(int[] values) {
-        values = validate(values);
-        this.sign = extractSign(values);
-        this.values = truncate(values);
-        this.length = this.values.length;
-    }
-
-    private BigInt(int[] values, Sign sign) {
-        values = validate(values);
-        this.sign = extractSign(values).multiply(sign);
-        this.values = truncate(values);
-        this.length = this.values.length;
-    }
-
-    private int[] validate(int[] value) {
-        // Validation of data
-        for (int i = 0; i < value.length; i++) {
-            int item = value[i];
-            if (Math.abs(item) > 9) {
-                int currItem = item;
-                int length = (int) Math.ceil(Math.log10(item + 1));
-                for (int j = 0; j < length; j++) {
-                    int oldItem = currItem;
-                    currItem %= Math.pow(10, j + 1);
-                    value[i + j] = currItem + (j == 0 ? 0 : value[i + j]);
-                    currItem = (int) Math.ceil((oldItem - currItem) / 10);
-                }
-            }
+        if (value instanceof SmallInt) {
+            return valueOf(((SmallInt) value).longValue());
         }
-        return truncate(value);
-    }
-
-    private Sign extractSign(int[] values) {
-        values = truncate(values);
-        final Sign sign = isZero(values) ? ZERO : values[values.length - 1] < 0 ? NEGATIVE : POSITIVE;
-        boolean needToCorrectNegativeItems = false;
-        switch (sign) {
-            case POSITIVE:
-                for (int currItem : values) {
-                    if (currItem < 0) {
-                        needToCorrectNegativeItems = true;
-                    }
-                }
-                break;
-            case NEGATIVE:
-                for (int i = 0; i < values.length; i++) {
-                    if ((values[i] *= -1) < 0) {
-                        needToCorrectNegativeItems = true;
-                    }
-                }
-                break;
-            default:
-                return sign;
+        if (value instanceof OffHeapBigInt) {
+            return ((OffHeapBigInt) value).toBigInt();
         }
-        if (needToCorrectNegativeItems) {
-            castItemsToOnceSign(values);
+        if (value instanceof BigRational) {
+            return ((BigRational) value).toBigInt();
         }
-        return sign;
+        if (value instanceof BigDecimalNumber) {
+            return ((BigDecimalNumber) value).toBigInt();
+        }
+        return new BigInt(Limbs.fromDigits(value.getValues(), value.getLength()), value.getSign());
     }
 
-    private void castItemsToOnceSign(int[] values) {
-        values = truncate(values);
-        final Sign sign = isZero(values) ? ZERO : values[values.length - 1] < 0 ? NEGATIVE : POSITIVE;
-        switch (sign) {
-            case POSITIVE:
-                for (int i = 0; i < values.length - 1; i++) {
-                    if (values[i] < 0) {
-                        values[i + 1]--;
-                        values[i] += 10;
-                    }
-                }
-                return;
-            case NEGATIVE:
-                for (int i = 0; i < values.length - 1; i++) {
-                    if (values[i] > 0) {
-                        values[i + 1]++;
-                        values[i] -= 10;
-                    }
-                }
-                return;
-            default:
+    /**
+     * Converts the {@link BigNumber} of an integer value to the {@code BigInt}, as {@link #valueOf(BigNumber)} does
+     *
+     * @throws ArithmeticException if the value isn't an integer
+     */
+    static BigInt valueOfExact(BigNumber value) {
+        boolean fraction = value instanceof BigRational && !((BigRational) value).isInteger();
+        if (fraction || value instanceof BigDecimalNumber
+                && ((BigDecimalNumber) value).stripTrailingZeros().getScale() > 0) {
+            throw new ArithmeticException(value + " isn't an integer");
         }
+        return valueOf(value);
     }
 
-    private int[] truncate(int[] values) {
-        int length = values.length;
-        if (length == 0 || values[length - 1] != 0) {
-            return values;
+    public static BigInt valueOf(long value) {
+        if (value == Long.MIN_VALUE) {
+            return new BigInt(Long.toString(value));
         }
+        return new BigInt(Limbs.valueOf(Math.abs(value)), value < 0 ? NEGATIVE : POSITIVE);
+    }
 
-        for (int i = length - 1; i >= 0; i--) {
-            if (values[i] != 0) {
-                if (i == length - 1) {
-                    return values;
-                } else {
-                    int[] newValues = new int[i + 1];
-                    System.arraycopy(values, 0, newValues, 0, newValues.length);
-                    return newValues;
-                }
-            }
-        }
-        return new int[0];
+    int[] limbs() {
+        return mag;
+    }
+
+    /**
+     * @return {@code true} for the numbers which aren't integers, the operations with them are done by their classes
+     */
+    private static boolean isFraction(BigNumber value) {
+        return value instanceof BigRational || value instanceof BigDecimalNumber;
     }
 
     @Override
     public BigNumber add(BigNumber addend) {
+        if (isFraction(addend)) {
+            return addend.add(this);
+        }
+        BigInt that = valueOf(addend);
         if (sign == ZERO) {
-            return new BigInt(addend.getValues(), addend.getSign(), addend.getLength());
+            return that;
         }
-        if (addend.getSign() == ZERO) {
-            return new BigInt(values, sign, length);
+        if (that.sign == ZERO) {
+            return this;
         }
-
-        int thisLength = this.length;
-        int addendLength = addend.getLength();
-        int resultLength = Math.max(thisLength, addendLength) + 1;
-        int[] sum = new int[resultLength];
-        int[] add = addend.getValues();
-
-        for (int i = 0; i < resultLength; i++) {
-            int thisItem = i < thisLength ? values[i] : 0;
-            int addItem = i < addendLength ? add[i] : 0;
-            sum[i] = thisItem * (sign == POSITIVE ? 1 : -1) + addItem * (addend.getSign() == POSITIVE ? 1 : -1);
+        if (sign == that.sign) {
+            return new BigInt(Limbs.add(mag, that.mag), sign);
         }
-        return new BigInt(sum);
+        int compareResult = Limbs.compare(mag, that.mag);
+        if (compareResult == 0) {
+            return ZERO_VALUE;
+        }
+        return compareResult > 0 ?
+                new BigInt(Limbs.subtract(mag, that.mag), sign) :
+                new BigInt(Limbs.subtract(that.mag, mag), that.sign);
     }
 
     @Override
@@ -184,125 +193,131 @@ public class BigInt implements BigNumber {
 
     @Override
     public BigNumber multiply(BigNumber multiplier) {
-
-        if (sign == ZERO || multiplier.getSign() == ZERO) {
-            return new BigInt(new int[0], ZERO, 0);
+        if (isFraction(multiplier)) {
+            return multiplier.multiply(this);
         }
+        BigInt that = valueOf(multiplier);
+        if (sign == ZERO || that.sign == ZERO) {
+            return ZERO_VALUE;
+        }
+        return new BigInt(multiply(mag, that.mag), sign.multiply(that.sign));
+    }
 
-        int thisLength = this.length;
-        int multiplierLength = multiplier.getLength();
-
-        int[] value = this.getValues();
-        int[] multi = multiplier.getValues();
-
-        int[] product = new int[thisLength + multiplierLength];
-        Arrays.fill(product, 0);
-
-        for (int i = 0; i < multiplierLength; i++) {
-            for (int j = 0; j < thisLength; j++) {
-                product[i + j] += value[j] * multi[i];
-            }
+    /**
+     * A power of ten longer than a limb, as the scales of the generated expressions, only shifts the digits
+     */
+    private static int[] multiply(int[] a, int[] b) {
+        int exponent = b.length > 1 ? Limbs.powerOfTenExponent(b) : -1;
+        if (exponent >= 0) {
+            return Limbs.multiplyByPowerOfTen(a, exponent);
+        }
+        exponent = a.length > 1 ? Limbs.powerOfTenExponent(a) : -1;
+        if (exponent >= 0) {
+            return Limbs.multiplyByPowerOfTen(b, exponent);
         }
-        return new BigInt(product, sign.multiply(multiplier.getSign()));
+        return Multiplication.multiply(a, b);
     }
 
+    /**
+     * Divides exactly by a {@link BigRational}, truncates the quotient toward zero otherwise
+     */
     @Override
     public BigNumber divide(BigNumber divisor) {
-        Sign resultSign = sign.multiply(divisor.getSign());
-        BigNumber absThis = this.abs();
-        BigNumber absDivisor = divisor.abs();
+        if (divisor instanceof BigRational) {
+            return BigRational.valueOf(this).divide(divisor);
+        }
+        return divideAndRemainder(divisor)[0];
+    }
 
-        if (isZero() || absThis.compareTo(absDivisor) < 0) {
-            return new BigInt(new int[0], ZERO, 0);
+    @Override
+    public BigNumber[] divideAndRemainder(BigNumber divisor) {
+        if (divisor instanceof BigRational) {
+            return BigRational.valueOf(this).divideAndRemainder(divisor);
         }
-        if (absDivisor.isZero()) {
-            throw new ArithmeticException("Division by zero");
+        if (divisor instanceof BigDecimalNumber) {
+            return BigDecimalNumber.valueOf(this).divideAndRemainder(divisor);
         }
-        if (Arrays.equals(absThis.getValues(), absDivisor.getValues())) {
-            return new BigInt(new int[]{1}, resultSign);
+        BigInt that = valueOf(divisor);
+        if (that.isZero()) {
+            throw new ArithmeticException("Division by zero");
         }
-        if (Arrays.equals(absDivisor.getValues(), new int[]{1})) {
-            return new BigInt(absThis.getValues(), resultSign);
+        if (isZero()) {
+            return new BigNumber[]{ZERO_VALUE, ZERO_VALUE};
         }
+        int[][] result = Division.divideAndRemainder(mag, that.mag);
+        return new BigNumber[]{new BigInt(result[0], sign.multiply(that.sign)), new BigInt(result[1], sign)};
+    }
 
-        int thisLength = this.length;
-        int divLength = absDivisor.getLength();
-        int resultLength = (thisLength - divLength) + 1;
-
-        // 1...0
-        int[] min = new int[resultLength == 1 ? 1 : resultLength - 1];
-        Arrays.fill(min, 0);
-        min[min.length - 1] = 1;
-
-        // 100...0
-        int[] max = new int[resultLength + 1];
-        Arrays.fill(max, 0);
-        max[max.length - 1] = 1;
-
-        int[] curr = min;
-        BigInt estimate;
-        BigInt oldEstimate = null;
-        BigNumber estimateResult;
-
-        int compareResult;
-        while (true) {
-            estimate = new BigInt(curr);
-
-            if (estimate.equals(oldEstimate) ||
-                absThis.equals(estimateResult = estimate.multiply(absDivisor)) ||
-                (compareResult = absThis.compareTo(estimateResult)) == 0) {
-                return resultSign == NEGATIVE ? estimate.negate() : estimate;
-            }
-
-            if (compareResult > 0) {
-                min = curr;
-            } else {
-                max = curr;
-            }
-            curr = average(min, max);
-            oldEstimate = estimate;
+    @Override
+    public BigNumber mod(BigNumber divisor) {
+        return divideAndRemainder(divisor)[1];
+    }
+
+    public BigNumber average(BigNumber value) {
+        if (isFraction(value)) {
+            return value.average(this);
         }
+        MutableBigInt sum = new MutableBigInt(Math.max(mag.length, value.getLength() / Limbs.BASE_DIGITS + 1) + 1);
+        sum.set(this).addTo(value).divideBy(2);
+        return sum.toImmutable();
     }
 
-    private int[] average(int[] value1, int[] value2) {
-        return new BigInt(value1).average(new BigInt(value2)).getValues();
+    @Override
+    public BigNumber square() {
+        return sign == ZERO ? this : new BigInt(Multiplication.square(mag), POSITIVE);
     }
 
-    public BigNumber average(BigNumber value) {
-        int[] result = this.add(value).getValues();
-        final int resultLength = result.length;
-        int oldValue;
-        for (int i = resultLength - 1; i >= 0; i--) {
-            oldValue = result[i];
-            result[i] /= 2;
-            if (i > 0) {
-                result[i - 1] += (oldValue % 2) * 10;
-            }
+    /**
+     * @throws ArithmeticException if the exponent is negative or the power is too large
+     */
+    @Override
+    public BigNumber pow(int exponent) {
+        if (exponent < 0) {
+            throw new ArithmeticException("Negative exponent");
+        }
+        Sign powerSign = sign == NEGATIVE && (exponent & 1) != 0 ? NEGATIVE : POSITIVE;
+        return new BigInt(Multiplication.pow(mag, exponent), powerSign);
+    }
+
+    /**
+     * Exponentiates by {@link Modular}, a negative number is reduced to its non-negative residue first
+     */
+    @Override
+    public BigNumber modPow(BigNumber exponent, BigNumber modulus) {
+        BigInt power = valueOfExact(exponent);
+        BigInt that = valueOfExact(modulus);
+        if (that.sign != POSITIVE) {
+            throw new ArithmeticException("The modulus " + modulus + " isn't positive");
+        }
+        if (power.sign == NEGATIVE) {
+            throw new ArithmeticException("Negative exponent");
         }
-        return new BigInt(result);
+        BigInt residue = (BigInt) mod(that);
+        int[] base = residue.sign == NEGATIVE ? Limbs.subtract(that.mag, residue.mag) : residue.mag;
+        return new BigInt(Modular.modPow(base, power.mag, that.mag), POSITIVE);
     }
 
     @Override
     public BigNumber negate() {
-        return new BigInt(values, sign.invert(), length);
+        return sign == ZERO ? this : new BigInt(mag, sign.invert());
     }
 
     @Override
     public BigNumber abs() {
-        return sign == NEGATIVE ? new BigInt(values, POSITIVE, length) : this;
+        return sign == NEGATIVE ? new BigInt(mag, POSITIVE) : this;
     }
 
     @Override
     public boolean isZero() {
-        return isZero(values);
-    }
-
-    private boolean isZero(int[] values) {
-        return values == null || values.length == 0;
+        return sign == ZERO;
     }
 
     @Override
     public int[] getValues() {
+        int[] values = this.values;
+        if (values == null) {
+            this.values = values = Limbs.toDigits(mag);
+        }
         return values;
     }
 
@@ -317,38 +332,55 @@ public class BigInt implements BigNumber {
     }
 
     @Override
-    public int compareTo(BigNumber that) {
-        Sign sign = this.subtract(that).getSign();
+    public int signum() {
         return sign == POSITIVE ? 1 : sign == NEGATIVE ? -1 : 0;
     }
 
     @Override
-    public String toString() {
-        if (values == null || values.length == 0 || sign == ZERO) {
-            return "+0";
+    public int compareMagnitude(BigNumber that) {
+        if (isFraction(that)) {
+            return -that.compareMagnitude(this);
         }
-        StringBuilder stringBuilder = new StringBuilder(values.length).append(sign == NEGATIVE ? '-' : "+");
-        for (int i = length - 1; i >= 0; i--) {
-            stringBuilder.append(values[i]);
+        return Limbs.compare(mag, valueOf(that).mag);
+    }
+
+    @Override
+    public int compareTo(BigNumber that) {
+        if (isFraction(that)) {
+            return -that.compareTo(this);
+        }
+        BigInt other = valueOf(that);
+        if (sign != other.sign) {
+            return signum() > other.signum() ? 1 : -1;
         }
-        return stringBuilder.toString();
+        int compareResult = Limbs.compare(mag, other.mag);
+        return sign == NEGATIVE ? -compareResult : compareResult;
+    }
+
+    @Override
+    public String toString() {
+        return new String(DecimalCodec.toChars(mag, sign == NEGATIVE ? '-' : '+'));
     }
 
+    /**
+     * @return {@code true} for the integers of the same value, whether they are big, small or off-heap ones
+     */
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
+        if (obj instanceof SmallInt || obj instanceof OffHeapBigInt) return compareTo((BigNumber) obj) == 0;
         if (obj == null || getClass() != obj.getClass()) return false;
 
         BigInt that = (BigInt) obj;
 
         if (length != that.length) return false;
         if (sign != that.sign) return false;
-        return Arrays.equals(values, that.values);
+        return Arrays.equals(mag, that.mag);
     }
 
     @Override
     public int hashCode() {
-        int result = Arrays.hashCode(values);
+        int result = Arrays.hashCode(mag);
         result = 31 * result + (sign != null ? sign.hashCode() : 0);
         return result;
     }
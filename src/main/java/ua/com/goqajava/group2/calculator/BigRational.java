@@ -0,0 +1,362 @@
+package ua.com.goqajava.group2.calculator;
+
+import static ua.com.goqajava.group2.calculator.Calculable.Sign.*;
+
+/**
+ * The exact fraction of two big integers.
+ * The class is immutable.
+ * <p>
+ * The denominator is always positive, but the fraction is reduced lazily: the results of the operations keep
+ * the common factors until the denominator grows twice as long as it was after the last reduction,
+ * so the greatest common divisor of {@link Gcd} is computed once for a run of the operations.
+ * The printing, the equality and the terms returned by the getters see the reduced fraction,
+ * which is computed once and kept.
+ * <p>
+ * {@link #divide(BigNumber)} is exact, {@link #divideAndRemainder(BigNumber)} truncates the quotient toward zero
+ * as for the integers. {@link #getValues()} and {@link #getLength()} describe the integer part of the fraction.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 30.07.2016.
+ */
+public final class BigRational implements BigNumber {
+
+    /**
+     * The length, in limbs of nine digits, up to which the denominator isn't reduced at all
+     */
+    private static final int LAZY_LIMBS = 4;
+
+    private static final BigInt ONE = BigInt.valueOf(1);
+
+    private final BigInt numerator;
+    private final BigInt denominator;
+    private final int reducedLimbs;
+
+    private volatile BigRational reduced;
+
+    private BigRational(BigInt numerator, BigInt denominator, int reducedLimbs) {
+        this.numerator = numerator;
+        this.denominator = denominator;
+        this.reducedLimbs = reducedLimbs;
+    }
+
+    /**
+     * @return the fraction {@code numerator / denominator}
+     * @throws ArithmeticException if the denominator is zero
+     */
+    public static BigRational valueOf(BigNumber numerator, BigNumber denominator) {
+        if (denominator.isZero()) {
+            throw new ArithmeticException("Division by zero");
+        }
+        return create(BigInt.valueOf(numerator), BigInt.valueOf(denominator), 0);
+    }
+
+    /**
+     * Converts an integer of any {@link BigNumber} type to the fraction with the denominator 1,
+     * a {@link BigDecimalNumber} to the fraction with a power of ten as the denominator, a fraction is returned as is
+     */
+    public static BigRational valueOf(BigNumber value) {
+        if (value instanceof BigRational) {
+            return (BigRational) value;
+        }
+        if (value instanceof BigDecimalNumber) {
+            BigDecimalNumber decimal = (BigDecimalNumber) value;
+            return create(decimal.getUnscaledValue(),
+                    new BigInt(Limbs.multiplyByPowerOfTen(ONE.limbs(), decimal.getScale()), POSITIVE), 0);
+        }
+        BigRational integer = new BigRational(BigInt.valueOf(value), ONE, 1);
+        integer.reduced = integer;
+        return integer;
+    }
+
+    /**
+     * Makes the denominator positive and reduces the fraction if its denominator is grown enough
+     *
+     * @param reducedLimbs the length of the denominators of the operands after their last reduction
+     */
+    private static BigRational create(BigInt numerator, BigInt denominator, int reducedLimbs) {
+        if (denominator.getSign() == NEGATIVE) {
+            numerator = (BigInt) numerator.negate();
+            denominator = (BigInt) denominator.negate();
+        }
+        BigRational fraction = new BigRational(numerator, denominator, reducedLimbs);
+        return denominator.limbs().length > 2 * reducedLimbs + LAZY_LIMBS ? fraction.reduce() : fraction;
+    }
+
+    /**
+     * @return the reduced fraction of the same value
+     */
+    public BigRational reduce() {
+        BigRational reduced = this.reduced;
+        if (reduced == null) {
+            int[] divisor = Gcd.gcd(numerator.limbs(), denominator.limbs());
+            if (divisor.length == 1 && divisor[0] == 1) {
+                reduced = this;
+            } else {
+                BigInt gcd = new BigInt(divisor, POSITIVE);
+                BigInt reducedDenominator = (BigInt) denominator.divide(gcd);
+                reduced = new BigRational((BigInt) numerator.divide(gcd), reducedDenominator,
+                        reducedDenominator.limbs().length);
+                reduced.reduced = reduced;
+            }
+            this.reduced = reduced;
+        }
+        return reduced;
+    }
+
+    /**
+     * @return the reduced fraction if it's computed already, otherwise this one
+     */
+    private BigRational terms() {
+        BigRational reduced = this.reduced;
+        return reduced != null ? reduced : this;
+    }
+
+    /**
+     * @return the numerator of the reduced fraction, it carries the sign
+     */
+    public BigInt getNumerator() {
+        return reduce().numerator;
+    }
+
+    /**
+     * @return the positive denominator of the reduced fraction
+     */
+    public BigInt getDenominator() {
+        return reduce().denominator;
+    }
+
+    public boolean isInteger() {
+        return reduce().denominator.equals(ONE);
+    }
+
+    /**
+     * @return the integer of the same value if the fraction is an integer, otherwise the reduced fraction
+     */
+    public BigNumber toNumber() {
+        BigRational reduced = reduce();
+        return reduced.isInteger() ? SmallInt.demote(reduced.numerator) : reduced;
+    }
+
+    /**
+     * @return the integer part, truncated toward zero
+     */
+    public BigInt toBigInt() {
+        BigRational terms = terms();
+        return (BigInt) terms.numerator.divide(terms.denominator);
+    }
+
+    /**
+     * @return the digits of both terms as they are kept, the fraction isn't reduced
+     */
+    int digits() {
+        BigRational terms = terms();
+        return terms.numerator.getLength() + terms.denominator.getLength();
+    }
+
+    private int reducedLimbs(BigRational that) {
+        return Math.max(terms().reducedLimbs, that.terms().reducedLimbs);
+    }
+
+    @Override
+    public BigNumber add(BigNumber addend) {
+        BigRational a = terms();
+        BigRational b = valueOf(addend).terms();
+        if (b.numerator.isZero()) {
+            return a;
+        }
+        if (a.numerator.isZero()) {
+            return b;
+        }
+        if (a.denominator.equals(b.denominator)) {
+            return create((BigInt) a.numerator.add(b.numerator), a.denominator, reducedLimbs(b));
+        }
+        BigInt numerator = (BigInt) a.numerator.multiply(b.denominator).add(b.numerator.multiply(a.denominator));
+        return create(numerator, (BigInt) a.denominator.multiply(b.denominator), reducedLimbs(b));
+    }
+
+    @Override
+    public BigNumber subtract(BigNumber deduction) {
+        return add(deduction.negate());
+    }
+
+    @Override
+    public BigNumber multiply(BigNumber multiplier) {
+        BigRational a = terms();
+        BigRational b = valueOf(multiplier).terms();
+        return create((BigInt) a.numerator.multiply(b.numerator), (BigInt) a.denominator.multiply(b.denominator),
+                reducedLimbs(b));
+    }
+
+    /**
+     * Divides exactly
+     *
+     * @throws ArithmeticException if the divisor is zero
+     */
+    @Override
+    public BigNumber divide(BigNumber divisor) {
+        BigRational a = terms();
+        BigRational b = valueOf(divisor).terms();
+        if (b.numerator.isZero()) {
+            throw new ArithmeticException("Division by zero");
+        }
+        return create((BigInt) a.numerator.multiply(b.denominator), (BigInt) a.denominator.multiply(b.numerator),
+                reducedLimbs(b));
+    }
+
+    @Override
+    public BigNumber[] divideAndRemainder(BigNumber divisor) {
+        BigRational a = terms();
+        BigRational b = valueOf(divisor).terms();
+        if (b.numerator.isZero()) {
+            throw new ArithmeticException("Division by zero");
+        }
+        BigInt quotient = (BigInt) a.numerator.multiply(b.denominator).divide(a.denominator.multiply(b.numerator));
+        return new BigNumber[]{quotient, subtract(b.multiply(quotient))};
+    }
+
+    @Override
+    public BigNumber mod(BigNumber divisor) {
+        return divideAndRemainder(divisor)[1];
+    }
+
+    @Override
+    public BigNumber average(BigNumber value) {
+        return add(value).divide(SmallInt.valueOf(2));
+    }
+
+    @Override
+    public BigNumber square() {
+        return pow(2);
+    }
+
+    /**
+     * Raises both terms to the power, the powers of the reduced terms are reduced as well.
+     * A negative exponent raises the reciprocal.
+     *
+     * @throws ArithmeticException if zero is raised to a negative power
+     */
+    @Override
+    public BigNumber pow(int exponent) {
+        BigRational terms = terms();
+        if (exponent >= 0) {
+            return power(terms.numerator, terms.denominator, exponent, terms.reduced == terms);
+        }
+        if (terms.numerator.isZero()) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (exponent == Integer.MIN_VALUE) {
+            return pow(exponent / 2).pow(2);
+        }
+        BigInt numerator = terms.numerator.getSign() == NEGATIVE ? (BigInt) terms.denominator.negate() :
+                terms.denominator;
+        return power(numerator, (BigInt) terms.numerator.abs(), -exponent, terms.reduced == terms);
+    }
+
+    private BigRational power(BigInt numerator, BigInt denominator, int exponent, boolean reduced) {
+        BigInt powerDenominator = (BigInt) denominator.pow(exponent);
+        if (!reduced) {
+            return create((BigInt) numerator.pow(exponent), powerDenominator, reducedLimbs);
+        }
+        BigRational power = new BigRational((BigInt) numerator.pow(exponent), powerDenominator,
+                powerDenominator.limbs().length);
+        power.reduced = power;
+        return power;
+    }
+
+    /**
+     * @throws ArithmeticException if the fraction isn't an integer
+     */
+    @Override
+    public BigNumber modPow(BigNumber exponent, BigNumber modulus) {
+        return BigInt.valueOfExact(this).modPow(exponent, modulus);
+    }
+
+    @Override
+    public BigNumber abs() {
+        return numerator.getSign() == NEGATIVE ? negate() : this;
+    }
+
+    @Override
+    public BigNumber negate() {
+        BigRational terms = terms();
+        BigRational negated = new BigRational((BigInt) terms.numerator.negate(), terms.denominator,
+                terms.reducedLimbs);
+        if (terms.reduced == terms) {
+            negated.reduced = negated;
+        }
+        return negated;
+    }
+
+    @Override
+    public boolean isZero() {
+        return numerator.isZero();
+    }
+
+    @Override
+    public int[] getValues() {
+        return toBigInt().getValues();
+    }
+
+    @Override
+    public Sign getSign() {
+        return numerator.getSign();
+    }
+
+    @Override
+    public int signum() {
+        return numerator.signum();
+    }
+
+    @Override
+    public int compareMagnitude(BigNumber that) {
+        BigRational a = terms();
+        BigRational b = valueOf(that).terms();
+        return a.numerator.multiply(b.denominator).compareMagnitude(b.numerator.multiply(a.denominator));
+    }
+
+    @Override
+    public int compareTo(BigNumber that) {
+        if (getSign() != that.getSign()) {
+            return signum() > that.signum() ? 1 : -1;
+        }
+        int compareResult = compareMagnitude(that);
+        return getSign() == NEGATIVE ? -compareResult : compareResult;
+    }
+
+    @Override
+    public int getLength() {
+        return toBigInt().getLength();
+    }
+
+    /**
+     * @return the reduced fraction as {@code +numerator/denominator}, or the integer alone if the denominator is 1
+     */
+    @Override
+    public String toString() {
+        BigRational reduced = reduce();
+        if (reduced.denominator.equals(ONE)) {
+            return reduced.numerator.toString();
+        }
+        return reduced.numerator + "/" + reduced.denominator.toString().substring(1);
+    }
+
+    /**
+     * @return {@code true} for the fractions of the same value
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        BigRational a = reduce();
+        BigRational b = ((BigRational) obj).reduce();
+
+        return a.numerator.equals(b.numerator) && a.denominator.equals(b.denominator);
+    }
+
+    @Override
+    public int hashCode() {
+        BigRational reduced = reduce();
+        return 31 * reduced.numerator.hashCode() + reduced.denominator.hashCode();
+    }
+}
@@ -33,8 +33,40 @@ public interface Calculable {
 
     BigNumber divide(BigNumber divisor);
 
+    /**
+     * Divides with the quotient truncated toward zero
+     *
+     * @return the quotient and the remainder, the remainder has the sign of this number
+     */
+    BigNumber[] divideAndRemainder(BigNumber divisor);
+
+    /**
+     * The remainder of the {@link #divide(BigNumber)}, it has the sign of this number
+     */
+    BigNumber mod(BigNumber divisor);
+
     BigNumber average(BigNumber value);
 
+    /**
+     * @return this number multiplied by itself, the products of the different limbs are computed once
+     */
+    BigNumber square();
+
+    /**
+     * @return this number raised to the power
+     * @throws ArithmeticException if the exponent is negative and the type has no reciprocals
+     */
+    BigNumber pow(int exponent);
+
+    /**
+     * Raises this integer to the power modulo the modulus
+     *
+     * @return the non-negative residue below the modulus
+     * @throws ArithmeticException if an operand isn't an integer, the exponent is negative
+     *                             or the modulus isn't positive
+     */
+    BigNumber modPow(BigNumber exponent, BigNumber modulus);
+
     BigNumber abs();
 
     BigNumber negate();
@@ -45,6 +77,18 @@ public interface Calculable {
 
     Sign getSign();
 
+    /**
+     * @return -1, 0 or 1 as this number is negative, zero or positive
+     */
+    int signum();
+
+    /**
+     * Compares the absolute values without building them
+     *
+     * @return -1, 0 or 1 as the absolute value of this number is less than, equal to or greater than the other one
+     */
+    int compareMagnitude(BigNumber that);
+
     int getLength();
 
 }
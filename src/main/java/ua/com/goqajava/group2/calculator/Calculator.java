@@ -1,167 +1,105 @@
 package ua.com.goqajava.group2.calculator;
 
-import java.util.Arrays;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
- * The Calculator class
+ * The Calculator class.
+ * It remembers the last evaluated expression and its result for the interactive use,
+ * so an instance mustn't be shared between threads; the evaluation itself is done by an {@link ExpressionEvaluator}.
  *
  * @author Dmitrij Lenchuk
  * @since 21.07.2016.
  */
 public class Calculator implements Evaluator {
 
-    private static final String PATTERN_VALID_EXPRESSION = "[0-9()+\\-*/]*";
-    private static final String PATTERN_PARENTHESIS = "\\([^()]*\\)";
-    private static final String PATTERN_ALONE_PARENTHESIS = "^(\\([^()]*\\)|[^()]*)$";
-    private static final String PATTERN_FIRST_OR_LAST_PARENTHESIS = "^\\(|\\)$";
-    private static final String PATTERN_MULTIPLY = "\\d+\\*(\\+|-)?\\d+";
-    private static final String PATTERN_DIVIDE = "\\d+/(\\+|-)?\\d+";
-    private static final String PATTERN_PLUS = "(\\+|-)?\\d+\\+(\\+|-)?\\d+";
-    private static final String PATTERN_MINUS = "(\\+|-)?\\d+-(\\+|-)?\\d+";
-    private static final Pattern patternParenthesis = Pattern.compile(PATTERN_PARENTHESIS);
-    private static final Pattern patternMultiply = Pattern.compile(PATTERN_MULTIPLY);
-    private static final Pattern patternDivide = Pattern.compile(PATTERN_DIVIDE);
-    private static final Pattern patternPlus = Pattern.compile(PATTERN_PLUS);
-    private static final Pattern patternMinus = Pattern.compile(PATTERN_MINUS);
-
-    private String expression;
-    private BigNumber result;
+    /**
+     * The evaluation of the empty expression, a new calculator starts with it without going to the cache
+     */
+    private static final Evaluation EMPTY_EVALUATION = new Evaluation("", new BigInt("0"), true);
+
+    private final ExpressionEvaluator evaluator;
+
+    private Evaluation evaluation;
 
     public Calculator() {
-        this("");
+        this(new ExpressionEvaluator());
     }
 
     public Calculator(String expression) {
-        this.expression = verifyAndValidate(expression);
+        this(new ExpressionEvaluator());
         calculate(expression);
     }
 
+    /**
+     * Creates a calculator which keeps the parsed expressions and their results in the cache,
+     * the cache may be shared by several calculators
+     */
+    public Calculator(ExpressionCache cache) {
+        this(new ExpressionEvaluator(cache));
+    }
+
+    public Calculator(ExpressionEvaluator evaluator) {
+        this.evaluator = evaluator;
+        this.evaluation = EMPTY_EVALUATION;
+    }
+
+    public ExpressionEvaluator getEvaluator() {
+        return evaluator;
+    }
+
+    public ExpressionCache getCache() {
+        return evaluator.getCache();
+    }
+
     public String getExpression() {
-        return expression;
+        return evaluation.getExpression();
     }
 
     public BigNumber getResult() {
-        return result;
+        return evaluation.getValue();
     }
 
-    public BigNumber calculate(String expression) {
-        this.expression = verifyAndValidate(expression);
-        return result = new BigInt(simplify(this.expression));
-    }
-
-    private String verifyAndValidate(String expression) {
-        expression = expression.replaceAll("\\s+", "");
-        if (!expression.matches(PATTERN_VALID_EXPRESSION)) {
-            throw new IllegalArgumentException("The expression '" + expression + "' is invalid.");
-        }
-        return expression;
-    }
-
-    private String simplify(String expression) {
-        if (expression == null || expression.equals("")) {
-            return "0";
-        }
-        Matcher matcher = patternParenthesis.matcher(expression);
-        if (matcher.find()) {
-            return simplify(matcher.replaceFirst(calculateSimpleExpression(matcher.group())));
-        }
-        return calculateSimpleExpression(expression);
-    }
-
-    private String calculateSimpleExpression(String expression) {
-        if (!expression.matches(PATTERN_ALONE_PARENTHESIS)) {
-            throw new IllegalArgumentException("The expression '" + expression + "' isn't simple");
-        }
-        return testForMinus(testForPlus(testForDivide(testForMultiply(
-                expression.replaceAll(PATTERN_FIRST_OR_LAST_PARENTHESIS, "")))));
-    }
-
-    private String testForMultiply(String expression) {
-        Matcher matcher = patternMultiply.matcher(expression);
-        if (matcher.find()) {
-            String[] numbers = matcher.group().split("\\*");
-            return calculateSimpleExpression(matcher.replaceFirst(multiply(numbers[0], numbers[1]).toString())
-                    .replaceAll("(\\+\\+|--)", "+").replaceAll("(\\+-|-\\+)", "-"));
-        }
-        return expression;
-    }
-
-    private String testForDivide(String expression) {
-        Matcher matcher = patternDivide.matcher(expression);
-        if (matcher.find()) {
-            String[] numbers = matcher.group().split("/");
-            return calculateSimpleExpression(matcher.replaceFirst(divide(numbers[0], numbers[1]).toString())
-                    .replaceAll("(\\+\\+|--)", "+").replaceAll("(\\+-|-\\+)", "-"));
-        }
-        return expression;
-    }
-
-    private String testForPlus(String expression) {
-        Matcher matcher = patternPlus.matcher(expression);
-        if (matcher.find()) {
-            String[] numbers = matcher.group().split("\\+");
-            return calculateSimpleExpression(matcher.replaceFirst(
-                    add(numbers[numbers.length - 2], numbers[numbers.length - 1]).toString())
-                    .replaceAll("(\\+\\+|--)", "+").replaceAll("(\\+-|-\\+)", "-"));
-        }
-        return expression;
-    }
-
-    private String testForMinus(String expression) {
-        Matcher matcher = patternMinus.matcher(expression);
-        if (matcher.find()) {
-            String[] numbers = matcher.group().split("-");
-            return calculateSimpleExpression(matcher.replaceFirst(
-                    subtract((numbers.length == 3 ? "-" : "") + numbers[numbers.length - 2], numbers[numbers.length - 1]).toString())
-                    .replaceAll("(\\+\\+|--)", "+").replaceAll("(\\+-|-\\+)", "-"));
-        }
-        return expression;
-    }
-
-    private BigNumber add(String value1, String value2) {
-        return new BigInt(value1).add(new BigInt(value2));
+    public Evaluation getEvaluation() {
+        return evaluation;
     }
 
-    public BigNumber add(BigNumber value1, BigNumber value2) {
-        expression = verifyAndValidate(value1.toString() + "+" + value2.toString());
-        return result = value1.add(value2);
+    public Evaluation evaluate(String expression) {
+        return evaluation = evaluator.evaluate(expression);
     }
 
-    private BigNumber subtract(String value1, String value2) {
-        return new BigInt(value1).subtract(new BigInt(value2));
+    public BigNumber calculate(String expression) {
+        return evaluate(expression).getValue();
     }
 
-    public BigNumber subtract(BigNumber value1, BigNumber value2) {
-        expression = verifyAndValidate(value1.toString() + "-" + value2.toString());
-        return result = value1.subtract(value2);
+    /**
+     * The evaluations aren't recorded as the last one of the calculator
+     */
+    public Stream<Evaluation> calculateAll(Stream<String> expressions) {
+        return evaluator.calculateAll(expressions);
     }
 
-    private BigNumber multiply(String value1, String value2) {
-        return new BigInt(value1).multiply(new BigInt(value2));
+    public CompiledExpression compile(String expression) {
+        return evaluator.compile(expression);
     }
 
-    public BigNumber multiply(BigNumber value1, BigNumber value2) {
-        expression = verifyAndValidate(value1.toString() + "*" + value2.toString());
-        return result = value1.multiply(value2);
+    public BigNumber add(BigNumber value1, BigNumber value2) {
+        return (evaluation = evaluator.evaluate(value1, '+', value2)).getValue();
     }
 
-    private BigNumber divide(String value1, String value2) {
-        return new BigInt(value1).divide(new BigInt(value2));
+    public BigNumber subtract(BigNumber value1, BigNumber value2) {
+        return (evaluation = evaluator.evaluate(value1, '-', value2)).getValue();
+    }
+
+    public BigNumber multiply(BigNumber value1, BigNumber value2) {
+        return (evaluation = evaluator.evaluate(value1, '*', value2)).getValue();
     }
 
     public BigNumber divide(BigNumber value1, BigNumber value2) throws ArithmeticException {
-        expression = verifyAndValidate(value1.toString() + "/" + value2.toString());
-        return result = value1.divide(value2);
+        return (evaluation = evaluator.evaluate(value1, '/', value2)).getValue();
     }
 
     @Override
     public String toString() {
-        return expression == null || expression.equals("") ? "0" :
-                expression
-                        .replaceAll("\\+", " + ")
-                        .replaceAll("-", " - ") +
-                        (expression.matches(".*/.*") ? " ~ " : " = ") + result.toString().replaceAll("^\\+\\s*", "");
+        return evaluation.toString();
     }
 }
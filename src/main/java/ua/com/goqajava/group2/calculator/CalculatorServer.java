@@ -0,0 +1,493 @@
+package ua.com.goqajava.group2.calculator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The long-running server of an {@link Evaluator} shared by all the clients, so they pay the start of a JVM once.
+ * <p>
+ * The line protocol over TCP: every line sent is an expression and every line received is its result
+ * or an inline error, in the order of the expressions, as {@link BatchEvaluator} writes them.
+ * A client may send many expressions without waiting for their results: the expressions of a connection
+ * already read are evaluated in parallel, at most {@code pipelineDepth} of them at once. Then the connection
+ * isn't read till the oldest result is written, so a client which doesn't read its results is held back
+ * by TCP itself and can't make the server buffer them. The results are flushed when no more expressions
+ * of the connection have arrived.
+ * <p>
+ * The HTTP endpoint on the JDK's built-in server: {@code GET /evaluate?expression=...} evaluates one expression,
+ * {@code POST /evaluate} the lines of the body as the line protocol does, {@code GET /stats} returns
+ * the measurements of a {@link MetricsRegistry} listener as JSON.
+ * <p>
+ * The connections are served by the virtual threads if the JVM has them, otherwise by a pool of
+ * {@code maxConnections} threads; the expressions are evaluated by a pool of a thread per processor.
+ * The server accepts at most {@code maxConnections} TCP connections at once, the next ones wait in the backlog.
+ * <p>
+ * {@link #close()} stops accepting, answers the expressions already read and closes the connections,
+ * the ones still busy after the timeout are closed abruptly.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 03.08.2016.
+ */
+public final class CalculatorServer implements Closeable {
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 256;
+    public static final int DEFAULT_PIPELINE_DEPTH = 64;
+    public static final int DEFAULT_MAX_LINE_LENGTH = 1 << 20;
+    public static final long DEFAULT_SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private static final int BUFFER_SIZE = 1 << 13;
+
+    /**
+     * The delays of the next attempt after a connection isn't accepted, doubled from the least to the most
+     */
+    private static final long MIN_ACCEPT_BACKOFF_MILLIS = 10;
+    private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1000;
+
+    private static final Logger LOGGER = Logger.getLogger(CalculatorServer.class.getName());
+
+    private final Evaluator evaluator;
+    private final EvaluationListener listener;
+    private final int maxConnections;
+    private final int pipelineDepth;
+    private final int maxLineLength;
+
+    private final Semaphore connectionPermits;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    /**
+     * The server and every HTTP exchange in progress are its parties, the built-in server waits
+     * the whole delay of its stop even if no exchange is in progress
+     */
+    private final Phaser exchanges = new Phaser(1);
+    private final ExecutorService evaluationExecutor;
+    private ExecutorService connectionExecutor;
+    private ExecutorService httpExecutor;
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+    private HttpServer httpServer;
+    private volatile boolean closed;
+
+    public CalculatorServer(Evaluator evaluator) {
+        this(evaluator, null, DEFAULT_MAX_CONNECTIONS, DEFAULT_PIPELINE_DEPTH, DEFAULT_MAX_LINE_LENGTH);
+    }
+
+    /**
+     * @param evaluator      the evaluator shared by the connections, it has to be thread-safe
+     * @param listener       the listener of the evaluator, its measurements are returned by {@code /stats}
+     *                       if it's a {@link MetricsRegistry}; may be {@code null}
+     * @param maxConnections the maximal number of the TCP connections served at once
+     * @param pipelineDepth  the maximal number of the expressions of a connection read but not answered yet
+     * @param maxLineLength  the maximal length of an expression, a longer one is answered by an error
+     */
+    public CalculatorServer(Evaluator evaluator, EvaluationListener listener, int maxConnections,
+                            int pipelineDepth, int maxLineLength) {
+        if (maxConnections < 1 || pipelineDepth < 1 || maxLineLength < 1) {
+            throw new IllegalArgumentException("The maximal connections '" + maxConnections + "', the pipeline depth '"
+                    + pipelineDepth + "' and the maximal line length '" + maxLineLength + "' have to be positive");
+        }
+        this.evaluator = evaluator;
+        this.listener = listener;
+        this.maxConnections = maxConnections;
+        this.pipelineDepth = pipelineDepth;
+        this.maxLineLength = maxLineLength;
+        this.connectionPermits = new Semaphore(maxConnections);
+        this.evaluationExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                daemonThreads("calculator-evaluation"));
+    }
+
+    /**
+     * Starts to listen, the port 0 of an address picks a free one
+     *
+     * @param lineAddress the address of the line protocol, {@code null} for none
+     * @param httpAddress the address of the HTTP endpoint, {@code null} for none
+     */
+    public synchronized void start(InetSocketAddress lineAddress, InetSocketAddress httpAddress) throws IOException {
+        if (closed || serverSocket != null || httpServer != null) {
+            throw new IllegalStateException("The server has been started already");
+        }
+        try {
+            if (lineAddress != null) {
+                connectionExecutor = newConnectionExecutor(maxConnections, "calculator-connection");
+                serverSocket = new ServerSocket();
+                serverSocket.bind(lineAddress);
+                acceptor = new Thread(this::accept, "calculator-acceptor");
+                acceptor.setDaemon(true);
+                acceptor.start();
+            }
+            if (httpAddress != null) {
+                httpExecutor = newConnectionExecutor(maxConnections, "calculator-http");
+                httpServer = HttpServer.create(httpAddress, 0);
+                httpServer.createContext("/evaluate", exchange -> handle(exchange, this::handleEvaluate));
+                httpServer.createContext("/stats", exchange -> handle(exchange, this::handleStats));
+                httpServer.setExecutor(httpExecutor);
+                httpServer.start();
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the port of the line protocol, -1 if it isn't listened
+     */
+    public int getLinePort() {
+        return serverSocket == null ? -1 : serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the port of the HTTP endpoint, -1 if it isn't listened
+     */
+    public int getHttpPort() {
+        return httpServer == null ? -1 : httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Runs the virtual threads by reflection, as they are known from Java 21 only
+     */
+    private static ExecutorService newConnectionExecutor(int threads, String name) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(threads, daemonThreads(name));
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private void accept() {
+        long backoffMillis = 0;
+        while (!closed) {
+            Socket socket;
+            try {
+                connectionPermits.acquire();
+                socket = serverSocket.accept();
+                backoffMillis = 0;
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                connectionPermits.release();
+                if (closed || serverSocket.isClosed()) {
+                    // closing the server socket stops the acceptance
+                    return;
+                }
+                // a lasting failure, as running out of the file descriptors, is retried ever more slowly
+                backoffMillis = Math.min(Math.max(2 * backoffMillis, MIN_ACCEPT_BACKOFF_MILLIS),
+                        MAX_ACCEPT_BACKOFF_MILLIS);
+                LOGGER.log(Level.WARNING, "A connection isn't accepted, the next attempt in " + backoffMillis
+                        + " ms", e);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                continue;
+            }
+            connections.add(socket);
+            try {
+                connectionExecutor.execute(() -> serveConnection(socket));
+            } catch (RuntimeException e) {
+                closeQuietly(socket);
+                connections.remove(socket);
+                connectionPermits.release();
+            }
+        }
+    }
+
+    private void serveConnection(Socket socket) {
+        try (Socket connection = socket) {
+            connection.setTcpNoDelay(true);
+            Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8);
+            Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8), BUFFER_SIZE);
+            serve(new BufferedReader(reader, BUFFER_SIZE), writer);
+        } catch (IOException e) {
+            // the client has gone, there's nobody to answer
+        } finally {
+            connections.remove(socket);
+            connectionPermits.release();
+        }
+    }
+
+    /**
+     * Answers the lines of the reader till its end, the writer is flushed but not closed
+     */
+    void serve(BufferedReader reader, Writer writer) throws IOException {
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>(pipelineDepth);
+        try {
+            String line;
+            while ((line = readLine(reader)) != null) {
+                String expression = line;
+                pending.add(expression.length() > maxLineLength ?
+                        evaluationExecutor.submit(() -> "error: the expression is longer than "
+                                + maxLineLength + " characters") :
+                        evaluationExecutor.submit(() -> evaluate(expression)));
+                while (!pending.isEmpty() && (pending.peek().isDone() || pending.size() == pipelineDepth)) {
+                    write(pending.poll(), writer);
+                }
+                if (!reader.ready()) {
+                    while (!pending.isEmpty()) {
+                        write(pending.poll(), writer);
+                    }
+                    writer.flush();
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(pending.poll(), writer);
+            }
+            writer.flush();
+        } finally {
+            for (Future<String> result : pending) {
+                result.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Reads a line ended by '\n' or "\r\n"; of a longer line than the maximum only its start is kept,
+     * the rest is skipped
+     *
+     * @return the line, {@code null} at the end of the stream
+     */
+    private String readLine(BufferedReader reader) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int symbol;
+        while ((symbol = reader.read()) != -1 && symbol != '\n') {
+            if (line.length() <= maxLineLength) {
+                line.append((char) symbol);
+            }
+        }
+        if (symbol == -1 && line.length() == 0) {
+            return null;
+        }
+        int length = line.length();
+        if (length > 0 && length <= maxLineLength && line.charAt(length - 1) == '\r') {
+            line.setLength(length - 1);
+        }
+        return line.toString();
+    }
+
+    /**
+     * @return the result line of the expression line, blank for a blank one
+     */
+    private String evaluate(String expression) {
+        if (expression.trim().isEmpty()) {
+            return "";
+        }
+        Evaluation evaluation;
+        try {
+            evaluation = evaluator.evaluate(expression);
+        } catch (RuntimeException e) {
+            evaluation = Evaluation.failed(Evaluation.removeWhitespaces(expression), e);
+        }
+        return evaluation.getResultText();
+    }
+
+    private static void write(Future<String> result, Writer writer) throws IOException {
+        String line;
+        try {
+            line = result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("The evaluation has been interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("The evaluation has failed", e.getCause());
+        }
+        writer.write(line);
+        writer.write('\n');
+    }
+
+    private void handle(HttpExchange exchange, HttpHandler handler) throws IOException {
+        if (exchanges.register() < 0) {
+            try {
+                sendText(exchange, 503, "The server is shutting down\n");
+            } finally {
+                exchange.close();
+            }
+            return;
+        }
+        try {
+            handler.handle(exchange);
+        } finally {
+            exchange.close();
+            exchanges.arriveAndDeregister();
+        }
+    }
+
+    private void handleEvaluate(HttpExchange exchange) throws IOException {
+        if (exchange.getRequestMethod().equals("GET")) {
+            String expression = queryParameter(exchange.getRequestURI().getRawQuery(), "expression");
+            if (expression == null) {
+                sendText(exchange, 400, "The parameter 'expression' is missed\n");
+                return;
+            }
+            sendText(exchange, 200, evaluate(expression) + "\n");
+        } else if (exchange.getRequestMethod().equals("POST")) {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, 0);
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8), BUFFER_SIZE);
+            Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), BUFFER_SIZE);
+            serve(reader, writer);
+        } else {
+            exchange.getResponseHeaders().set("Allow", "GET, POST");
+            sendText(exchange, 405, "Only GET and POST are allowed\n");
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        if (listener instanceof MetricsRegistry) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            byte[] body = ((MetricsRegistry) listener).toJson().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } else {
+            sendText(exchange, 404, "No measurements are kept\n");
+        }
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static String queryParameter(String query, String name) throws UnsupportedEncodingException {
+        if (query == null) {
+            return null;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0 && parameter.substring(0, separator).equals(name)) {
+                return URLDecoder.decode(parameter.substring(separator + 1), "UTF-8");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits till the server is closed
+     */
+    public void awaitTermination() throws InterruptedException {
+        terminated.await();
+    }
+
+    /**
+     * Shuts down within {@link #DEFAULT_SHUTDOWN_TIMEOUT_MILLIS}
+     */
+    @Override
+    public void close() {
+        shutdown(DEFAULT_SHUTDOWN_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Stops accepting the connections and the requests, ends the input of the open connections,
+     * so they are closed as soon as the expressions already read are answered
+     *
+     * @param timeoutMillis the time to wait for the connections and the HTTP exchanges to finish,
+     *                      then they are closed abruptly
+     */
+    public synchronized void shutdown(long timeoutMillis) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        if (serverSocket != null) {
+            closeQuietly(serverSocket);
+            // the port accepts till the blocked accept() returns, so the shutdown waits for the acceptor
+            acceptor.interrupt();
+            try {
+                acceptor.join(TimeUnit.NANOSECONDS.toMillis(Math.max(deadline - System.nanoTime(), 0)) + 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (Socket connection : connections) {
+                try {
+                    connection.shutdownInput();
+                } catch (IOException e) {
+                    closeQuietly(connection);
+                }
+            }
+        }
+        try {
+            if (httpServer != null) {
+                try {
+                    exchanges.awaitAdvanceInterruptibly(exchanges.arriveAndDeregister(),
+                            Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    // the exchanges still in progress are stopped below
+                }
+                httpServer.stop(0);
+            }
+            awaitShutdown(connectionExecutor, deadline);
+            awaitShutdown(httpExecutor, deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Socket connection : connections) {
+                closeQuietly(connection);
+            }
+            evaluationExecutor.shutdownNow();
+            terminated.countDown();
+        }
+    }
+
+    private static void awaitShutdown(ExecutorService executor, long deadline) throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // nothing to do with a failed close
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An arithmetic expression parsed once to be evaluated many times with the different values of its variables.
+ * The class is immutable and thread-safe, an evaluation neither parses nor matches any text.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 22.07.2016.
+ */
+public final class CompiledExpression {
+
+    private final String expression;
+    private final Program program;
+    private final EvaluatorSettings settings;
+    private final List<String> variables;
+
+    CompiledExpression(String expression, Program program, EvaluatorSettings settings) {
+        this.expression = expression;
+        this.program = program;
+        this.settings = settings;
+        this.variables = Collections.unmodifiableList(Arrays.asList(program.getVariables()));
+    }
+
+    /**
+     * Compiles the expression for the evaluation with the {@link EvaluatorSettings#DEFAULT default settings}
+     *
+     * @throws ExpressionSyntaxException if the expression is invalid
+     */
+    public static CompiledExpression compile(String expression) {
+        return new CompiledExpression(expression, Parser.compile(expression), EvaluatorSettings.DEFAULT);
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * @return the names of the variables in the order of their first appearance in the expression
+     */
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a variable has no value
+     */
+    public BigNumber evaluate(Map<String, ? extends BigNumber> values) {
+        String[] names = program.getVariables();
+        BigNumber[] arguments = new BigNumber[names.length];
+        for (int i = 0; i < names.length; i++) {
+            if ((arguments[i] = values.get(names[i])) == null) {
+                throw new IllegalArgumentException("The variable '" + names[i] + "' has no value");
+            }
+        }
+        return program.execute(arguments, new EvaluationContext(settings));
+    }
+
+    /**
+     * @param values the values of the variables in the order of {@link #getVariables()}
+     * @throws IllegalArgumentException if the number of the values doesn't match the number of the variables
+     */
+    public BigNumber evaluate(BigNumber... values) {
+        if (values.length != variables.size()) {
+            throw new IllegalArgumentException("The expression '" + expression + "' has " + variables.size() +
+                    " variables " + variables + " but " + values.length + " values are given");
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                throw new IllegalArgumentException("The variable '" + variables.get(i) + "' has no value");
+            }
+        }
+        return program.execute(values, new EvaluationContext(settings));
+    }
+
+    /**
+     * @param values the values of the variables in the order of {@link #getVariables()}, all of them set
+     * @return the evaluation which tells whether a division has truncated the value
+     */
+    Evaluation evaluation(BigNumber[] values) {
+        return program.evaluate(expression, values, settings);
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -0,0 +1,271 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+import static ua.com.goqajava.group2.calculator.Calculable.Sign.*;
+
+/**
+ * Single pass conversion between the decimal text and the limbs.
+ * The limbs have the base 10^9, so every limb maps to exactly nine characters and both directions are linear.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 14.07.2016.
+ */
+final class DecimalCodec {
+
+    private static final int WRITE_BUFFER_LIMBS = 7282;
+
+    /**
+     * The number of the characters of an invalid number quoted by the exception
+     */
+    private static final int QUOTED_CHARS = 64;
+
+    private static final char[] DIGIT_PAIRS = new char[200];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_PAIRS[2 * i] = (char) ('0' + i / 10);
+            DIGIT_PAIRS[2 * i + 1] = (char) ('0' + i % 10);
+        }
+    }
+
+    private DecimalCodec() {
+    }
+
+    /**
+     * Parses an optionally signed run of the decimal digits
+     *
+     * @throws IllegalArgumentException if the characters aren't a valid number
+     */
+    static BigInt parse(CharSequence text, int offset, int length) {
+        checkBounds(text.length(), offset, length);
+        int end = offset + length;
+        int start = offset;
+        char first = length == 0 ? 0 : text.charAt(start);
+        if (first == '-' || first == '+') {
+            start++;
+        }
+        if (start == end) {
+            throw invalidNumber(text, offset, end);
+        }
+        while (start < end - 1 && text.charAt(start) == '0') {
+            start++;
+        }
+        return new BigInt(toLimbs(text, offset, start, end, end), first == '-' ? NEGATIVE : POSITIVE);
+    }
+
+    /**
+     * Parses an optionally signed run of the decimal digits, as a {@link SmallInt} if it has at most 18 digits
+     *
+     * @throws IllegalArgumentException if the characters aren't a valid number
+     */
+    static BigNumber parseCompact(CharSequence text, int offset, int length) {
+        checkBounds(text.length(), offset, length);
+        int start = offset;
+        char first = length == 0 ? 0 : text.charAt(start);
+        if (first == '-' || first == '+') {
+            start++;
+        }
+        int end = offset + length;
+        if (start == end || end - start > 18) {
+            return parse(text, offset, length);
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidNumber(text, offset, end);
+            }
+            value = value * 10 + digit;
+        }
+        return SmallInt.valueOf(first == '-' ? -value : value);
+    }
+
+    /**
+     * Parses an optionally signed run of the decimal digits with an optional point inside,
+     * the digits are packed into the limbs of the unscaled value in the same pass
+     *
+     * @throws IllegalArgumentException if the characters aren't a valid number
+     */
+    static BigDecimalNumber parseDecimal(CharSequence text, int offset, int length) {
+        checkBounds(text.length(), offset, length);
+        int end = offset + length;
+        int start = offset;
+        char first = length == 0 ? 0 : text.charAt(start);
+        if (first == '-' || first == '+') {
+            start++;
+        }
+        int point = start;
+        while (point < end && text.charAt(point) != '.') {
+            point++;
+        }
+        if (point == end) {
+            return BigDecimalNumber.valueOf(parse(text, offset, length), 0);
+        }
+        if (point == start || point == end - 1) {
+            throw invalidNumber(text, offset, end);
+        }
+
+        return BigDecimalNumber.valueOf(new BigInt(toLimbs(text, offset, start, end, point),
+                first == '-' ? NEGATIVE : POSITIVE), end - point - 1);
+    }
+
+    /**
+     * Parses an optionally signed run of the ASCII decimal digits between the position and the limit of the buffer.
+     * The position of the buffer isn't changed.
+     *
+     * @throws IllegalArgumentException if the bytes aren't a valid number
+     */
+    static BigInt parse(ByteBuffer buffer) {
+        return parse(new AsciiSequence(buffer), 0, buffer.remaining());
+    }
+
+    /**
+     * Packs the digits between the start and the end into the limbs, nine characters per limb from the end,
+     * skipping the point at its index; {@code point == end} if there is no point
+     *
+     * @param offset the beginning of the number quoted if a character isn't a digit
+     */
+    private static int[] toLimbs(CharSequence text, int offset, int start, int end, int point) {
+        int digits = point < end ? end - start - 1 : end - start;
+        int[] mag = new int[(digits + Limbs.BASE_DIGITS - 1) / Limbs.BASE_DIGITS];
+        int limbIndex = mag.length - 1;
+        int limbDigits = digits - limbIndex * Limbs.BASE_DIGITS;
+        int limb = 0;
+        for (int i = start; i < end; i++) {
+            if (i == point) {
+                continue;
+            }
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidNumber(text, offset, end);
+            }
+            limb = limb * 10 + digit;
+            if (--limbDigits == 0) {
+                mag[limbIndex--] = limb;
+                limb = 0;
+                limbDigits = Limbs.BASE_DIGITS;
+            }
+        }
+        return Limbs.trim(mag);
+    }
+
+    /**
+     * Writes the sign and the digits of the magnitude into an array of the exact size
+     */
+    static char[] toChars(int[] mag, char sign) {
+        if (mag.length == 0) {
+            return new char[]{sign, '0'};
+        }
+        int top = mag[mag.length - 1];
+        int topDigits = Limbs.digitCount(new int[]{top});
+        char[] chars = new char[1 + topDigits + (mag.length - 1) * Limbs.BASE_DIGITS];
+        chars[0] = sign;
+        int position = chars.length;
+        for (int i = 0; i < mag.length - 1; i++) {
+            position -= Limbs.BASE_DIGITS;
+            writeLimb(mag[i], chars, position, Limbs.BASE_DIGITS);
+        }
+        writeLimb(top, chars, 1, topDigits);
+        return chars;
+    }
+
+    /**
+     * Writes the sign and the digits of the magnitude with the point before the last {@code scale} of them,
+     * padded with the zeros so that there is at least one digit before the point
+     */
+    static char[] toChars(int[] mag, char sign, int scale) {
+        char[] digits = toChars(mag, sign);
+        if (scale == 0) {
+            return digits;
+        }
+        int digitCount = digits.length - 1;
+        int integerDigits = Math.max(digitCount - scale, 1);
+        char[] chars = new char[2 + integerDigits + scale];
+        Arrays.fill(chars, '0');
+        chars[0] = sign;
+        chars[1 + integerDigits] = '.';
+        int fractionDigits = Math.min(scale, digitCount);
+        System.arraycopy(digits, 1 + digitCount - fractionDigits, chars, chars.length - fractionDigits, fractionDigits);
+        if (digitCount > scale) {
+            System.arraycopy(digits, 1, chars, 1, digitCount - scale);
+        }
+        return chars;
+    }
+
+    /**
+     * Streams the optional minus and the digits of the magnitude to the channel through a buffer of about 64 KB,
+     * from the most significant limb down, so the whole text is never kept in memory
+     *
+     * @return the number of the written bytes
+     */
+    static long write(int[] mag, boolean negative, WritableByteChannel channel) throws IOException {
+        char[] chars = new char[Math.min(mag.length, WRITE_BUFFER_LIMBS) * Limbs.BASE_DIGITS + 1];
+        byte[] bytes = new byte[chars.length];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int position = 0;
+        if (negative) {
+            chars[position++] = '-';
+        }
+        if (mag.length == 0) {
+            chars[position++] = '0';
+        } else {
+            int top = mag[mag.length - 1];
+            int topDigits = Limbs.digitCount(new int[]{top});
+            writeLimb(top, chars, position, topDigits);
+            position += topDigits;
+        }
+        long written = 0;
+        for (int i = mag.length - 2; i >= -1; i--) {
+            if (i < 0 || position + Limbs.BASE_DIGITS > chars.length) {
+                for (int j = 0; j < position; j++) {
+                    bytes[j] = (byte) chars[j];
+                }
+                buffer.clear().limit(position);
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer);
+                }
+                position = 0;
+            }
+            if (i >= 0) {
+                writeLimb(mag[i], chars, position, Limbs.BASE_DIGITS);
+                position += Limbs.BASE_DIGITS;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Writes the limb as exactly {@code digits} characters, padded with the leading zeros
+     */
+    private static void writeLimb(int limb, char[] chars, int offset, int digits) {
+        int position = offset + digits;
+        while (position - offset >= 2) {
+            int pair = limb % 100;
+            limb /= 100;
+            chars[--position] = DIGIT_PAIRS[2 * pair + 1];
+            chars[--position] = DIGIT_PAIRS[2 * pair];
+        }
+        if (position > offset) {
+            chars[--position] = (char) ('0' + limb % 10);
+        }
+    }
+
+    private static void checkBounds(int size, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > size - length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", size " + size);
+        }
+    }
+
+    /**
+     * Quotes at most {@link #QUOTED_CHARS} characters of the number, the text may be a mapped file
+     */
+    private static IllegalArgumentException invalidNumber(CharSequence text, int from, int to) {
+        CharSequence quoted = text.subSequence(from, Math.min(to, from + QUOTED_CHARS));
+        return new IllegalArgumentException("\n'" + quoted + "'\nisn't a valid number");
+    }
+
+}
@@ -0,0 +1,73 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.math.RoundingMode;
+
+/**
+ * The precision and the rounding of the division of the {@link BigDecimalNumber} numbers.
+ * The class is immutable.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 31.07.2016.
+ */
+public final class DecimalContext {
+
+    /**
+     * 34 significant digits rounded half to even, as the decimal128 format has
+     */
+    public static final DecimalContext DEFAULT = new DecimalContext(34, RoundingMode.HALF_EVEN);
+
+    /**
+     * No rounding, a quotient without a finite decimal expansion is an error
+     */
+    public static final DecimalContext UNLIMITED = new DecimalContext(0, RoundingMode.HALF_UP);
+
+    private final int precision;
+    private final RoundingMode roundingMode;
+
+    /**
+     * @param precision    the number of the significant digits of a quotient, 0 for the exact quotients only
+     * @param roundingMode the rounding of the digits beyond the precision
+     */
+    public DecimalContext(int precision, RoundingMode roundingMode) {
+        if (precision < 0) {
+            throw new IllegalArgumentException("The precision '" + precision + "' is negative");
+        }
+        if (roundingMode == null) {
+            throw new IllegalArgumentException("The rounding mode isn't set");
+        }
+        this.precision = precision;
+        this.roundingMode = roundingMode;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public RoundingMode getRoundingMode() {
+        return roundingMode;
+    }
+
+    public boolean isUnlimited() {
+        return precision == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "precision=" + precision + " roundingMode=" + roundingMode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        DecimalContext that = (DecimalContext) obj;
+
+        return precision == that.precision && roundingMode == that.roundingMode;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * precision + roundingMode.hashCode();
+    }
+}
@@ -0,0 +1,275 @@
+package ua.com.goqajava.group2.calculator;
+
+/**
+ * The division engine of the magnitudes.
+ * Divisors of one limb are handled by a single pass, the moderate operands by the schoolbook long division
+ * (Knuth's Algorithm D) and the huge ones by the multiplication with a Newton-iterated reciprocal,
+ * which runs on the fast multiplication path. A divisor which is a power of ten only shifts the digits.
+ * <p>
+ * The Newton threshold is counted in limbs of nine decimal digits; both the divisor and the quotient
+ * have to reach it. Its default may be overridden by the system property {@value #NEWTON_THRESHOLD_PROPERTY}
+ * or at runtime by the setter.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 14.07.2016.
+ */
+public final class Division {
+
+    public static final String NEWTON_THRESHOLD_PROPERTY = "calculator.divide.newtonThreshold";
+
+    public static final int DEFAULT_NEWTON_THRESHOLD = 10_000;
+
+    private static final int BASE = Limbs.BASE;
+
+    private static volatile int newtonThreshold =
+            Integer.getInteger(NEWTON_THRESHOLD_PROPERTY, DEFAULT_NEWTON_THRESHOLD);
+
+    private Division() {
+    }
+
+    public static int getNewtonThreshold() {
+        return newtonThreshold;
+    }
+
+    public static void setNewtonThreshold(int threshold) {
+        if (threshold < 2) {
+            throw new IllegalArgumentException("The Newton threshold '" + threshold + "' is less than 2 limbs");
+        }
+        newtonThreshold = threshold;
+    }
+
+    /**
+     * Divides the magnitude {@code a} by the non-zero magnitude {@code b}
+     *
+     * @return the quotient and the remainder magnitudes
+     */
+    static int[][] divideAndRemainder(int[] a, int[] b) {
+        if (Limbs.compare(a, b) < 0) {
+            return new int[][]{Limbs.EMPTY, a};
+        }
+        if (b.length == 1) {
+            int[] quotient = new int[a.length];
+            int remainder = Limbs.divideByInt(a, b[0], quotient);
+            return new int[][]{Limbs.trim(quotient), Limbs.valueOf(remainder)};
+        }
+        int exponent = Limbs.powerOfTenExponent(b);
+        if (exponent >= 0) {
+            return new int[][]{Limbs.divideByPowerOfTen(a, exponent), Limbs.remainderByPowerOfTen(a, exponent)};
+        }
+        int threshold = newtonThreshold;
+        if (b.length >= threshold && a.length - b.length >= threshold) {
+            return divideNewton(a, b);
+        }
+        return divideKnuth(a, b);
+    }
+
+    /**
+     * Knuth's Algorithm D, the divisor has at least two limbs
+     */
+    static int[][] divideKnuth(int[] a, int[] b) {
+        int n = b.length;
+        int m = a.length - n;
+        int factor = BASE / (b[n - 1] + 1);
+
+        int[] u = new int[a.length + 1];
+        System.arraycopy(a, 0, u, 0, a.length);
+        int[] v = b.clone();
+        if (factor > 1) {
+            multiplyInPlace(u, factor);
+            multiplyInPlace(v, factor);
+        }
+        long vTop = v[n - 1];
+        long vNext = v[n - 2];
+        int[] quotient = new int[m + 1];
+
+        for (int j = m; j >= 0; j--) {
+            long numerator = (long) u[j + n] * BASE + u[j + n - 1];
+            long qHat = numerator / vTop;
+            long rHat = numerator - qHat * vTop;
+            while (qHat >= BASE || qHat * vNext > rHat * BASE + u[j + n - 2]) {
+                qHat--;
+                rHat += vTop;
+                if (rHat >= BASE) {
+                    break;
+                }
+            }
+
+            long carry = 0;
+            long borrow = 0;
+            for (int i = 0; i < n; i++) {
+                long product = qHat * v[i] + carry;
+                carry = product / BASE;
+                long item = u[i + j] - (product - carry * BASE) - borrow;
+                borrow = item < 0 ? 1 : 0;
+                u[i + j] = (int) (item + borrow * BASE);
+            }
+            long top = u[j + n] - carry - borrow;
+            if (top < 0) {
+                // qHat was one too big, add the divisor back
+                qHat--;
+                int addCarry = 0;
+                for (int i = 0; i < n; i++) {
+                    int item = u[i + j] + v[i] + addCarry;
+                    addCarry = item >= BASE ? 1 : 0;
+                    u[i + j] = item - addCarry * BASE;
+                }
+                top += addCarry;
+            }
+            u[j + n] = (int) top;
+            quotient[j] = (int) qHat;
+        }
+
+        int[] remainder = new int[n];
+        System.arraycopy(u, 0, remainder, 0, n);
+        if (factor > 1) {
+            Limbs.divideByInt(remainder, factor, remainder);
+        }
+        return new int[][]{Limbs.trim(quotient), Limbs.trim(remainder)};
+    }
+
+    /**
+     * Divides by multiplying with the reciprocal {@code floor(BASE^2m / b)}, where {@code m} is the length of the divisor.
+     * The dividend is consumed from the most significant end in chunks of {@code m} limbs,
+     * so every step divides a number below {@code b * BASE^m} and its estimate is off by a few units at most.
+     */
+    static int[][] divideNewton(int[] a, int[] b) {
+        int m = b.length;
+        int[] reciprocal = reciprocal(b);
+
+        int chunks = (a.length + m - 1) / m;
+        int[] quotient = new int[chunks * m];
+        int[] remainder = Limbs.EMPTY;
+        for (int chunk = chunks - 1; chunk >= 0; chunk--) {
+            int[] current = concatenate(remainder, a, chunk * m, m);
+            int[] estimate = shiftRight(Multiplication.multiply(current, reciprocal), 2 * m);
+            int[][] corrected = correct(current, b, estimate);
+            System.arraycopy(corrected[0], 0, quotient, chunk * m, Math.min(m, corrected[0].length));
+            remainder = corrected[1];
+        }
+        return new int[][]{Limbs.trim(quotient), remainder};
+    }
+
+    /**
+     * Calculates {@code floor(BASE^2m / b)} by Newton iterations which double the number of correct limbs,
+     * every iteration works with the leading limbs of the divisor only
+     */
+    static int[] reciprocal(int[] b) {
+        int m = b.length;
+        int steps = 0;
+        int[] precisions = new int[32];
+        precisions[0] = m;
+        while (precisions[steps] > 16) {
+            precisions[steps + 1] = (precisions[steps] + 1) / 2;
+            steps++;
+        }
+
+        int precision = precisions[steps];
+        int[] x = divideKnuthOrShort(powerOfBase(2 * precision), Multiplication.slice(b, m - precision, m))[0];
+        for (int step = steps - 1; step >= 0; step--) {
+            int nextPrecision = precisions[step];
+            int[] bTop = Multiplication.slice(b, m - nextPrecision, m);
+            x = shiftLeft(x, nextPrecision - precision);
+
+            // x' = x + x * (BASE^2p - bTop * x) / BASE^2p
+            int[] one = powerOfBase(2 * nextPrecision);
+            int[] product = Multiplication.multiply(bTop, x);
+            int compareResult = Limbs.compare(one, product);
+            if (compareResult > 0) {
+                int[] error = Limbs.subtract(one, product);
+                x = Limbs.add(x, shiftRight(Multiplication.multiply(x, error), 2 * nextPrecision));
+            } else if (compareResult < 0) {
+                int[] error = Limbs.subtract(product, one);
+                int[] correction = shiftRight(Multiplication.multiply(x, error), 2 * nextPrecision);
+                x = Limbs.subtract(x, Limbs.add(correction, new int[]{1}));
+            }
+            precision = nextPrecision;
+        }
+        return correct(powerOfBase(2 * m), b, x)[0];
+    }
+
+    /**
+     * Turns the estimate of the quotient {@code a / b} to the exact one
+     *
+     * @return the quotient and the remainder magnitudes
+     */
+    private static int[][] correct(int[] a, int[] b, int[] estimate) {
+        int[] product = Multiplication.multiply(estimate, b);
+        int compareResult = Limbs.compare(a, product);
+        if (compareResult >= 0) {
+            int[] remainder = Limbs.subtract(a, product);
+            if (Limbs.compare(remainder, b) < 0) {
+                return new int[][]{estimate, remainder};
+            }
+            int[][] fix = divideKnuthOrShort(remainder, b);
+            return new int[][]{Limbs.add(estimate, fix[0]), fix[1]};
+        }
+        int[] excess = Limbs.subtract(product, a);
+        int[][] fix = divideKnuthOrShort(excess, b);
+        int[] quotient = Limbs.subtract(estimate, fix[0]);
+        if (fix[1].length == 0) {
+            return new int[][]{quotient, Limbs.EMPTY};
+        }
+        return new int[][]{Limbs.subtract(quotient, new int[]{1}), Limbs.subtract(b, fix[1])};
+    }
+
+    private static int[][] divideKnuthOrShort(int[] a, int[] b) {
+        if (Limbs.compare(a, b) < 0) {
+            return new int[][]{Limbs.EMPTY, a};
+        }
+        if (b.length == 1) {
+            int[] quotient = new int[a.length];
+            int remainder = Limbs.divideByInt(a, b[0], quotient);
+            return new int[][]{Limbs.trim(quotient), Limbs.valueOf(remainder)};
+        }
+        int exponent = Limbs.powerOfTenExponent(b);
+        if (exponent >= 0) {
+            return new int[][]{Limbs.divideByPowerOfTen(a, exponent), Limbs.remainderByPowerOfTen(a, exponent)};
+        }
+        return divideKnuth(a, b);
+    }
+
+    private static void multiplyInPlace(int[] mag, int factor) {
+        long carry = 0;
+        for (int i = 0; i < mag.length; i++) {
+            long item = (long) mag[i] * factor + carry;
+            carry = item / BASE;
+            mag[i] = (int) (item - carry * BASE);
+        }
+    }
+
+    /**
+     * @return {@code high * BASE^length} plus the {@code length} limbs of {@code low} from {@code offset},
+     * where {@code high} is normalized
+     */
+    private static int[] concatenate(int[] high, int[] low, int offset, int length) {
+        int[] result = new int[length + high.length];
+        System.arraycopy(low, offset, result, 0, Math.max(Math.min(length, low.length - offset), 0));
+        System.arraycopy(high, 0, result, length, high.length);
+        return Limbs.trim(result);
+    }
+
+    static int[] powerOfBase(int exponent) {
+        int[] power = new int[exponent + 1];
+        power[exponent] = 1;
+        return power;
+    }
+
+    static int[] shiftLeft(int[] mag, int limbs) {
+        if (mag.length == 0 || limbs == 0) {
+            return mag;
+        }
+        int[] shifted = new int[mag.length + limbs];
+        System.arraycopy(mag, 0, shifted, limbs, mag.length);
+        return shifted;
+    }
+
+    static int[] shiftRight(int[] mag, int limbs) {
+        if (mag.length <= limbs) {
+            return Limbs.EMPTY;
+        }
+        int[] shifted = new int[mag.length - limbs];
+        System.arraycopy(mag, limbs, shifted, 0, shifted.length);
+        return shifted;
+    }
+
+}
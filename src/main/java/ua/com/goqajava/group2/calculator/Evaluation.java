@@ -0,0 +1,128 @@
+package ua.com.goqajava.group2.calculator;
+
+/**
+ * The immutable result of an evaluated expression
+ *
+ * @author Dmitrij Lenchuk
+ * @since 22.07.2016.
+ */
+public final class Evaluation {
+
+    private final String expression;
+    private final BigNumber value;
+    private final boolean exact;
+    private final RuntimeException error;
+
+    /**
+     * @param expression the evaluated expression without the whitespaces
+     * @param exact      {@code false} if a division has truncated the value
+     */
+    public Evaluation(String expression, BigNumber value, boolean exact) {
+        this(expression, value, exact, null);
+    }
+
+    private Evaluation(String expression, BigNumber value, boolean exact, RuntimeException error) {
+        this.expression = expression;
+        this.value = value;
+        this.exact = exact;
+        this.error = error;
+    }
+
+    /**
+     * @return the evaluation of the expression which can't be evaluated, it has no value
+     */
+    public static Evaluation failed(String expression, RuntimeException error) {
+        return new Evaluation(expression, null, false, error);
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public BigNumber getValue() {
+        return value;
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    /**
+     * @return the reason of the failure, {@code null} if the expression has been evaluated
+     */
+    public RuntimeException getError() {
+        return error;
+    }
+
+    /**
+     * @return the value without the leading '+', or the message of the error on a single line
+     */
+    public String getResultText() {
+        if (error != null) {
+            String message = error.getMessage();
+            return "error: " + (message == null ? error.getClass().getSimpleName() : message.trim().replace('\n', ' '));
+        }
+        String result = value.toString();
+        return result.startsWith("+") ? result.substring(1) : result;
+    }
+
+    static String removeWhitespaces(String expression) {
+        StringBuilder stringBuilder = null;
+        for (int i = 0; i < expression.length(); i++) {
+            char symbol = expression.charAt(i);
+            if (Character.isWhitespace(symbol)) {
+                if (stringBuilder == null) {
+                    stringBuilder = new StringBuilder(expression.length()).append(expression, 0, i);
+                }
+            } else if (stringBuilder != null) {
+                stringBuilder.append(symbol);
+            }
+        }
+        return stringBuilder == null ? expression : stringBuilder.toString();
+    }
+
+    /**
+     * @return the expression and its value joined by '=', or by '~' if the value is truncated,
+     * or by '!' with the error if it has failed
+     */
+    @Override
+    public String toString() {
+        if (expression.isEmpty() && error == null) {
+            return "0";
+        }
+        StringBuilder stringBuilder = new StringBuilder(expression.length() * 2 + 16);
+        for (int i = 0; i < expression.length(); i++) {
+            char symbol = expression.charAt(i);
+            if (symbol == '+' || symbol == '-') {
+                stringBuilder.append(' ').append(symbol).append(' ');
+            } else {
+                stringBuilder.append(symbol);
+            }
+        }
+        return stringBuilder.append(error != null ? " ! " : exact ? " = " : " ~ ").append(getResultText()).toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        Evaluation that = (Evaluation) obj;
+
+        if (exact != that.exact || !expression.equals(that.expression)) return false;
+        if (error != null || that.error != null) return error == that.error;
+        return value.equals(that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = expression.hashCode();
+        result = 31 * result + (value != null ? value.hashCode() : error.hashCode());
+        result = 31 * result + (exact ? 1 : 0);
+        return result;
+    }
+}
@@ -0,0 +1,152 @@
+package ua.com.goqajava.group2.calculator;
+
+/**
+ * The state of a single evaluation.
+ * It belongs to the evaluating thread or to the tasks of one parallel evaluation.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 22.07.2016.
+ */
+final class EvaluationContext {
+
+    /**
+     * The estimated size of the object of a number and of the array of its limbs without the limbs
+     */
+    private static final long NUMBER_BYTES = 40;
+
+    private final EvaluatorSettings settings;
+    private final EvaluationListener listener;
+    private volatile boolean truncated;
+    private volatile OffHeapArena arena;
+
+    EvaluationContext(EvaluatorSettings settings) {
+        this.settings = settings;
+        this.listener = settings.getListener();
+    }
+
+    EvaluatorSettings getSettings() {
+        return settings;
+    }
+
+    void markTruncated() {
+        truncated = true;
+    }
+
+    /**
+     * @return the operand in the representation of the result: a fraction if the settings are exact and
+     * the operator divides, raises to a negative power or the other operand is a fraction already,
+     * a decimal if the other operand is one,
+     * otherwise off the heap if the settings have an off-heap pool and one of the operands reaches
+     * the off-heap threshold
+     */
+    BigNumber represent(Operator operator, BigNumber left, BigNumber right) {
+        if (settings.isExact() && (operator == Operator.DIVIDE || right instanceof BigRational
+                || operator == Operator.POWER && right.signum() < 0)) {
+            return BigRational.valueOf(left);
+        }
+        if (right instanceof BigDecimalNumber && !(left instanceof BigDecimalNumber || left instanceof BigRational)) {
+            return BigDecimalNumber.valueOf(left);
+        }
+        OffHeapPool pool = settings.getOffHeapPool();
+        if (pool == null || !(left instanceof BigInt || left instanceof SmallInt)) {
+            return left;
+        }
+        long threshold = (long) settings.getOffHeapThreshold() * Limbs.BASE_DIGITS;
+        if (left.getLength() < threshold && (right == null || right.getLength() < threshold)) {
+            return left;
+        }
+        return OffHeapBigInt.valueOf(left, arena(pool));
+    }
+
+    private OffHeapArena arena(OffHeapPool pool) {
+        OffHeapArena arena = this.arena;
+        if (arena == null) {
+            synchronized (this) {
+                arena = this.arena;
+                if (arena == null) {
+                    this.arena = arena = pool.newArena();
+                }
+            }
+        }
+        return arena;
+    }
+
+    /**
+     * @return the result in its final representation: copied to the heap if it is off the heap,
+     * as it has to outlive the evaluation, and a fraction is reduced and turned into an integer if it is one
+     */
+    BigNumber complete(BigNumber result) {
+        if (result instanceof OffHeapBigInt) {
+            return ((OffHeapBigInt) result).toBigInt();
+        }
+        return result instanceof BigRational ? ((BigRational) result).toNumber() : result;
+    }
+
+    /**
+     * Ends the evaluation, the off-heap limbs of the intermediate values go back to the pool
+     */
+    void close() {
+        OffHeapArena arena = this.arena;
+        if (arena != null) {
+            arena.close();
+        }
+    }
+
+    /**
+     * @return the start time of a measured operation, 0 if the settings have no listener
+     */
+    long startTiming() {
+        return listener == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Reports the operation started at {@link #startTiming()} to the listener of the settings, if there is one
+     *
+     * @return the result
+     */
+    BigNumber operated(Operator operator, long start, BigNumber left, BigNumber right, BigNumber result) {
+        if (listener != null) {
+            long nanos = System.nanoTime() - start;
+            listener.operated(operator.getName(), digits(left), right == null ? 0 : digits(right), nanos,
+                    bytes(result));
+        }
+        return result;
+    }
+
+    /**
+     * Reports the evaluation started at {@link #startTiming()} to the listener of the settings, if there is one
+     */
+    void evaluated(long start, boolean succeeded) {
+        if (listener != null) {
+            listener.evaluated(System.nanoTime() - start, succeeded);
+        }
+    }
+
+    /**
+     * @return the digits of the number as it's kept, without the reduction of a fraction
+     */
+    private static long digits(BigNumber value) {
+        if (value instanceof BigRational) {
+            return ((BigRational) value).digits();
+        }
+        if (value instanceof BigDecimalNumber) {
+            return ((BigDecimalNumber) value).precision();
+        }
+        return value.getLength();
+    }
+
+    private static long bytes(BigNumber value) {
+        if (value instanceof SmallInt) {
+            return NUMBER_BYTES;
+        }
+        long parts = value instanceof BigRational ? 2 : 1;
+        return parts * NUMBER_BYTES + 4 * (digits(value) / Limbs.BASE_DIGITS + parts);
+    }
+
+    /**
+     * @return {@code true} if a division has dropped a non-zero remainder
+     */
+    boolean isTruncated() {
+        return truncated;
+    }
+}
@@ -0,0 +1,45 @@
+package ua.com.goqajava.group2.calculator;
+
+/**
+ * The receiver of the measurements of the evaluations, set by {@link EvaluatorSettings#withListener}.
+ * The methods are called by the evaluating threads, also by several at once, so an implementation must be
+ * thread-safe and quick. Without a listener nothing is measured at all.
+ * <p>
+ * The methods do nothing by default, so an implementation overrides only the measurements it needs.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 02.08.2016.
+ */
+public interface EvaluationListener {
+
+    /**
+     * Called after an expression is parsed, also if it's invalid
+     *
+     * @param length the number of the characters of the expression
+     * @param nanos  the time of the parsing
+     */
+    default void parsed(int length, long nanos) {
+    }
+
+    /**
+     * Called after every operator and function of an expression
+     *
+     * @param operator       the symbol of the operator or the name of the function
+     * @param leftDigits     the number of the digits of the left operand, of the exponent of {@code modPow}
+     * @param rightDigits    the number of the digits of the right operand, of the modulus of {@code modPow},
+     *                       0 for the unary operators
+     * @param nanos          the time of the operation
+     * @param allocatedBytes the estimated size of the result, the intermediate values aren't counted
+     */
+    default void operated(String operator, long leftDigits, long rightDigits, long nanos, long allocatedBytes) {
+    }
+
+    /**
+     * Called after an expression is evaluated
+     *
+     * @param nanos     the time of the evaluation without the parsing
+     * @param succeeded {@code false} if the evaluation has thrown an exception
+     */
+    default void evaluated(long nanos, boolean succeeded) {
+    }
+}
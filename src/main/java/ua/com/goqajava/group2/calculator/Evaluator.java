@@ -1,5 +1,7 @@
 package ua.com.goqajava.group2.calculator;
 
+import java.util.stream.Stream;
+
 /**
  * The contract of the evaluator classes
  *
@@ -8,8 +10,25 @@ package ua.com.goqajava.group2.calculator;
  */
 public interface Evaluator {
 
+    /**
+     * @return the expression and its value
+     */
+    Evaluation evaluate(String expression);
+
     BigNumber calculate(String expression);
 
+    /**
+     * Evaluates the expressions lazily, as the returned stream is consumed, and in parallel if it is parallel.
+     * An expression which can't be evaluated gives a {@link Evaluation#isFailed() failed} evaluation
+     * instead of stopping the stream.
+     */
+    Stream<Evaluation> calculateAll(Stream<String> expressions);
+
+    /**
+     * Parses the expression once, it may refer to the variables
+     */
+    CompiledExpression compile(String expression);
+
     BigNumber add(BigNumber value1, BigNumber value2);
 
     BigNumber subtract(BigNumber value1, BigNumber value2);
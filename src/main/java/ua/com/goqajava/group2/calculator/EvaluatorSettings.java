@@ -0,0 +1,185 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The immutable settings of an {@link ExpressionEvaluator}.
+ * Every {@code with} method returns a copy with one setting changed.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 22.07.2016.
+ */
+public final class EvaluatorSettings {
+
+    /**
+     * The default estimated cost, in operations on the limbs of nine digits, of a subexpression
+     * worth evaluating in parallel with its sibling
+     */
+    public static final long DEFAULT_PARALLEL_THRESHOLD = 1L << 20;
+
+    /**
+     * The default length, in limbs of nine digits, of the operands whose results are kept off the heap
+     */
+    public static final int DEFAULT_OFF_HEAP_THRESHOLD = 10_000;
+
+    /**
+     * No cache, the sequential evaluation, the heap numbers only, the truncating division of the integers,
+     * the default decimal context, no measurements and no optimization
+     */
+    public static final EvaluatorSettings DEFAULT =
+            new EvaluatorSettings(null, null, DEFAULT_PARALLEL_THRESHOLD, null, DEFAULT_OFF_HEAP_THRESHOLD, false,
+                    DecimalContext.DEFAULT, null, false);
+
+    private final ExpressionCache cache;
+    private final ForkJoinPool pool;
+    private final long parallelThreshold;
+    private final OffHeapPool offHeapPool;
+    private final int offHeapThreshold;
+    private final boolean exact;
+    private final DecimalContext decimalContext;
+    private final EvaluationListener listener;
+    private final boolean optimized;
+
+    private EvaluatorSettings(ExpressionCache cache, ForkJoinPool pool, long parallelThreshold,
+                              OffHeapPool offHeapPool, int offHeapThreshold, boolean exact,
+                              DecimalContext decimalContext, EvaluationListener listener, boolean optimized) {
+        this.cache = cache;
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+        this.offHeapPool = offHeapPool;
+        this.offHeapThreshold = offHeapThreshold;
+        this.exact = exact;
+        this.decimalContext = decimalContext;
+        this.listener = listener;
+        this.optimized = optimized;
+    }
+
+    /**
+     * @param cache the cache of the parsed expressions and their results, {@code null} for no cache;
+     *              the cached programs and results depend on the arithmetic settings and the optimization,
+     *              so the evaluators sharing a cache should have the same ones
+     */
+    public EvaluatorSettings withCache(ExpressionCache cache) {
+        return new EvaluatorSettings(cache, pool, parallelThreshold, offHeapPool, offHeapThreshold, exact,
+                decimalContext, listener, optimized);
+    }
+
+    /**
+     * @param pool the pool for the parallel evaluation of the independent subexpressions,
+     *             {@code null} for the sequential evaluation
+     */
+    public EvaluatorSettings withParallelism(ForkJoinPool pool) {
+        return new EvaluatorSettings(cache, pool, parallelThreshold, offHeapPool, offHeapThreshold, exact,
+                decimalContext, listener, optimized);
+    }
+
+    /**
+     * @param parallelThreshold the estimated cost, in operations on the limbs of nine digits, from which
+     *                          two sibling subexpressions are evaluated in parallel
+     */
+    public EvaluatorSettings withParallelThreshold(long parallelThreshold) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("The parallel threshold '" + parallelThreshold + "' isn't positive");
+        }
+        return new EvaluatorSettings(cache, pool, parallelThreshold, offHeapPool, offHeapThreshold, exact,
+                decimalContext, listener, optimized);
+    }
+
+    /**
+     * @param offHeapPool      the pool of the off-heap limbs, {@code null} to keep all the numbers on the heap
+     * @param offHeapThreshold the length, in limbs of nine digits, from which the result of an operator is kept
+     *                         off the heap; the intermediate values live till the end of the evaluation,
+     *                         its result is always copied to the heap
+     */
+    public EvaluatorSettings withOffHeap(OffHeapPool offHeapPool, int offHeapThreshold) {
+        if (offHeapThreshold < 1) {
+            throw new IllegalArgumentException("The off-heap threshold '" + offHeapThreshold + "' isn't positive");
+        }
+        return new EvaluatorSettings(cache, pool, parallelThreshold, offHeapPool, offHeapThreshold, exact,
+                decimalContext, listener, optimized);
+    }
+
+    /**
+     * @param exact {@code true} to divide exactly: the intermediate values are kept as {@link BigRational}
+     *              fractions and the result is a fraction only if it isn't an integer;
+     *              {@code false} to truncate every quotient toward zero
+     */
+    public EvaluatorSettings withExactArithmetic(boolean exact) {
+        return new EvaluatorSettings(cache, pool, parallelThreshold, offHeapPool, offHeapThreshold, exact,
+                decimalContext, listener, optimized);
+    }
+
+    /**
+     * @param decimalContext the precision and the rounding of the quotients of the decimals
+     */
+    public EvaluatorSettings withDecimalContext(DecimalContext decimalContext) {
+        if (decimalContext == null) {
+            throw new IllegalArgumentException("The decimal context isn't set");
+        }
+        return new EvaluatorSettings(cache, pool, parallelThreshold, offHeapPool, offHeapThreshold, exact,
+                decimalContext, listener, optimized);
+    }
+
+    /**
+     * @param listener the receiver of the times and the sizes of the parsing, the evaluations and the operators,
+     *                 as a {@link MetricsRegistry}; {@code null} to measure nothing
+     */
+    public EvaluatorSettings withListener(EvaluationListener listener) {
+        return new EvaluatorSettings(cache, pool, parallelThreshold, offHeapPool, offHeapThreshold, exact,
+                decimalContext, listener, optimized);
+    }
+
+    /**
+     * @param optimized {@code true} to rewrite every parsed expression by the {@link Optimizer}: the repeated
+     *                  subexpressions are evaluated once, the constants are folded and the identities removed;
+     *                  the folded operators aren't measured then
+     */
+    public EvaluatorSettings withOptimization(boolean optimized) {
+        return new EvaluatorSettings(cache, pool, parallelThreshold, offHeapPool, offHeapThreshold, exact,
+                decimalContext, listener, optimized);
+    }
+
+    public ExpressionCache getCache() {
+        return cache;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public long getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public boolean isParallel() {
+        return pool != null;
+    }
+
+    public OffHeapPool getOffHeapPool() {
+        return offHeapPool;
+    }
+
+    public int getOffHeapThreshold() {
+        return offHeapThreshold;
+    }
+
+    public boolean isOffHeap() {
+        return offHeapPool != null;
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+    public DecimalContext getDecimalContext() {
+        return decimalContext;
+    }
+
+    public EvaluationListener getListener() {
+        return listener;
+    }
+
+    public boolean isOptimized() {
+        return optimized;
+    }
+}
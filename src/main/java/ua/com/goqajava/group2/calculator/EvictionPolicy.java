@@ -0,0 +1,129 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The eviction policies of the {@link ExpressionCache}
+ *
+ * @author Dmitrij Lenchuk
+ * @since 22.07.2016.
+ */
+public enum EvictionPolicy {
+
+    /**
+     * Evicts the least recently used entry
+     */
+    LRU {
+        @Override
+        <K> Tracker<K> newTracker() {
+            return new Tracker<K>() {
+                private final LinkedHashMap<K, Boolean> order = new LinkedHashMap<>(16, 0.75f, true);
+
+                @Override
+                void added(K key) {
+                    order.put(key, Boolean.TRUE);
+                }
+
+                @Override
+                void accessed(K key) {
+                    order.get(key);
+                }
+
+                @Override
+                void removed(K key) {
+                    order.remove(key);
+                }
+
+                @Override
+                K victim() {
+                    Iterator<K> iterator = order.keySet().iterator();
+                    return iterator.hasNext() ? iterator.next() : null;
+                }
+            };
+        }
+    },
+
+    /**
+     * Evicts the least frequently used entry, the least recently used one among the equally frequent entries
+     */
+    LFU {
+        @Override
+        <K> Tracker<K> newTracker() {
+            return new Tracker<K>() {
+                private final Map<K, Integer> frequencies = new HashMap<>();
+                private final TreeMap<Integer, LinkedHashSet<K>> buckets = new TreeMap<>();
+
+                @Override
+                void added(K key) {
+                    frequencies.put(key, 1);
+                    bucket(1).add(key);
+                }
+
+                @Override
+                void accessed(K key) {
+                    Integer frequency = frequencies.get(key);
+                    if (frequency == null || frequency == Integer.MAX_VALUE) {
+                        return;
+                    }
+                    removeFromBucket(key, frequency);
+                    frequencies.put(key, frequency + 1);
+                    bucket(frequency + 1).add(key);
+                }
+
+                @Override
+                void removed(K key) {
+                    Integer frequency = frequencies.remove(key);
+                    if (frequency != null) {
+                        removeFromBucket(key, frequency);
+                    }
+                }
+
+                @Override
+                K victim() {
+                    Map.Entry<Integer, LinkedHashSet<K>> rarest = buckets.firstEntry();
+                    return rarest == null ? null : rarest.getValue().iterator().next();
+                }
+
+                private LinkedHashSet<K> bucket(int frequency) {
+                    LinkedHashSet<K> bucket = buckets.get(frequency);
+                    if (bucket == null) {
+                        buckets.put(frequency, bucket = new LinkedHashSet<>());
+                    }
+                    return bucket;
+                }
+
+                private void removeFromBucket(K key, int frequency) {
+                    LinkedHashSet<K> bucket = buckets.get(frequency);
+                    bucket.remove(key);
+                    if (bucket.isEmpty()) {
+                        buckets.remove(frequency);
+                    }
+                }
+            };
+        }
+    };
+
+    abstract <K> Tracker<K> newTracker();
+
+    /**
+     * Tracks the usage of the keys, it is guarded by the lock of its cache
+     */
+    abstract static class Tracker<K> {
+
+        abstract void added(K key);
+
+        abstract void accessed(K key);
+
+        abstract void removed(K key);
+
+        /**
+         * @return the key to evict next or {@code null} if nothing is tracked
+         */
+        abstract K victim();
+    }
+}
@@ -0,0 +1,200 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size-bounded cache of the parsed expressions and of the results of the expressions without variables.
+ * The cache is bounded by the number of the entries and by their weight, the approximate size in bytes
+ * of the expression text and of the digits of the result. The cache is thread-safe.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 22.07.2016.
+ */
+public final class ExpressionCache {
+
+    private final EvictionPolicy policy;
+    private final int maxEntries;
+    private final long maxWeight;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final EvictionPolicy.Tracker<String> tracker;
+    private long weight;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong resultHitCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * @param maxWeight the bound of the approximate size in bytes, {@link Long#MAX_VALUE} for no bound
+     */
+    public ExpressionCache(EvictionPolicy policy, int maxEntries, long maxWeight) {
+        if (maxEntries < 1 || maxWeight < 1) {
+            throw new IllegalArgumentException("The cache bounds '" + maxEntries + "' entries and '" +
+                    maxWeight + "' bytes aren't positive");
+        }
+        this.policy = policy;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.tracker = policy.newTracker();
+    }
+
+    public ExpressionCache(EvictionPolicy policy, int maxEntries) {
+        this(policy, maxEntries, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return the parsed expression, it is parsed and cached on a miss
+     * @throws ExpressionSyntaxException if the expression is invalid
+     */
+    Program compile(String expression, EvaluatorSettings settings) {
+        Entry entry = lookup(expression);
+        if (entry != null) {
+            return entry.program;
+        }
+        Program program = Optimizer.optimize(Parser.compile(expression, settings.getListener()), settings);
+        store(expression, new Entry(program, weigh(expression, null)));
+        return program;
+    }
+
+    /**
+     * @return the result of the expression without variables, it is evaluated and cached on a miss
+     * @throws ExpressionSyntaxException if the expression is invalid or has variables
+     */
+    Evaluation evaluate(String expression, EvaluatorSettings settings) {
+        Entry entry = lookup(expression);
+        if (entry == null) {
+            entry = new Entry(Optimizer.optimize(Parser.parse(expression, settings.getListener()), settings),
+                    weigh(expression, null));
+            store(expression, entry);
+        } else if (entry.result != null) {
+            resultHitCount.incrementAndGet();
+            return entry.result;
+        }
+        if (entry.program.getVariables().length > 0) {
+            // compiled by compile(), the same text is parsed again to report the variable
+            Parser.parse(expression);
+        }
+        Evaluation result = entry.program.evaluate(expression, settings);
+        synchronized (this) {
+            entry.result = result;
+            if (entries.get(expression) == entry) {
+                long entryWeight = weigh(expression, result);
+                weight += entryWeight - entry.weight;
+                entry.weight = entryWeight;
+                evict();
+            }
+        }
+        return result;
+    }
+
+    private synchronized Entry lookup(String expression) {
+        Entry entry = entries.get(expression);
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        tracker.accessed(expression);
+        return entry;
+    }
+
+    private synchronized void store(String expression, Entry entry) {
+        Entry previous = entries.put(expression, entry);
+        if (previous != null) {
+            weight -= previous.weight;
+            tracker.removed(expression);
+        }
+        tracker.added(expression);
+        weight += entry.weight;
+        evict();
+    }
+
+    private void evict() {
+        while (entries.size() > maxEntries || weight > maxWeight) {
+            String victim = tracker.victim();
+            if (victim == null) {
+                return;
+            }
+            tracker.removed(victim);
+            weight -= entries.remove(victim).weight;
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    private static long weigh(String expression, Evaluation result) {
+        long weight = 2L * expression.length();
+        if (result != null) {
+            weight += 4L * ((result.getValue().getLength() + Limbs.BASE_DIGITS - 1) / Limbs.BASE_DIGITS);
+        }
+        return weight;
+    }
+
+    public synchronized void clear() {
+        for (String expression : entries.keySet()) {
+            tracker.removed(expression);
+        }
+        entries.clear();
+        weight = 0;
+    }
+
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of the hits which have returned a cached result without the evaluation
+     */
+    public long getResultHitCount() {
+        return resultHitCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ExpressionCache{policy=" + policy + ", size=" + size() + ", weight=" + getWeight() +
+                ", hits=" + getHitCount() + ", misses=" + getMissCount() + ", resultHits=" + getResultHitCount() +
+                ", evictions=" + getEvictionCount() + '}';
+    }
+
+    private static final class Entry {
+
+        private final Program program;
+        private volatile Evaluation result;
+        private long weight;
+
+        private Entry(Program program, long weight) {
+            this.program = program;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * The stateless evaluator of the arithmetic expressions.
+ * It keeps no state between the calls, so a single instance may serve any number of threads without locking;
+ * the optional cache is thread-safe.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 22.07.2016.
+ */
+public class ExpressionEvaluator implements Evaluator {
+
+    private final EvaluatorSettings settings;
+
+    public ExpressionEvaluator() {
+        this(EvaluatorSettings.DEFAULT);
+    }
+
+    /**
+     * @param cache the cache of the parsed expressions and their results, {@code null} for no cache
+     */
+    public ExpressionEvaluator(ExpressionCache cache) {
+        this(EvaluatorSettings.DEFAULT.withCache(cache));
+    }
+
+    public ExpressionEvaluator(EvaluatorSettings settings) {
+        this.settings = settings;
+    }
+
+    public EvaluatorSettings getSettings() {
+        return settings;
+    }
+
+    public ExpressionCache getCache() {
+        return settings.getCache();
+    }
+
+    @Override
+    public Evaluation evaluate(String expression) {
+        ExpressionCache cache = settings.getCache();
+        if (cache != null) {
+            return cache.evaluate(expression, settings);
+        }
+        return Optimizer.optimize(Parser.parse(expression, settings.getListener()), settings)
+                .evaluate(expression, settings);
+    }
+
+    @Override
+    public BigNumber calculate(String expression) {
+        return evaluate(expression).getValue();
+    }
+
+    /**
+     * Evaluates the expression written in the file. The file is memory-mapped and the numbers are parsed
+     * straight from the mapping, so a huge expression is never copied to a {@link String}; it isn't cached.
+     */
+    public BigNumber calculate(Path file) throws IOException {
+        return Optimizer.optimize(Parser.parse(AsciiSequence.map(file), settings.getListener()), settings)
+                .execute(new BigNumber[0], new EvaluationContext(settings));
+    }
+
+    @Override
+    public Stream<Evaluation> calculateAll(Stream<String> expressions) {
+        return expressions.map(this::evaluateOrFail);
+    }
+
+    private Evaluation evaluateOrFail(String expression) {
+        try {
+            return evaluate(expression);
+        } catch (RuntimeException e) {
+            return Evaluation.failed(Evaluation.removeWhitespaces(expression), e);
+        }
+    }
+
+    @Override
+    public CompiledExpression compile(String expression) {
+        ExpressionCache cache = settings.getCache();
+        Program program = cache != null ? cache.compile(expression, settings) :
+                Optimizer.optimize(Parser.compile(expression, settings.getListener()), settings);
+        return new CompiledExpression(expression, program, settings);
+    }
+
+    @Override
+    public BigNumber add(BigNumber value1, BigNumber value2) {
+        return value1.add(value2);
+    }
+
+    @Override
+    public BigNumber subtract(BigNumber value1, BigNumber value2) {
+        return value1.subtract(value2);
+    }
+
+    @Override
+    public BigNumber multiply(BigNumber value1, BigNumber value2) {
+        return value1.multiply(value2);
+    }
+
+    @Override
+    public BigNumber divide(BigNumber value1, BigNumber value2) {
+        return value1.divide(value2);
+    }
+
+    /**
+     * Evaluates the binary operation on the numbers
+     *
+     * @param operator one of '+', '-', '*', '/', '%' and '^'
+     */
+    public Evaluation evaluate(BigNumber value1, char operator, BigNumber value2) {
+        Operator binary = Operator.binary(operator);
+        if (binary == null) {
+            throw new IllegalArgumentException("'" + operator + "' isn't an operator");
+        }
+        EvaluationContext context = new EvaluationContext(settings);
+        BigNumber value;
+        try {
+            value = context.complete(binary.apply(value1, value2, context));
+        } finally {
+            context.close();
+        }
+        return new Evaluation(value1.toString() + operator + value2.toString(), value, !context.isTruncated());
+    }
+}
@@ -0,0 +1,52 @@
+package ua.com.goqajava.group2.calculator;
+
+/**
+ * Thrown when an arithmetic expression can't be parsed.
+ * Only the characters around the error are kept, so an expression of a mapped file isn't copied to the heap.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 21.07.2016.
+ */
+public class ExpressionSyntaxException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of the characters kept on each side of the error
+     */
+    private static final int EXCERPT_RADIUS = 32;
+
+    private final String excerpt;
+    private final int position;
+
+    public ExpressionSyntaxException(String message, CharSequence expression, int position) {
+        this(message, excerpt(expression, position), position);
+    }
+
+    private ExpressionSyntaxException(String message, String excerpt, int position) {
+        super("The expression '" + excerpt + "' is invalid at position " + position + ": " + message);
+        this.excerpt = excerpt;
+        this.position = position;
+    }
+
+    private static String excerpt(CharSequence expression, int position) {
+        int length = expression.length();
+        int from = Math.max(Math.min(position, length) - EXCERPT_RADIUS, 0);
+        int to = Math.min(Math.max(position, 0) + EXCERPT_RADIUS, length);
+        return (from > 0 ? "..." : "") + expression.subSequence(from, to) + (to < length ? "..." : "");
+    }
+
+    /**
+     * @return the characters of the expression around the error, "..." marks the cut off ends
+     */
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    /**
+     * @return the zero-based index of the character in the whole expression where the error was found
+     */
+    public int getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,99 @@
+package ua.com.goqajava.group2.calculator;
+
+import static ua.com.goqajava.group2.calculator.Calculable.Sign.*;
+
+/**
+ * The greatest common divisor of the magnitudes by Lehmer's algorithm.
+ * The quotients of the Euclidean steps are guessed from the two leading limbs in {@code long} arithmetic,
+ * so every pass over the whole magnitudes stands for a run of the steps; the ending part is done in longs.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 30.07.2016.
+ */
+final class Gcd {
+
+    private static final long BASE = Limbs.BASE;
+
+    private Gcd() {
+    }
+
+    static int[] gcd(int[] a, int[] b) {
+        if (Limbs.compare(a, b) < 0) {
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        while (b.length > 0) {
+            if (a.length <= 2) {
+                return Limbs.valueOf(gcd(toLong(a), toLong(b)));
+            }
+            if (a.length - b.length > 1) {
+                int[] remainder = Division.divideAndRemainder(a, b)[1];
+                a = b;
+                b = remainder;
+                continue;
+            }
+
+            // Knuth's Algorithm L over the leading limbs x and y of a and b
+            int n = a.length;
+            long x = a[n - 1] * BASE + a[n - 2];
+            long y = (b.length == n ? b[n - 1] * BASE : 0) + b[n - 2];
+            long cofactorA = 1;
+            long cofactorB = 0;
+            long cofactorC = 0;
+            long cofactorD = 1;
+            while (y + cofactorC != 0 && y + cofactorD != 0) {
+                long quotient = (x + cofactorA) / (y + cofactorC);
+                if (quotient != (x + cofactorB) / (y + cofactorD)) {
+                    break;
+                }
+                long swap = cofactorA - quotient * cofactorC;
+                cofactorA = cofactorC;
+                cofactorC = swap;
+                swap = cofactorB - quotient * cofactorD;
+                cofactorB = cofactorD;
+                cofactorD = swap;
+                swap = x - quotient * y;
+                x = y;
+                y = swap;
+            }
+
+            if (cofactorB == 0) {
+                int[] remainder = Division.divideAndRemainder(a, b)[1];
+                a = b;
+                b = remainder;
+            } else {
+                BigInt u = new BigInt(a, POSITIVE);
+                BigInt v = new BigInt(b, POSITIVE);
+                a = combine(u, cofactorA, v, cofactorB);
+                b = combine(u, cofactorC, v, cofactorD);
+                if (Limbs.compare(a, b) < 0) {
+                    int[] swap = a;
+                    a = b;
+                    b = swap;
+                }
+            }
+        }
+        return a;
+    }
+
+    /**
+     * @return the magnitude of {@code factorU * u + factorV * v}
+     */
+    private static int[] combine(BigInt u, long factorU, BigInt v, long factorV) {
+        return ((BigInt) u.multiply(BigInt.valueOf(factorU)).add(v.multiply(BigInt.valueOf(factorV)))).limbs();
+    }
+
+    static long gcd(long a, long b) {
+        while (b != 0) {
+            long remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+        return a;
+    }
+
+    private static long toLong(int[] mag) {
+        return mag.length == 0 ? 0 : mag.length == 1 ? mag[0] : mag[1] * BASE + mag[0];
+    }
+}
@@ -0,0 +1,138 @@
+package ua.com.goqajava.group2.calculator;
+
+/**
+ * Splits an arithmetic expression into the tokens in a single pass.
+ * The lexer is a cursor: {@link #next()} moves to the following token
+ * and the accessors describe the current one.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 21.07.2016.
+ */
+final class Lexer {
+
+    enum TokenType {
+        NUMBER,
+        IDENTIFIER,
+        OPERATOR,
+        LEFT_PARENTHESIS,
+        RIGHT_PARENTHESIS,
+        COMMA,
+        END
+    }
+
+    private final CharSequence expression;
+    private final int end;
+    private int position;
+
+    private TokenType type;
+    private int start;
+    private boolean decimal;
+
+    Lexer(CharSequence expression) {
+        this.expression = expression;
+        this.end = expression.length();
+    }
+
+    TokenType next() {
+        while (position < end && Character.isWhitespace(expression.charAt(position))) {
+            position++;
+        }
+        start = position;
+        if (position == end) {
+            return type = TokenType.END;
+        }
+        char symbol = expression.charAt(position++);
+        if (isDigit(symbol)) {
+            skipDigits();
+            decimal = position + 1 < end && expression.charAt(position) == '.'
+                    && isDigit(expression.charAt(position + 1));
+            if (decimal) {
+                position++;
+                skipDigits();
+            }
+            return type = TokenType.NUMBER;
+        }
+        if (symbol == '$' && position < end && isDigit(expression.charAt(position))) {
+            skipDigits();
+            return type = TokenType.IDENTIFIER;
+        }
+        if (isIdentifierStart(symbol)) {
+            while (position < end && isIdentifierPart(expression.charAt(position))) {
+                position++;
+            }
+            return type = TokenType.IDENTIFIER;
+        }
+        switch (symbol) {
+            case '(':
+                return type = TokenType.LEFT_PARENTHESIS;
+            case ')':
+                return type = TokenType.RIGHT_PARENTHESIS;
+            case ',':
+                return type = TokenType.COMMA;
+            default:
+                if (Operator.binary(symbol) != null) {
+                    return type = TokenType.OPERATOR;
+                }
+                throw error("unexpected character '" + symbol + "'");
+        }
+    }
+
+    private void skipDigits() {
+        while (position < end && isDigit(expression.charAt(position))) {
+            position++;
+        }
+    }
+
+    private static boolean isDigit(char symbol) {
+        return symbol >= '0' && symbol <= '9';
+    }
+
+    private static boolean isIdentifierStart(char symbol) {
+        return symbol >= 'a' && symbol <= 'z' || symbol >= 'A' && symbol <= 'Z' || symbol == '_';
+    }
+
+    private static boolean isIdentifierPart(char symbol) {
+        return isIdentifierStart(symbol) || isDigit(symbol);
+    }
+
+    TokenType getType() {
+        return type;
+    }
+
+    /**
+     * @return the index of the first character of the current token
+     */
+    int getStart() {
+        return start;
+    }
+
+    /**
+     * @return the index after the last character of the current token
+     */
+    int getEnd() {
+        return position;
+    }
+
+    /**
+     * @return {@code true} if the current token is a number with a decimal point
+     */
+    boolean isDecimal() {
+        return decimal;
+    }
+
+    String getText() {
+        return expression.subSequence(start, position).toString();
+    }
+
+    char getSymbol() {
+        return expression.charAt(start);
+    }
+
+    CharSequence getExpression() {
+        return expression;
+    }
+
+    ExpressionSyntaxException error(String message) {
+        return new ExpressionSyntaxException(message, expression, start);
+    }
+}
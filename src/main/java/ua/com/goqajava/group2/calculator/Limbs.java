@@ -0,0 +1,409 @@
+package ua.com.goqajava.group2.calculator;
+
+/**
+ * Kernels over magnitudes stored as little-endian arrays of base 10^9 limbs.
+ * A normalized magnitude has no leading (most significant) zero limbs, zero is an empty array.
+ * <p>
+ * The carries and the borrows are taken from the sign bit of the item less the base instead of a branch,
+ * the random limbs make such branches unpredictable.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 14.07.2016.
+ */
+final class Limbs {
+
+    static final int BASE = 1_000_000_000;
+    static final int BASE_DIGITS = 9;
+    static final int[] EMPTY = new int[0];
+
+    /**
+     * The number of the rows of the products below {@code BASE^2} whose sum, with a normalized item, fits a long
+     */
+    static final int DEFERRED_ROWS = 8;
+
+    private static final int[] POWERS_OF_TEN = {
+            1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000, 1_000_000_000
+    };
+
+    private Limbs() {
+    }
+
+    static int powerOfTen(int exponent) {
+        return POWERS_OF_TEN[exponent];
+    }
+
+    static int[] valueOf(long value) {
+        if (value == 0) {
+            return EMPTY;
+        }
+        if (value < BASE) {
+            return new int[]{(int) value};
+        }
+        if (value / BASE < BASE) {
+            return new int[]{(int) (value % BASE), (int) (value / BASE)};
+        }
+        return new int[]{(int) (value % BASE), (int) (value / BASE % BASE), (int) (value / BASE / BASE)};
+    }
+
+    static int[] trim(int[] mag) {
+        int length = mag.length;
+        while (length > 0 && mag[length - 1] == 0) {
+            length--;
+        }
+        if (length == mag.length) {
+            return mag;
+        }
+        if (length == 0) {
+            return EMPTY;
+        }
+        int[] trimmed = new int[length];
+        System.arraycopy(mag, 0, trimmed, 0, length);
+        return trimmed;
+    }
+
+    static int digitCount(int[] mag) {
+        int length = mag.length;
+        if (length == 0) {
+            return 0;
+        }
+        int top = mag[length - 1];
+        int digits = 1;
+        while (digits < BASE_DIGITS && top >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        return (length - 1) * BASE_DIGITS + digits;
+    }
+
+    static int compare(int[] a, int[] b) {
+        if (a.length != b.length) {
+            return a.length > b.length ? 1 : -1;
+        }
+        for (int i = a.length - 1; i >= 0; i--) {
+            if (a[i] != b[i]) {
+                return a[i] > b[i] ? 1 : -1;
+            }
+        }
+        return 0;
+    }
+
+    static int[] add(int[] a, int[] b) {
+        if (a.length < b.length) {
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        int[] sum = new int[a.length + 1];
+        int carry = 0;
+        int i = 0;
+        for (; i < b.length; i++) {
+            int item = a[i] + b[i] + carry - BASE;
+            carry = ~item >>> 31;
+            sum[i] = item + (BASE & (item >> 31));
+        }
+        for (; i < a.length; i++) {
+            int item = a[i] + carry - BASE;
+            carry = ~item >>> 31;
+            sum[i] = item + (BASE & (item >> 31));
+        }
+        sum[a.length] = carry;
+        return trim(sum);
+    }
+
+    /**
+     * Subtracts the magnitude {@code b} from the magnitude {@code a}, where {@code a >= b}.
+     */
+    static int[] subtract(int[] a, int[] b) {
+        int[] difference = new int[a.length];
+        int borrow = 0;
+        int i = 0;
+        for (; i < b.length; i++) {
+            int item = a[i] - b[i] - borrow;
+            borrow = item >>> 31;
+            difference[i] = item + (BASE & (item >> 31));
+        }
+        for (; i < a.length; i++) {
+            int item = a[i] - borrow;
+            borrow = item >>> 31;
+            difference[i] = item + (BASE & (item >> 31));
+        }
+        return trim(difference);
+    }
+
+    /**
+     * The schoolbook multiplication. The products of up to {@link #DEFERRED_ROWS} rows are accumulated
+     * in longs without the carries, which are propagated once per such batch of rows.
+     */
+    static int[] multiply(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return EMPTY;
+        }
+        long[] accumulator = new long[a.length + b.length];
+        int batchStart = 0;
+        for (int i = 0; i < b.length; i++) {
+            long multiplier = b[i];
+            for (int j = 0; j < a.length; j++) {
+                accumulator[i + j] += a[j] * multiplier;
+            }
+            if (i - batchStart == DEFERRED_ROWS - 1 || i == b.length - 1) {
+                propagateCarries(accumulator, batchStart, i + a.length + 1);
+                batchStart = i + 1;
+            }
+        }
+        int[] product = new int[accumulator.length];
+        for (int i = 0; i < product.length; i++) {
+            product[i] = (int) accumulator[i];
+        }
+        return trim(product);
+    }
+
+    /**
+     * The schoolbook squaring: every product of two different limbs is computed once, the sum of them
+     * is doubled in the same pass adding the squares of the limbs, so about a half of the products is saved
+     */
+    static int[] square(int[] a) {
+        if (a.length == 0) {
+            return EMPTY;
+        }
+        long[] accumulator = new long[2 * a.length];
+        int batchStart = 0;
+        for (int i = 0; i < a.length; i++) {
+            long multiplier = a[i];
+            for (int j = i + 1; j < a.length; j++) {
+                accumulator[i + j] += a[j] * multiplier;
+            }
+            if (i - batchStart == DEFERRED_ROWS - 1 || i == a.length - 1) {
+                propagateCarries(accumulator, 2 * batchStart, i + a.length);
+                batchStart = i + 1;
+            }
+        }
+        int[] square = new int[accumulator.length];
+        long carry = 0;
+        for (int i = 0; i < a.length; i++) {
+            long item = 2 * accumulator[2 * i] + (long) a[i] * a[i] + carry;
+            carry = item / BASE;
+            square[2 * i] = (int) (item - carry * BASE);
+            item = 2 * accumulator[2 * i + 1] + carry;
+            carry = item / BASE;
+            square[2 * i + 1] = (int) (item - carry * BASE);
+        }
+        return trim(square);
+    }
+
+    /**
+     * The partial schoolbook multiplication: only the products of the limbs falling to the positions from
+     * {@code from} to {@code to} exclusive are accumulated, as the reductions need only a part of a product.
+     * The result is the product's limbs from {@code from}, it is exact modulo {@code BASE^(to - from)} if
+     * {@code from} is 0; otherwise the carries of the dropped lower products are lost, so the result may fall short
+     * of the exact one by less than the length of the shorter operand.
+     */
+    static int[] multiply(int[] a, int[] b, int from, int to) {
+        to = Math.min(to, a.length + b.length);
+        if (a.length == 0 || b.length == 0 || from >= to) {
+            return EMPTY;
+        }
+        long[] accumulator = new long[to - from + 1];
+        int batchStart = 0;
+        for (int i = 0; i < b.length; i++) {
+            long multiplier = b[i];
+            int first = Math.max(from - i, 0);
+            int last = Math.min(to - i, a.length);
+            for (int j = first; j < last; j++) {
+                accumulator[i + j - from] += a[j] * multiplier;
+            }
+            if (i - batchStart == DEFERRED_ROWS - 1 || i == b.length - 1) {
+                propagateCarries(accumulator, 0, accumulator.length - 1);
+                batchStart = i + 1;
+            }
+        }
+        int[] product = new int[to - from];
+        for (int i = 0; i < product.length; i++) {
+            product[i] = (int) accumulator[i];
+        }
+        return trim(product);
+    }
+
+    /**
+     * Brings the accumulated items from {@code from} to {@code to} below {@link #BASE},
+     * the last carry goes to the item at {@code to}
+     */
+    private static void propagateCarries(long[] accumulator, int from, int to) {
+        long carry = 0;
+        for (int i = from; i < to; i++) {
+            long item = accumulator[i] + carry;
+            carry = item / BASE;
+            accumulator[i] = item - carry * BASE;
+        }
+        if (to < accumulator.length) {
+            accumulator[to] += carry;
+        }
+    }
+
+    static int[] multiplyByInt(int[] a, int multiplier) {
+        if (a.length == 0 || multiplier == 0) {
+            return EMPTY;
+        }
+        int[] product = new int[a.length + 1];
+        long carry = 0;
+        for (int i = 0; i < a.length; i++) {
+            long item = (long) a[i] * multiplier + carry;
+            carry = item / BASE;
+            product[i] = (int) (item - carry * BASE);
+        }
+        product[a.length] = (int) carry;
+        return trim(product);
+    }
+
+    /**
+     * Divides the magnitude {@code a} by the positive {@code divisor} below {@link #BASE}.
+     * The quotient is written to {@code quotient}, which may be {@code a} itself, and the remainder is returned.
+     */
+    static int divideByInt(int[] a, int divisor, int[] quotient) {
+        return divideByInt(a, a.length, divisor, quotient);
+    }
+
+    /**
+     * Divides the lowest {@code length} limbs of {@code a} as {@link #divideByInt(int[], int, int[])} does
+     */
+    static int divideByInt(int[] a, int length, int divisor, int[] quotient) {
+        long remainder = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            long item = remainder * BASE + a[i];
+            quotient[i] = (int) (item / divisor);
+            remainder = item % divisor;
+        }
+        return (int) remainder;
+    }
+
+    /**
+     * Multiplies the magnitude by 10^{@code digits} in a single pass
+     */
+    static int[] multiplyByPowerOfTen(int[] mag, int digits) {
+        if (mag.length == 0 || digits == 0) {
+            return mag;
+        }
+        int limbs = digits / BASE_DIGITS;
+        long multiplier = POWERS_OF_TEN[digits % BASE_DIGITS];
+        int[] product = new int[mag.length + limbs + 1];
+        long carry = 0;
+        for (int i = 0; i < mag.length; i++) {
+            long item = mag[i] * multiplier + carry;
+            carry = item / BASE;
+            product[limbs + i] = (int) (item - carry * BASE);
+        }
+        product[limbs + mag.length] = (int) carry;
+        return trim(product);
+    }
+
+    /**
+     * Divides the magnitude by 10^{@code digits}, truncating
+     */
+    static int[] divideByPowerOfTen(int[] mag, int digits) {
+        int limbs = digits / BASE_DIGITS;
+        if (mag.length <= limbs) {
+            return EMPTY;
+        }
+        int[] quotient = new int[mag.length - limbs];
+        System.arraycopy(mag, limbs, quotient, 0, quotient.length);
+        divideByInt(quotient, POWERS_OF_TEN[digits % BASE_DIGITS], quotient);
+        return trim(quotient);
+    }
+
+    /**
+     * @return the remainder of the magnitude divided by 10^{@code digits}, its lowest digits
+     */
+    static int[] remainderByPowerOfTen(int[] mag, int digits) {
+        int limbs = digits / BASE_DIGITS;
+        if (mag.length <= limbs) {
+            return mag;
+        }
+        int[] remainder = new int[limbs + 1];
+        System.arraycopy(mag, 0, remainder, 0, limbs);
+        remainder[limbs] = mag[limbs] % POWERS_OF_TEN[digits % BASE_DIGITS];
+        return trim(remainder);
+    }
+
+    /**
+     * @return the exponent of a magnitude equal to a power of ten, -1 for any other magnitude;
+     * most of the magnitudes are rejected by their lowest limb
+     */
+    static int powerOfTenExponent(int[] mag) {
+        int top = mag.length - 1;
+        for (int i = 0; i < top; i++) {
+            if (mag[i] != 0) {
+                return -1;
+            }
+        }
+        for (int exponent = 0; top >= 0 && exponent < BASE_DIGITS; exponent++) {
+            if (mag[top] == POWERS_OF_TEN[exponent]) {
+                return top * BASE_DIGITS + exponent;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the decimal digit of the magnitude at the index, counted from the least significant one
+     */
+    static int digitAt(int[] mag, int index) {
+        int limb = index / BASE_DIGITS;
+        return limb < mag.length ? mag[limb] / POWERS_OF_TEN[index % BASE_DIGITS] % 10 : 0;
+    }
+
+    /**
+     * @return {@code true} if a decimal digit of the magnitude below the index isn't zero
+     */
+    static boolean hasDigitsBelow(int[] mag, int index) {
+        int limb = Math.min(index / BASE_DIGITS, mag.length);
+        for (int i = 0; i < limb; i++) {
+            if (mag[i] != 0) {
+                return true;
+            }
+        }
+        return limb < mag.length && mag[limb] % POWERS_OF_TEN[index % BASE_DIGITS] != 0;
+    }
+
+    /**
+     * @return the number of the trailing zero decimal digits of a non-zero magnitude, 0 for zero
+     */
+    static int trailingZeros(int[] mag) {
+        int limb = 0;
+        while (limb < mag.length && mag[limb] == 0) {
+            limb++;
+        }
+        if (limb == mag.length) {
+            return 0;
+        }
+        int digits = 0;
+        for (int item = mag[limb]; item % 10 == 0; item /= 10) {
+            digits++;
+        }
+        return limb * BASE_DIGITS + digits;
+    }
+
+    /**
+     * Packs little-endian decimal digits into limbs.
+     */
+    static int[] fromDigits(int[] digits, int length) {
+        int[] mag = new int[(length + BASE_DIGITS - 1) / BASE_DIGITS];
+        for (int i = 0; i < length; i++) {
+            int digit = digits[i];
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("\n'" + digit + "'\nisn't a valid cipher on '" + i + "'-th position");
+            }
+            mag[i / BASE_DIGITS] += digit * POWERS_OF_TEN[i % BASE_DIGITS];
+        }
+        return trim(mag);
+    }
+
+    /**
+     * Unpacks limbs into little-endian decimal digits.
+     */
+    static int[] toDigits(int[] mag) {
+        int[] digits = new int[digitCount(mag)];
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = mag[i / BASE_DIGITS] / POWERS_OF_TEN[i % BASE_DIGITS] % 10;
+        }
+        return digits;
+    }
+
+}
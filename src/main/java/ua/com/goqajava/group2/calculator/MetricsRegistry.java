@@ -0,0 +1,292 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The in-process {@link EvaluationListener} which keeps the counts and the latency histograms
+ * of the parsing, the evaluations and every operator. The operators are measured separately for every
+ * size class of their operands: the digits of the longer operand are counted in the powers of ten,
+ * from 0-9 digits to {@value #LAST_SIZE_CLASS_DIGITS} digits and more.
+ * <p>
+ * The latencies are kept in the buckets of the powers of two nanoseconds, so the percentiles are the upper bounds
+ * of their buckets. The registry is thread-safe and may be shared by several evaluators;
+ * it can be dumped by {@link #toText()} and {@link #toJson()}.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 02.08.2016.
+ */
+public final class MetricsRegistry implements EvaluationListener {
+
+    private static final int SIZE_CLASSES = 8;
+    private static final long LAST_SIZE_CLASS_DIGITS = 10_000_000;
+
+    /**
+     * The bucket {@code i} counts the latencies from {@code 2^(i-1)} to {@code 2^i} nanoseconds,
+     * the last one all the longer ones
+     */
+    private static final int LATENCY_BUCKETS = 48;
+
+    private final Histogram parsing = new Histogram();
+    private final Histogram evaluations = new Histogram();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final ConcurrentMap<String, Histogram[]> operators = new ConcurrentHashMap<>();
+
+    @Override
+    public void parsed(int length, long nanos) {
+        parsing.record(nanos, length);
+    }
+
+    @Override
+    public void operated(String operator, long leftDigits, long rightDigits, long nanos, long allocatedBytes) {
+        Histogram[] histograms = operators.get(operator);
+        if (histograms == null) {
+            Histogram[] created = new Histogram[SIZE_CLASSES];
+            for (int i = 0; i < SIZE_CLASSES; i++) {
+                created[i] = new Histogram();
+            }
+            histograms = operators.putIfAbsent(operator, created);
+            if (histograms == null) {
+                histograms = created;
+            }
+        }
+        histograms[sizeClass(Math.max(leftDigits, rightDigits))].record(nanos, allocatedBytes);
+    }
+
+    @Override
+    public void evaluated(long nanos, boolean succeeded) {
+        evaluations.record(nanos, 0);
+        if (!succeeded) {
+            failureCount.incrementAndGet();
+        }
+    }
+
+    private static int sizeClass(long digits) {
+        int sizeClass = 0;
+        for (long rest = digits; rest >= 10 && sizeClass < SIZE_CLASSES - 1; rest /= 10) {
+            sizeClass++;
+        }
+        return sizeClass;
+    }
+
+    private static String sizeClassName(int sizeClass) {
+        if (sizeClass == SIZE_CLASSES - 1) {
+            return LAST_SIZE_CLASS_DIGITS + "+";
+        }
+        long from = sizeClass == 0 ? 0 : (long) Math.pow(10, sizeClass);
+        return from + "-" + ((long) Math.pow(10, sizeClass + 1) - 1);
+    }
+
+    public long getParseCount() {
+        return parsing.count.get();
+    }
+
+    public long getEvaluationCount() {
+        return evaluations.count.get();
+    }
+
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * @param operator the symbol of the operator or the name of the function
+     */
+    public long getCount(String operator) {
+        long count = 0;
+        Histogram[] histograms = operators.get(operator);
+        for (int i = 0; histograms != null && i < SIZE_CLASSES; i++) {
+            count += histograms[i].count.get();
+        }
+        return count;
+    }
+
+    /**
+     * @return the estimated size of the results of the operator
+     */
+    public long getAllocatedBytes(String operator) {
+        long bytes = 0;
+        Histogram[] histograms = operators.get(operator);
+        for (int i = 0; histograms != null && i < SIZE_CLASSES; i++) {
+            bytes += histograms[i].amount.get();
+        }
+        return bytes;
+    }
+
+    /**
+     * Forgets all the measurements, the ones reported meanwhile may be kept partially
+     */
+    public void reset() {
+        parsing.reset();
+        evaluations.reset();
+        failureCount.set(0);
+        operators.clear();
+    }
+
+    /**
+     * @return a line per the parsing, the evaluations and every size class of every operator met
+     */
+    public String toText() {
+        StringBuilder text = new StringBuilder();
+        text.append("parse: ");
+        parsing.appendText(text).append(" chars=").append(parsing.amount.get()).append('\n');
+        text.append("evaluate: ");
+        evaluations.appendText(text).append(" failed=").append(failureCount.get()).append('\n');
+        for (Map.Entry<String, Histogram[]> entry : new TreeMap<>(operators).entrySet()) {
+            for (int i = 0; i < SIZE_CLASSES; i++) {
+                Histogram histogram = entry.getValue()[i];
+                if (histogram.count.get() == 0) {
+                    continue;
+                }
+                text.append('\'').append(entry.getKey()).append("' ").append(sizeClassName(i)).append(" digits: ");
+                histogram.appendText(text).append(" bytes=").append(histogram.amount.get()).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * @return the measurements as a JSON object, the times are in nanoseconds
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"parse\":");
+        parsing.appendJson(json).append(",\"chars\":").append(parsing.amount.get()).append('}');
+        json.append(",\"evaluate\":");
+        evaluations.appendJson(json).append(",\"failed\":").append(failureCount.get()).append('}');
+        json.append(",\"operators\":{");
+        boolean firstOperator = true;
+        for (Map.Entry<String, Histogram[]> entry : new TreeMap<>(operators).entrySet()) {
+            if (!firstOperator) {
+                json.append(',');
+            }
+            firstOperator = false;
+            appendJsonString(json, entry.getKey()).append(":[");
+            boolean firstClass = true;
+            for (int i = 0; i < SIZE_CLASSES; i++) {
+                Histogram histogram = entry.getValue()[i];
+                if (histogram.count.get() == 0) {
+                    continue;
+                }
+                if (!firstClass) {
+                    json.append(',');
+                }
+                firstClass = false;
+                json.append("{\"digits\":\"").append(sizeClassName(i)).append("\",");
+                histogram.appendJson(json.append("\"latency\":"))
+                        .append("},\"bytes\":").append(histogram.amount.get()).append('}');
+            }
+            json.append(']');
+        }
+        return json.append("}}").toString();
+    }
+
+    private static StringBuilder appendJsonString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char symbol = value.charAt(i);
+            if (symbol == '"' || symbol == '\\') {
+                json.append('\\');
+            }
+            json.append(symbol);
+        }
+        return json.append('"');
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + " ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format(Locale.ROOT, "%.1f us", nanos / 1e3);
+        }
+        if (nanos < 1_000_000_000) {
+            return String.format(Locale.ROOT, "%.1f ms", nanos / 1e6);
+        }
+        return String.format(Locale.ROOT, "%.2f s", nanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+
+    /**
+     * The count, the total and the maximal time, the latency buckets and an amount summed up,
+     * the characters or the bytes
+     */
+    private static final class Histogram {
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong amount = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(LATENCY_BUCKETS);
+
+        void record(long nanos, long amount) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            this.amount.addAndGet(amount);
+            buckets.incrementAndGet(Math.min(64 - Long.numberOfLeadingZeros(Math.max(nanos, 0)), LATENCY_BUCKETS - 1));
+        }
+
+        void reset() {
+            count.set(0);
+            totalNanos.set(0);
+            maxNanos.set(0);
+            amount.set(0);
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+        }
+
+        /**
+         * @return the upper bound of the bucket of the quantile, at most the maximal time; 0 if nothing is recorded
+         */
+        long quantile(double quantile) {
+            long total = 0;
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                total += buckets.get(i);
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank && seen > 0) {
+                    return i == LATENCY_BUCKETS - 1 ? maxNanos.get() : Math.min(1L << i, maxNanos.get());
+                }
+            }
+            return 0;
+        }
+
+        StringBuilder appendText(StringBuilder text) {
+            long count = this.count.get();
+            return text.append("count=").append(count)
+                    .append(" mean=").append(formatNanos(count == 0 ? 0 : totalNanos.get() / count))
+                    .append(" p50<").append(formatNanos(quantile(0.5)))
+                    .append(" p99<").append(formatNanos(quantile(0.99)))
+                    .append(" max=").append(formatNanos(maxNanos.get()));
+        }
+
+        /**
+         * Appends the object without its closing brace, so the caller may add its own fields
+         */
+        StringBuilder appendJson(StringBuilder json) {
+            json.append("{\"count\":").append(count.get())
+                    .append(",\"totalNanos\":").append(totalNanos.get())
+                    .append(",\"maxNanos\":").append(maxNanos.get())
+                    .append(",\"p50Nanos\":").append(quantile(0.5))
+                    .append(",\"p99Nanos\":").append(quantile(0.99))
+                    .append(",\"histogram\":[");
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                json.append(i == 0 ? "" : ",").append(buckets.get(i));
+            }
+            return json.append(']');
+        }
+    }
+}
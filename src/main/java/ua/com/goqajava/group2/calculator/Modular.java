@@ -0,0 +1,173 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.util.Arrays;
+
+/**
+ * The modular exponentiation of the magnitudes.
+ * The exponent is scanned in binary by the sliding windows, so the squarings are followed by one multiplication
+ * by a precomputed odd power per window. Every product is reduced by Barrett's method: the quotient is estimated
+ * by two multiplications with the precomputed reciprocal of the modulus instead of a long division.
+ * The squarings pass the same array as both factors, so they take the squaring paths of {@link Multiplication}.
+ * A modulus of a single limb is served in the {@code long} arithmetic.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 01.08.2016.
+ */
+final class Modular {
+
+    /**
+     * The bits in a chunk of the binary exponent, 2^29 is the greatest power of two below the base
+     */
+    private static final int CHUNK_BITS = 29;
+
+    private Modular() {
+    }
+
+    /**
+     * @param base     the magnitude below the modulus
+     * @param exponent the magnitude of the exponent
+     * @param modulus  the magnitude of the modulus, not zero
+     * @return the magnitude of {@code base^exponent mod modulus}
+     */
+    static int[] modPow(int[] base, int[] exponent, int[] modulus) {
+        if (modulus.length == 1 && modulus[0] == 1) {
+            return Limbs.EMPTY;
+        }
+        int[] bits = toBinary(exponent);
+        int bitLength = bits.length == 0 ? 0 :
+                (bits.length - 1) * CHUNK_BITS + 32 - Integer.numberOfLeadingZeros(bits[bits.length - 1]);
+        if (modulus.length == 1) {
+            long value = base.length == 0 ? 0 : base[0];
+            return Limbs.valueOf(modPow(value, bits, bitLength, modulus[0]));
+        }
+
+        Barrett reducer = new Barrett(modulus);
+        int window = windowSize(bitLength);
+        int[][] oddPowers = new int[1 << (window - 1)][];
+        oddPowers[0] = base;
+        if (oddPowers.length > 1) {
+            int[] square = reducer.multiply(base, base);
+            for (int i = 1; i < oddPowers.length; i++) {
+                oddPowers[i] = reducer.multiply(oddPowers[i - 1], square);
+            }
+        }
+
+        int[] result = null;
+        int i = bitLength - 1;
+        while (i >= 0) {
+            if (!testBit(bits, i)) {
+                result = result == null ? null : reducer.multiply(result, result);
+                i--;
+                continue;
+            }
+            int low = Math.max(i - window + 1, 0);
+            while (!testBit(bits, low)) {
+                low++;
+            }
+            int value = 0;
+            for (int j = i; j >= low; j--) {
+                value = value << 1 | (testBit(bits, j) ? 1 : 0);
+            }
+            if (result == null) {
+                result = oddPowers[value >>> 1];
+            } else {
+                for (int j = i; j >= low; j--) {
+                    result = reducer.multiply(result, result);
+                }
+                result = reducer.multiply(result, oddPowers[value >>> 1]);
+            }
+            i = low - 1;
+        }
+        return result == null ? Limbs.valueOf(1) : result;
+    }
+
+    private static long modPow(long base, int[] bits, int bitLength, long modulus) {
+        long result = 1;
+        for (int i = bitLength - 1; i >= 0; i--) {
+            result = result * result % modulus;
+            if (testBit(bits, i)) {
+                result = result * base % modulus;
+            }
+        }
+        return result % modulus;
+    }
+
+    /**
+     * The window sizes of {@link java.math.BigInteger}, they minimize the multiplications for the bit lengths
+     */
+    private static int windowSize(int bitLength) {
+        return bitLength <= 7 ? 1 : bitLength <= 36 ? 2 : bitLength <= 140 ? 3 :
+                bitLength <= 450 ? 4 : bitLength <= 1303 ? 5 : 6;
+    }
+
+    /**
+     * @return the little-endian chunks of {@link #CHUNK_BITS} bits of the magnitude
+     */
+    static int[] toBinary(int[] mag) {
+        int[] rest = mag.clone();
+        int length = rest.length;
+        int[] chunks = new int[length * 31 / CHUNK_BITS + 1];
+        int size = 0;
+        while (length > 0) {
+            chunks[size++] = Limbs.divideByInt(rest, length, 1 << CHUNK_BITS, rest);
+            while (length > 0 && rest[length - 1] == 0) {
+                length--;
+            }
+        }
+        int[] binary = new int[size];
+        System.arraycopy(chunks, 0, binary, 0, size);
+        return binary;
+    }
+
+    private static boolean testBit(int[] bits, int index) {
+        return (bits[index / CHUNK_BITS] >>> index % CHUNK_BITS & 1) != 0;
+    }
+
+    /**
+     * The reduction modulo m of k limbs by the reciprocal {@code mu = floor(BASE^2k / m)}.
+     * For {@code x < BASE^2k} the estimate {@code floor(floor(x / BASE^(k-1)) * mu / BASE^(k+1))}
+     * is less than the quotient {@code floor(x / m)} by at most 2, and by a few more as the lower products
+     * of the estimate are dropped.
+     */
+    private static final class Barrett {
+
+        private final int[] modulus;
+        private final int length;
+        private final int[] reciprocal;
+
+        Barrett(int[] modulus) {
+            this.modulus = modulus;
+            this.length = modulus.length;
+            this.reciprocal = Division.divideAndRemainder(Division.powerOfBase(2 * length), modulus)[0];
+        }
+
+        int[] multiply(int[] a, int[] b) {
+            if (a.length == 0 || b.length == 0) {
+                return Limbs.EMPTY;
+            }
+            return reduce(Multiplication.multiply(a, b));
+        }
+
+        /**
+         * Only the upper half of the estimated product and the lower {@code k + 1} limbs of the remainder
+         * are computed, the remainder is below {@code BASE^(k+1)} anyway
+         */
+        private int[] reduce(int[] x) {
+            if (Limbs.compare(x, modulus) < 0) {
+                return x;
+            }
+            int[] estimate = Division.shiftRight(x, length - 1);
+            estimate = Division.shiftRight(Limbs.multiply(estimate, reciprocal, length - 1, 2 * length + 2), 2);
+            int[] remainder = Limbs.trim(Arrays.copyOf(x, Math.min(x.length, length + 1)));
+            int[] product = Limbs.multiply(estimate, modulus, 0, length + 1);
+            if (Limbs.compare(remainder, product) < 0) {
+                remainder = Limbs.add(remainder, Division.powerOfBase(length + 1));
+            }
+            remainder = Limbs.subtract(remainder, product);
+            while (Limbs.compare(remainder, modulus) >= 0) {
+                remainder = Limbs.subtract(remainder, modulus);
+            }
+            return remainder;
+        }
+    }
+}
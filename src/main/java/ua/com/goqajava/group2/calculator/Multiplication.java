@@ -0,0 +1,359 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import static ua.com.goqajava.group2.calculator.Calculable.Sign.*;
+
+/**
+ * The adaptive multiplication engine of the magnitudes.
+ * Small operands are multiplied by the schoolbook method, the bigger ones by Karatsuba
+ * and the balanced operands above the Toom-Cook threshold by Toom-3. The operands above the NTT threshold
+ * are multiplied in the quasi-linear time by the {@link NumberTheoreticTransform}.
+ * <p>
+ * A square, an operand multiplied by itself, takes the same paths with the shared parts of the operands:
+ * the schoolbook one computes the products of the different limbs once, the splitting ones square their parts
+ * and the transform is done once.
+ * <p>
+ * The partial products of the operands above the parallel threshold are computed as fork/join tasks,
+ * in the current pool or in the common one.
+ * <p>
+ * The thresholds are counted in limbs of nine decimal digits. Their defaults may be overridden
+ * by the system properties {@value #KARATSUBA_THRESHOLD_PROPERTY}, {@value #TOOM_COOK_THRESHOLD_PROPERTY},
+ * {@value #NTT_THRESHOLD_PROPERTY} and {@value #PARALLEL_THRESHOLD_PROPERTY} or at runtime by the setters.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 14.07.2016.
+ */
+public final class Multiplication {
+
+    public static final String KARATSUBA_THRESHOLD_PROPERTY = "calculator.multiply.karatsubaThreshold";
+    public static final String TOOM_COOK_THRESHOLD_PROPERTY = "calculator.multiply.toomCookThreshold";
+    public static final String NTT_THRESHOLD_PROPERTY = "calculator.multiply.nttThreshold";
+    public static final String PARALLEL_THRESHOLD_PROPERTY = "calculator.multiply.parallelThreshold";
+
+    public static final int DEFAULT_KARATSUBA_THRESHOLD = 48;
+    public static final int DEFAULT_TOOM_COOK_THRESHOLD = 256;
+    public static final int DEFAULT_NTT_THRESHOLD = 4096;
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 2048;
+
+    /**
+     * The greatest number of the digits of a power, a hundred million digits take 44 MB of limbs
+     */
+    static final long MAX_POWER_DIGITS = 100_000_000;
+
+    private static volatile int karatsubaThreshold =
+            Integer.getInteger(KARATSUBA_THRESHOLD_PROPERTY, DEFAULT_KARATSUBA_THRESHOLD);
+    private static volatile int toomCookThreshold =
+            Integer.getInteger(TOOM_COOK_THRESHOLD_PROPERTY, DEFAULT_TOOM_COOK_THRESHOLD);
+    private static volatile int nttThreshold =
+            Integer.getInteger(NTT_THRESHOLD_PROPERTY, DEFAULT_NTT_THRESHOLD);
+    private static volatile int parallelThreshold =
+            Integer.getInteger(PARALLEL_THRESHOLD_PROPERTY, DEFAULT_PARALLEL_THRESHOLD);
+
+    private Multiplication() {
+    }
+
+    public static int getKaratsubaThreshold() {
+        return karatsubaThreshold;
+    }
+
+    public static void setKaratsubaThreshold(int threshold) {
+        if (threshold < 2) {
+            throw new IllegalArgumentException("The Karatsuba threshold '" + threshold + "' is less than 2 limbs");
+        }
+        karatsubaThreshold = threshold;
+    }
+
+    public static int getToomCookThreshold() {
+        return toomCookThreshold;
+    }
+
+    public static void setToomCookThreshold(int threshold) {
+        if (threshold < 3) {
+            throw new IllegalArgumentException("The Toom-Cook threshold '" + threshold + "' is less than 3 limbs");
+        }
+        toomCookThreshold = threshold;
+    }
+
+    public static int getNttThreshold() {
+        return nttThreshold;
+    }
+
+    /**
+     * @param threshold the length of the shorter operand from which the number-theoretic transform is used,
+     *                  {@link Integer#MAX_VALUE} to never use it
+     */
+    public static void setNttThreshold(int threshold) {
+        if (threshold < 2) {
+            throw new IllegalArgumentException("The NTT threshold '" + threshold + "' is less than 2 limbs");
+        }
+        nttThreshold = threshold;
+    }
+
+    public static int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * @param threshold the length of the shorter operand from which the partial products are computed in parallel,
+     *                  {@link Integer#MAX_VALUE} for the sequential multiplication
+     */
+    public static void setParallelThreshold(int threshold) {
+        if (threshold < 2) {
+            throw new IllegalArgumentException("The parallel threshold '" + threshold + "' is less than 2 limbs");
+        }
+        parallelThreshold = threshold;
+    }
+
+    static int[] multiply(int[] a, int[] b) {
+        if (a.length < b.length) {
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        if (b.length < karatsubaThreshold) {
+            return a == b ? Limbs.square(a) : Limbs.multiply(a, b);
+        }
+        if (b.length >= nttThreshold && a.length + b.length <= NumberTheoreticTransform.MAX_LENGTH) {
+            return NumberTheoreticTransform.multiply(a, b);
+        }
+        if (2 * b.length <= a.length) {
+            return multiplyUnbalanced(a, b);
+        }
+        if (b.length >= toomCookThreshold && 3 * b.length > 2 * a.length + 2) {
+            return multiplyToomCook(a, b);
+        }
+        return multiplyKaratsuba(a, b);
+    }
+
+    static int[] square(int[] mag) {
+        return multiply(mag, mag);
+    }
+
+    /**
+     * Raises the magnitude to the power by the left-to-right binary exponentiation, so the squarings
+     * of the growing value take the fast paths above and the multiplications by the magnitude the unbalanced one.
+     * The trailing zero limbs are stripped before and shifted back after.
+     *
+     * @throws ArithmeticException if the power would have more than {@link #MAX_POWER_DIGITS} digits
+     */
+    static int[] pow(int[] mag, int exponent) {
+        if (exponent == 0) {
+            return Limbs.valueOf(1);
+        }
+        if (mag.length == 0 || exponent == 1) {
+            return mag;
+        }
+        int zeros = 0;
+        while (mag[zeros] == 0) {
+            zeros++;
+        }
+        int[] base = zeros == 0 ? mag : Division.shiftRight(mag, zeros);
+        double digits = (base.length - 1 + zeros) * (double) Limbs.BASE_DIGITS + Math.log10(base[base.length - 1]);
+        if (digits * exponent > MAX_POWER_DIGITS) {
+            throw new ArithmeticException("The power is too large");
+        }
+        int[] power = base;
+        for (int bit = Integer.highestOneBit(exponent) >>> 1; bit != 0; bit >>>= 1) {
+            power = square(power);
+            if ((exponent & bit) != 0) {
+                power = multiply(power, base);
+            }
+        }
+        return Division.shiftLeft(power, zeros * exponent);
+    }
+
+    /**
+     * Multiplies the long operand by the short one piece by piece, every piece has the length of the short operand
+     */
+    private static int[] multiplyUnbalanced(int[] a, int[] b) {
+        int pieces = (a.length + b.length - 1) / b.length;
+        int[][] left = new int[pieces][];
+        int[][] right = new int[pieces][];
+        for (int i = 0; i < pieces; i++) {
+            left[i] = slice(a, i * b.length, (i + 1) * b.length);
+            right[i] = b;
+        }
+        int[][] products = multiplyAll(left, right, b.length);
+
+        int[] product = new int[a.length + b.length];
+        for (int i = 0; i < pieces; i++) {
+            addShifted(product, products[i], i * b.length);
+        }
+        return Limbs.trim(product);
+    }
+
+    private static int[] multiplyKaratsuba(int[] a, int[] b) {
+        int half = (a.length + 1) / 2;
+
+        int[] a0 = slice(a, 0, half);
+        int[] a1 = slice(a, half, a.length);
+        int[][] left = {a0, a1, Limbs.add(a0, a1)};
+        int[][] right = left;
+        if (a != b) {
+            int[] b0 = slice(b, 0, half);
+            int[] b1 = slice(b, half, b.length);
+            right = new int[][]{b0, b1, Limbs.add(b0, b1)};
+        }
+
+        int[][] products = multiplyAll(left, right, b.length);
+        int[] z0 = products[0];
+        int[] z2 = products[1];
+        MutableBigInt z1 = new MutableBigInt(products[2], false).subtractFrom(z0).subtractFrom(z2);
+
+        int[] product = new int[a.length + b.length];
+        addShifted(product, z0, 0);
+        addShifted(product, z1, half);
+        addShifted(product, z2, 2 * half);
+        return Limbs.trim(product);
+    }
+
+    /**
+     * Toom-3 with the evaluation points 0, 1, -1, -2 and infinity and Bodrato's interpolation sequence
+     */
+    private static int[] multiplyToomCook(int[] a, int[] b) {
+        int third = (a.length + 2) / 3;
+
+        BigInt a0 = part(a, 0, third);
+        BigInt a1 = part(a, third, 2 * third);
+        BigInt a2 = part(a, 2 * third, a.length);
+        BigInt p = (BigInt) a0.add(a2);
+        BigInt p1 = (BigInt) p.add(a1);
+        BigInt pMinus1 = (BigInt) p.subtract(a1);
+        BigInt pMinus2 = (BigInt) pMinus1.add(a2).add(pMinus1.add(a2)).subtract(a0);
+        int[][] left = {a0.limbs(), p1.limbs(), pMinus1.limbs(), pMinus2.limbs(), a2.limbs()};
+
+        // the values of a square's operand are shared, so the multiplication of the pairs squares them
+        int[][] right = left;
+        BigInt qMinus1 = pMinus1;
+        BigInt qMinus2 = pMinus2;
+        if (a != b) {
+            BigInt b0 = part(b, 0, third);
+            BigInt b1 = part(b, third, 2 * third);
+            BigInt b2 = part(b, 2 * third, b.length);
+            BigInt q = (BigInt) b0.add(b2);
+            BigInt q1 = (BigInt) q.add(b1);
+            qMinus1 = (BigInt) q.subtract(b1);
+            qMinus2 = (BigInt) qMinus1.add(b2).add(qMinus1.add(b2)).subtract(b0);
+            right = new int[][]{b0.limbs(), q1.limbs(), qMinus1.limbs(), qMinus2.limbs(), b2.limbs()};
+        }
+
+        int[][] products = multiplyAll(left, right, b.length);
+        MutableBigInt r0 = new MutableBigInt(products[0], false);
+        MutableBigInt r1 = new MutableBigInt(products[1], false);
+        MutableBigInt rMinus1 = new MutableBigInt(products[2], pMinus1.signum() * qMinus1.signum() < 0);
+        MutableBigInt rMinus2 = new MutableBigInt(products[3], pMinus2.signum() * qMinus2.signum() < 0);
+        MutableBigInt rInf = new MutableBigInt(products[4], false);
+
+        // the interpolation runs in place on the arrays of the products
+        MutableBigInt r3 = rMinus2.subtractFrom(r1);
+        r3.divideBy(3);
+        r1.subtractFrom(rMinus1).divideBy(2);
+        MutableBigInt r2 = rMinus1.subtractFrom(r0);
+        r3.negate().addTo(r2).divideBy(2);
+        r3.addTo(rInf).addTo(rInf);
+        r2.addTo(r1).subtractFrom(rInf);
+        r1.subtractFrom(r3);
+
+        int[] product = new int[a.length + b.length];
+        addShifted(product, r0, 0);
+        addShifted(product, r1, third);
+        addShifted(product, r2, 2 * third);
+        addShifted(product, r3, 3 * third);
+        addShifted(product, rInf, 4 * third);
+        return Limbs.trim(product);
+    }
+
+    /**
+     * Multiplies the operands pairwise, as the fork/join tasks if the operands are long enough
+     */
+    private static int[][] multiplyAll(int[][] left, int[][] right, int length) {
+        int[][] products = new int[left.length][];
+        if (length < parallelThreshold) {
+            for (int i = 0; i < left.length; i++) {
+                products[i] = multiply(left[i], right[i]);
+            }
+            return products;
+        }
+        List<Product> tasks = new ArrayList<>(left.length);
+        for (int i = 0; i < left.length; i++) {
+            tasks.add(new Product(left[i], right[i]));
+        }
+        ForkJoinTask.invokeAll(tasks);
+        for (int i = 0; i < left.length; i++) {
+            products[i] = tasks.get(i).join();
+        }
+        return products;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Product extends RecursiveTask<int[]> {
+
+        private final int[] left;
+        private final int[] right;
+
+        private Product(int[] left, int[] right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        protected int[] compute() {
+            return multiply(left, right);
+        }
+    }
+
+    private static BigInt part(int[] mag, int from, int to) {
+        return new BigInt(slice(mag, from, to), POSITIVE);
+    }
+
+    static int[] slice(int[] mag, int from, int to) {
+        to = Math.min(to, mag.length);
+        while (to > from && mag[to - 1] == 0) {
+            to--;
+        }
+        if (to <= from) {
+            return Limbs.EMPTY;
+        }
+        int[] slice = new int[to - from];
+        System.arraycopy(mag, from, slice, 0, slice.length);
+        return slice;
+    }
+
+    /**
+     * Adds the magnitude {@code addend} multiplied by BASE^{@code offset} to the {@code target} in place
+     */
+    static void addShifted(int[] target, int[] addend, int offset) {
+        addShifted(target, addend, addend.length, offset);
+    }
+
+    /**
+     * Adds the non-negative accumulator multiplied by BASE^{@code offset} to the {@code target} in place
+     */
+    static void addShifted(int[] target, MutableBigInt addend, int offset) {
+        addShifted(target, addend.limbs(), addend.limbCount(), offset);
+    }
+
+    private static void addShifted(int[] target, int[] addend, int length, int offset) {
+        int carry = 0;
+        int i = 0;
+        for (; i < length; i++) {
+            int item = target[offset + i] + addend[i] + carry - Limbs.BASE;
+            carry = ~item >>> 31;
+            target[offset + i] = item + (Limbs.BASE & (item >> 31));
+        }
+        for (int j = offset + i; carry != 0; j++) {
+            int item = target[j] + 1;
+            if (item == Limbs.BASE) {
+                target[j] = 0;
+            } else {
+                target[j] = item;
+                carry = 0;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,343 @@
+package ua.com.goqajava.group2.calculator;
+
+import static ua.com.goqajava.group2.calculator.Calculable.Sign.*;
+
+/**
+ * The mutable accumulator of a big integer.
+ * The operations change the accumulator in place and reuse its limb array, which grows only when the value
+ * doesn't fit it; so a long reduction allocates nothing but the final {@link #toImmutable()} copy.
+ * The class isn't thread-safe.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 28.07.2016.
+ */
+public final class MutableBigInt {
+
+    private static final int BASE = Limbs.BASE;
+
+    private int[] mag;
+    private int length;
+    private boolean negative;
+
+    public MutableBigInt() {
+        this(4);
+    }
+
+    /**
+     * @param capacity the initial capacity in limbs of nine decimal digits
+     */
+    public MutableBigInt(int capacity) {
+        this.mag = new int[Math.max(capacity, 1)];
+    }
+
+    public MutableBigInt(BigNumber value) {
+        this(0);
+        set(value);
+    }
+
+    /**
+     * Takes the magnitude over without copying, the array may be longer than the magnitude
+     */
+    MutableBigInt(int[] mag, boolean negative) {
+        this.mag = mag;
+        this.length = mag.length;
+        trim();
+        this.negative = negative && length > 0;
+    }
+
+    public MutableBigInt set(BigNumber value) {
+        int[] limbs = BigInt.valueOf(value).limbs();
+        ensureCapacity(limbs.length);
+        System.arraycopy(limbs, 0, mag, 0, limbs.length);
+        clearAbove(limbs.length);
+        length = limbs.length;
+        negative = value.getSign() == NEGATIVE;
+        return this;
+    }
+
+    public MutableBigInt set(MutableBigInt value) {
+        ensureCapacity(value.length);
+        System.arraycopy(value.mag, 0, mag, 0, value.length);
+        clearAbove(value.length);
+        length = value.length;
+        negative = value.negative;
+        return this;
+    }
+
+    public MutableBigInt clear() {
+        clearAbove(0);
+        length = 0;
+        negative = false;
+        return this;
+    }
+
+    /**
+     * Adds the value to the accumulator
+     */
+    public MutableBigInt addTo(BigNumber value) {
+        int[] limbs = BigInt.valueOf(value).limbs();
+        return add(limbs, limbs.length, value.getSign() == NEGATIVE);
+    }
+
+    public MutableBigInt addTo(MutableBigInt value) {
+        return add(value.mag, value.length, value.negative);
+    }
+
+    /**
+     * Subtracts the value from the accumulator
+     */
+    public MutableBigInt subtractFrom(BigNumber value) {
+        int[] limbs = BigInt.valueOf(value).limbs();
+        return add(limbs, limbs.length, value.getSign() == POSITIVE);
+    }
+
+    public MutableBigInt subtractFrom(MutableBigInt value) {
+        return add(value.mag, value.length, !value.negative && value.length > 0);
+    }
+
+    /**
+     * Subtracts the normalized magnitude from the accumulator
+     */
+    MutableBigInt subtractFrom(int[] magnitude) {
+        return add(magnitude, magnitude.length, true);
+    }
+
+    /**
+     * Multiplies the accumulator by the factor
+     */
+    public MutableBigInt multiplyBy(int factor) {
+        if (factor == 0 || length == 0) {
+            return clear();
+        }
+        long multiplier = Math.abs((long) factor);
+        ensureCapacity(length + 2);
+        long carry = 0;
+        for (int i = 0; i < length; i++) {
+            long item = mag[i] * multiplier + carry;
+            carry = item / BASE;
+            mag[i] = (int) (item - carry * BASE);
+        }
+        while (carry != 0) {
+            mag[length++] = (int) (carry % BASE);
+            carry /= BASE;
+        }
+        negative ^= factor < 0;
+        return this;
+    }
+
+    /**
+     * Divides the accumulator by the divisor, truncating toward zero
+     *
+     * @param divisor a non-zero number between {@code -BASE} and {@code BASE} exclusive
+     * @return the remainder, it has the sign of the dividend
+     */
+    public int divideBy(int divisor) {
+        if (divisor == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (divisor <= -BASE || divisor >= BASE) {
+            throw new IllegalArgumentException("The divisor '" + divisor + "' isn't a single limb");
+        }
+        int remainder = Limbs.divideByInt(mag, length, Math.abs(divisor), mag);
+        boolean dividendNegative = negative;
+        trim();
+        negative = dividendNegative ^ divisor < 0 && length > 0;
+        return dividendNegative ? -remainder : remainder;
+    }
+
+    /**
+     * Multiplies the accumulator by 10^{@code digits} if they are positive,
+     * otherwise divides it by 10^-{@code digits} truncating toward zero
+     */
+    public MutableBigInt shift(int digits) {
+        if (length == 0 || digits == 0) {
+            return this;
+        }
+        int limbs = Math.abs(digits) / Limbs.BASE_DIGITS;
+        int rest = Math.abs(digits) % Limbs.BASE_DIGITS;
+        if (digits > 0) {
+            ensureCapacity(length + limbs + 1);
+            System.arraycopy(mag, 0, mag, limbs, length);
+            clearBelow(limbs);
+            length += limbs;
+            if (rest > 0) {
+                multiplyBy(Limbs.powerOfTen(rest));
+            }
+            return this;
+        }
+        if (limbs >= length) {
+            return clear();
+        }
+        System.arraycopy(mag, limbs, mag, 0, length - limbs);
+        clearAbove(length - limbs);
+        length -= limbs;
+        if (rest > 0) {
+            divideBy(Limbs.powerOfTen(rest));
+        }
+        return this;
+    }
+
+    public MutableBigInt negate() {
+        negative = !negative && length > 0;
+        return this;
+    }
+
+    public MutableBigInt ensureCapacity(int capacity) {
+        if (capacity > mag.length) {
+            int[] grown = new int[Math.max(capacity, mag.length + (mag.length >> 1))];
+            System.arraycopy(mag, 0, grown, 0, length);
+            mag = grown;
+        }
+        return this;
+    }
+
+    /**
+     * @return the capacity in limbs of nine decimal digits
+     */
+    public int capacity() {
+        return mag.length;
+    }
+
+    public boolean isZero() {
+        return length == 0;
+    }
+
+    public int signum() {
+        return length == 0 ? 0 : negative ? -1 : 1;
+    }
+
+    /**
+     * @return a copy of the current value
+     */
+    public BigInt toImmutable() {
+        int[] copy = new int[length];
+        System.arraycopy(mag, 0, copy, 0, length);
+        return new BigInt(copy, negative ? NEGATIVE : POSITIVE);
+    }
+
+    /**
+     * @return the limb array, valid up to {@link #limbCount()}; it is changed by the next operations
+     */
+    int[] limbs() {
+        return mag;
+    }
+
+    int limbCount() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return toImmutable().toString();
+    }
+
+    private MutableBigInt add(int[] other, int otherLength, boolean otherNegative) {
+        if (otherLength == 0) {
+            return this;
+        }
+        if (length == 0 || negative == otherNegative) {
+            negative = otherNegative;
+            addMagnitude(other, otherLength);
+            return this;
+        }
+        int compareResult = compareMagnitude(other, otherLength);
+        if (compareResult == 0) {
+            return clear();
+        }
+        if (compareResult > 0) {
+            subtractMagnitude(other, otherLength);
+        } else {
+            subtractMagnitudeFrom(other, otherLength);
+            negative = otherNegative;
+        }
+        return this;
+    }
+
+    private void addMagnitude(int[] other, int otherLength) {
+        int longer = Math.max(length, otherLength);
+        ensureCapacity(longer + 1);
+        int carry = 0;
+        int i = 0;
+        for (; i < otherLength; i++) {
+            int item = mag[i] + other[i] + carry - BASE;
+            carry = ~item >>> 31;
+            mag[i] = item + (BASE & (item >> 31));
+        }
+        for (; carry != 0 && i < longer; i++) {
+            int item = mag[i] + 1;
+            carry = item == BASE ? 1 : 0;
+            mag[i] = item - carry * BASE;
+        }
+        length = longer;
+        if (carry != 0) {
+            mag[length++] = 1;
+        }
+    }
+
+    /**
+     * this = this - other, where this >= other
+     */
+    private void subtractMagnitude(int[] other, int otherLength) {
+        int borrow = 0;
+        int i = 0;
+        for (; i < otherLength; i++) {
+            int item = mag[i] - other[i] - borrow;
+            borrow = item >>> 31;
+            mag[i] = item + (BASE & (item >> 31));
+        }
+        for (; borrow != 0; i++) {
+            int item = mag[i] - 1;
+            borrow = item < 0 ? 1 : 0;
+            mag[i] = item + borrow * BASE;
+        }
+        trim();
+    }
+
+    /**
+     * this = other - this, where other > this
+     */
+    private void subtractMagnitudeFrom(int[] other, int otherLength) {
+        ensureCapacity(otherLength);
+        int borrow = 0;
+        for (int i = 0; i < otherLength; i++) {
+            int item = other[i] - mag[i] - borrow;
+            borrow = item >>> 31;
+            mag[i] = item + (BASE & (item >> 31));
+        }
+        length = otherLength;
+        trim();
+    }
+
+    private int compareMagnitude(int[] other, int otherLength) {
+        if (length != otherLength) {
+            return length > otherLength ? 1 : -1;
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            if (mag[i] != other[i]) {
+                return mag[i] > other[i] ? 1 : -1;
+            }
+        }
+        return 0;
+    }
+
+    private void trim() {
+        while (length > 0 && mag[length - 1] == 0) {
+            length--;
+        }
+        if (length == 0) {
+            negative = false;
+        }
+    }
+
+    private void clearAbove(int from) {
+        for (int i = from; i < length; i++) {
+            mag[i] = 0;
+        }
+    }
+
+    private void clearBelow(int to) {
+        for (int i = 0; i < to; i++) {
+            mag[i] = 0;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The multiplication of the magnitudes by the number-theoretic transform.
+ * The limbs are the coefficients of the polynomials, whose cyclic convolution is computed modulo three primes
+ * below 2^30 and recombined by the Chinese remainder theorem in Garner's form: the product of the primes exceeds
+ * {@code 2^23 * BASE^2}, the greatest coefficient of the convolution of the operands of the longest transform.
+ * <p>
+ * The forward transform runs in the decimation in frequency and the inverse one in the decimation in time,
+ * so no bit-reversal permutation is needed between them. The products modulo a prime are Montgomery's
+ * reductions by 2^32, the twiddle factors are kept in the Montgomery form. A square is transformed once
+ * instead of twice.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 03.08.2016.
+ */
+final class NumberTheoreticTransform {
+
+    /**
+     * The longest transform, the 2-adic order of the third prime;
+     * the sum of the lengths of the operands must not exceed it
+     */
+    static final int MAX_LENGTH = 1 << 24;
+
+    private static final Prime[] PRIMES = {
+            new Prime(167_772_161, 3), new Prime(469_762_049, 3), new Prime(754_974_721, 11)
+    };
+
+    private static final long P1 = PRIMES[0].modulus;
+    private static final long P2 = PRIMES[1].modulus;
+    private static final long P3 = PRIMES[2].modulus;
+    private static final long P1_INVERSE_MOD_P2 = power(P1 % P2, P2 - 2, P2);
+    private static final long P1_P2_INVERSE_MOD_P3 = power(P1 * P2 % P3, P3 - 2, P3);
+    private static final long P1_P2_HIGH = P1 * P2 / Limbs.BASE;
+    private static final long P1_P2_LOW = P1 * P2 % Limbs.BASE;
+
+    private NumberTheoreticTransform() {
+    }
+
+    /**
+     * @param a a magnitude
+     * @param b a magnitude, {@code a} itself for a square
+     * @return the product of the magnitudes
+     */
+    static int[] multiply(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return Limbs.EMPTY;
+        }
+        int productLength = a.length + b.length;
+        if (productLength > MAX_LENGTH) {
+            throw new IllegalArgumentException("The operands of '" + productLength + "' limbs are too long");
+        }
+        int length = Integer.highestOneBit(productLength - 1) << 1;
+
+        int[][] residues = new int[PRIMES.length][];
+        if (Math.min(a.length, b.length) < Multiplication.getParallelThreshold()) {
+            for (int i = 0; i < PRIMES.length; i++) {
+                residues[i] = PRIMES[i].convolve(a, b, length);
+            }
+        } else {
+            Convolution[] tasks = new Convolution[PRIMES.length];
+            for (int i = 0; i < PRIMES.length; i++) {
+                tasks[i] = new Convolution(PRIMES[i], a, b, length);
+            }
+            ForkJoinTask.invokeAll(tasks);
+            for (int i = 0; i < PRIMES.length; i++) {
+                residues[i] = tasks[i].join();
+            }
+        }
+        return recombine(residues[0], residues[1], residues[2], productLength);
+    }
+
+    /**
+     * Garner's recombination {@code x = r1 + p1 * k2 + p1 * p2 * k3}, the last term is split at the base,
+     * so its high part is carried to the next limb
+     */
+    private static int[] recombine(int[] r1, int[] r2, int[] r3, int productLength) {
+        int[] product = new int[productLength];
+        long carry = 0;
+        for (int i = 0; i < productLength - 1; i++) {
+            long k2 = (r2[i] - r1[i] + P2) % P2 * P1_INVERSE_MOD_P2 % P2;
+            long low = r1[i] + P1 * k2;
+            long k3 = (r3[i] - low % P3 + P3) % P3 * P1_P2_INVERSE_MOD_P3 % P3;
+            long item = low + k3 * P1_P2_LOW + carry;
+            carry = item / Limbs.BASE;
+            product[i] = (int) (item - carry * Limbs.BASE);
+            carry += k3 * P1_P2_HIGH;
+        }
+        product[productLength - 1] = (int) carry;
+        return Limbs.trim(product);
+    }
+
+    private static long power(long base, long exponent, long modulus) {
+        long result = 1;
+        for (long rest = exponent; rest != 0; rest >>>= 1) {
+            if ((rest & 1) != 0) {
+                result = result * base % modulus;
+            }
+            base = base * base % modulus;
+        }
+        return result;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Convolution extends RecursiveTask<int[]> {
+
+        private final Prime prime;
+        private final int[] a;
+        private final int[] b;
+        private final int length;
+
+        private Convolution(Prime prime, int[] a, int[] b, int length) {
+            this.prime = prime;
+            this.a = a;
+            this.b = b;
+            this.length = length;
+        }
+
+        @Override
+        protected int[] compute() {
+            return prime.convolve(a, b, length);
+        }
+    }
+
+    /**
+     * A prime {@code c * 2^k + 1} below 2^30 with a primitive root, so the sums of two residues fit an int
+     */
+    private static final class Prime {
+
+        private final int modulus;
+        private final int generator;
+
+        /**
+         * {@code -modulus^-1 mod 2^32}
+         */
+        private final int negatedInverse;
+
+        /**
+         * {@code 2^64 mod modulus}, a factor converting to the Montgomery form
+         */
+        private final long montgomerySquare;
+
+        Prime(int modulus, int generator) {
+            this.modulus = modulus;
+            this.generator = generator;
+            int inverse = modulus;
+            for (int i = 0; i < 4; i++) {
+                inverse *= 2 - modulus * inverse;
+            }
+            this.negatedInverse = -inverse;
+            long r = (1L << 32) % modulus;
+            this.montgomerySquare = r * r % modulus;
+        }
+
+        /**
+         * @return {@code a * b / 2^32 mod modulus} for {@code a * b < modulus * 2^32}
+         */
+        private long reduce(long a, long b) {
+            long product = a * b;
+            long quotient = ((int) product * negatedInverse) & 0xFFFFFFFFL;
+            long result = (product + quotient * modulus) >>> 32;
+            return result >= modulus ? result - modulus : result;
+        }
+
+        /**
+         * @return the cyclic convolution of the operands modulo the prime, natural ordered
+         */
+        int[] convolve(int[] a, int[] b, int length) {
+            int[] roots = roots(generator, length);
+            int[] transformed = transform(a, length, roots);
+            if (a == b) {
+                for (int i = 0; i < length; i++) {
+                    transformed[i] = (int) reduce(transformed[i], transformed[i]);
+                }
+            } else {
+                int[] other = transform(b, length, roots);
+                for (int i = 0; i < length; i++) {
+                    transformed[i] = (int) reduce(transformed[i], other[i]);
+                }
+            }
+            inverse(transformed, roots(power(generator, modulus - 2, modulus), length));
+
+            // the pointwise products have lost a factor 2^32 and the inverse transform has gained the length
+            long scale = power(length, modulus - 2, modulus) * montgomerySquare % modulus;
+            for (int i = 0; i < length; i++) {
+                transformed[i] = (int) reduce(transformed[i], scale);
+            }
+            return transformed;
+        }
+
+        /**
+         * The Gentleman-Sande butterflies over the limbs reduced modulo the prime, the result is
+         * in the bit-reversed order
+         */
+        private int[] transform(int[] mag, int length, int[] roots) {
+            int[] values = new int[length];
+            for (int i = 0; i < mag.length; i++) {
+                values[i] = mag[i] % modulus;
+            }
+            for (int half = length >>> 1; half >= 1; half >>>= 1) {
+                for (int start = 0; start < length; start += 2 * half) {
+                    for (int j = 0; j < half; j++) {
+                        int u = values[start + j];
+                        int v = values[start + j + half];
+                        int sum = u + v - modulus;
+                        values[start + j] = sum + (modulus & (sum >> 31));
+                        values[start + j + half] = (int) reduce(u - v + modulus, roots[half + j]);
+                    }
+                }
+            }
+            return values;
+        }
+
+        /**
+         * The Cooley-Tukey butterflies from the bit-reversed order, without the division by the length
+         */
+        private void inverse(int[] values, int[] roots) {
+            int length = values.length;
+            for (int half = 1; half < length; half <<= 1) {
+                for (int start = 0; start < length; start += 2 * half) {
+                    for (int j = 0; j < half; j++) {
+                        int u = values[start + j];
+                        int v = (int) reduce(values[start + j + half], roots[half + j]);
+                        int sum = u + v - modulus;
+                        values[start + j] = sum + (modulus & (sum >> 31));
+                        int difference = u - v;
+                        values[start + j + half] = difference + (modulus & (difference >> 31));
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the powers {@code w^j} of the primitive {@code 2h}-th roots of unity at {@code h + j},
+         * for every power of two {@code h} below the length and {@code j < h}, in the Montgomery form
+         */
+        private int[] roots(long root, int length) {
+            int[] roots = new int[Math.max(length, 2)];
+            for (int half = 1; half < length; half <<= 1) {
+                long step = power(root, (modulus - 1) / (2 * half), modulus);
+                long stepForm = reduce(step, montgomerySquare);
+                long current = reduce(1, montgomerySquare);
+                for (int j = 0; j < half; j++) {
+                    roots[half + j] = (int) current;
+                    current = reduce(current, stepForm);
+                }
+            }
+            return roots;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The scope of the off-heap numbers.
+ * Every {@link OffHeapBigInt} created in the arena keeps its limbs in a direct buffer of the pool
+ * till the arena is closed; then the buffers go back to the pool and the numbers mustn't be used anymore.
+ * The arena is thread-safe.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 27.07.2016.
+ */
+public final class OffHeapArena implements AutoCloseable {
+
+    private final OffHeapPool pool;
+    private final List<IntBuffer> buffers = new ArrayList<>();
+    private volatile boolean closed;
+
+    OffHeapArena(OffHeapPool pool) {
+        this.pool = pool;
+    }
+
+    OffHeapPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Makes the buffer acquired from the pool live as long as the arena
+     */
+    synchronized IntBuffer adopt(IntBuffer buffer) {
+        if (closed) {
+            pool.release(buffer);
+            throw new IllegalStateException("The off-heap arena is closed");
+        }
+        if (buffer.isDirect()) {
+            buffers.add(buffer);
+        }
+        return buffer;
+    }
+
+    void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The off-heap arena is closed");
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns the buffers of all the numbers of the arena to the pool
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (IntBuffer buffer : buffers) {
+            pool.release(buffer);
+        }
+        buffers.clear();
+    }
+}
@@ -0,0 +1,266 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.nio.IntBuffer;
+
+import static ua.com.goqajava.group2.calculator.Calculable.Sign.*;
+
+/**
+ * The big integer with the limbs kept off the heap, in a direct buffer of an {@link OffHeapArena}.
+ * The class is immutable, the results of its operations belong to the same arena and
+ * no number of the arena may be used after the arena is closed.
+ * <p>
+ * The addition, the subtraction, the comparison, the multiplication (by the schoolbook method and Karatsuba)
+ * and the division by a single limb run on the off-heap limbs directly; the longer divisions
+ * copy the operands to the heap for the engine of {@link Division} and copy the results back.
+ * The operands may be of any {@link BigNumber} type, the {@link BigInt} limbs are read in place.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 27.07.2016.
+ */
+public final class OffHeapBigInt implements BigNumber {
+
+    private final IntBuffer mag;
+    private final Sign sign;
+    private final int length;
+    private final OffHeapArena arena;
+
+    private int[] values;
+
+    private OffHeapBigInt(IntBuffer mag, Sign sign, OffHeapArena arena) {
+        this.mag = mag;
+        this.sign = mag.limit() == 0 ? ZERO : sign;
+        this.length = mag.limit() == 0 ? 0 :
+                (mag.limit() - 1) * Limbs.BASE_DIGITS + Limbs.digitCount(new int[]{mag.get(mag.limit() - 1)});
+        this.arena = arena;
+    }
+
+    /**
+     * Copies the number to the arena
+     */
+    public static OffHeapBigInt valueOf(BigNumber value, OffHeapArena arena) {
+        if (value instanceof OffHeapBigInt && ((OffHeapBigInt) value).arena == arena) {
+            return (OffHeapBigInt) value;
+        }
+        arena.checkOpen();
+        IntBuffer limbs = limbsOf(value);
+        IntBuffer copy = OffHeapLimbs.EMPTY;
+        if (limbs.limit() > 0) {
+            copy = arena.getPool().acquire(limbs.limit());
+            for (int i = 0; i < limbs.limit(); i++) {
+                copy.put(i, limbs.get(i));
+            }
+        }
+        return new OffHeapBigInt(arena.adopt(copy), value.getSign(), arena);
+    }
+
+    public OffHeapArena getArena() {
+        return arena;
+    }
+
+    /**
+     * Copies the number to the heap
+     */
+    public BigInt toBigInt() {
+        arena.checkOpen();
+        return new BigInt(OffHeapLimbs.toArray(mag), sign);
+    }
+
+    private static IntBuffer limbsOf(BigNumber value) {
+        if (value instanceof OffHeapBigInt) {
+            OffHeapBigInt offHeap = (OffHeapBigInt) value;
+            offHeap.arena.checkOpen();
+            return offHeap.mag;
+        }
+        return IntBuffer.wrap(BigInt.valueOf(value).limbs());
+    }
+
+    private OffHeapBigInt create(IntBuffer mag, Sign sign) {
+        return new OffHeapBigInt(arena.adopt(mag), sign, arena);
+    }
+
+    @Override
+    public BigNumber add(BigNumber addend) {
+        arena.checkOpen();
+        IntBuffer that = limbsOf(addend);
+        Sign thatSign = addend.getSign();
+        if (thatSign == ZERO) {
+            return this;
+        }
+        if (sign == ZERO) {
+            return valueOf(addend, arena);
+        }
+        OffHeapPool pool = arena.getPool();
+        if (sign == thatSign) {
+            return create(OffHeapLimbs.add(mag, that, pool), sign);
+        }
+        int compareResult = OffHeapLimbs.compare(mag, that);
+        if (compareResult == 0) {
+            return create(OffHeapLimbs.EMPTY, ZERO);
+        }
+        return compareResult > 0 ?
+                create(OffHeapLimbs.subtract(mag, that, pool), sign) :
+                create(OffHeapLimbs.subtract(that, mag, pool), thatSign);
+    }
+
+    @Override
+    public BigNumber subtract(BigNumber deduction) {
+        return add(deduction.negate());
+    }
+
+    @Override
+    public BigNumber multiply(BigNumber multiplier) {
+        arena.checkOpen();
+        IntBuffer that = limbsOf(multiplier);
+        if (sign == ZERO || multiplier.isZero()) {
+            return create(OffHeapLimbs.EMPTY, ZERO);
+        }
+        return create(OffHeapLimbs.multiply(mag, that, arena.getPool()), sign.multiply(multiplier.getSign()));
+    }
+
+    @Override
+    public BigNumber divide(BigNumber divisor) {
+        return divideAndRemainder(divisor)[0];
+    }
+
+    @Override
+    public BigNumber[] divideAndRemainder(BigNumber divisor) {
+        arena.checkOpen();
+        IntBuffer that = limbsOf(divisor);
+        if (divisor.isZero()) {
+            throw new ArithmeticException("Division by zero");
+        }
+        Sign quotientSign = sign.multiply(divisor.getSign());
+        if (isZero() || OffHeapLimbs.compare(mag, that) < 0) {
+            return new BigNumber[]{create(OffHeapLimbs.EMPTY, ZERO), this};
+        }
+        OffHeapPool pool = arena.getPool();
+        if (that.limit() == 1) {
+            IntBuffer quotient = pool.acquire(mag.limit());
+            int remainder = OffHeapLimbs.divideByInt(mag, that.get(0), quotient);
+            return new BigNumber[]{create(OffHeapLimbs.trim(quotient), quotientSign),
+                    create(OffHeapLimbs.copyOf(Limbs.valueOf(remainder), pool), sign)};
+        }
+        int[][] result = Division.divideAndRemainder(OffHeapLimbs.toArray(mag), OffHeapLimbs.toArray(that));
+        return new BigNumber[]{create(OffHeapLimbs.copyOf(result[0], pool), quotientSign),
+                create(OffHeapLimbs.copyOf(result[1], pool), sign)};
+    }
+
+    @Override
+    public BigNumber mod(BigNumber divisor) {
+        return divideAndRemainder(divisor)[1];
+    }
+
+    @Override
+    public BigNumber average(BigNumber value) {
+        OffHeapBigInt sum = (OffHeapBigInt) add(value);
+        if (sum.isZero()) {
+            return sum;
+        }
+        IntBuffer half = arena.getPool().acquire(sum.mag.limit());
+        OffHeapLimbs.divideByInt(sum.mag, 2, half);
+        return create(OffHeapLimbs.trim(half), sum.sign);
+    }
+
+    @Override
+    public BigNumber square() {
+        arena.checkOpen();
+        return valueOf(toBigInt().square(), arena);
+    }
+
+    @Override
+    public BigNumber pow(int exponent) {
+        arena.checkOpen();
+        return valueOf(toBigInt().pow(exponent), arena);
+    }
+
+    @Override
+    public BigNumber modPow(BigNumber exponent, BigNumber modulus) {
+        arena.checkOpen();
+        return valueOf(toBigInt().modPow(exponent, modulus), arena);
+    }
+
+    @Override
+    public BigNumber negate() {
+        return sign == ZERO ? this : new OffHeapBigInt(mag, sign.invert(), arena);
+    }
+
+    @Override
+    public BigNumber abs() {
+        return sign == NEGATIVE ? new OffHeapBigInt(mag, POSITIVE, arena) : this;
+    }
+
+    @Override
+    public boolean isZero() {
+        return sign == ZERO;
+    }
+
+    @Override
+    public int[] getValues() {
+        int[] values = this.values;
+        if (values == null) {
+            arena.checkOpen();
+            this.values = values = Limbs.toDigits(OffHeapLimbs.toArray(mag));
+        }
+        return values;
+    }
+
+    @Override
+    public Sign getSign() {
+        return sign;
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public int signum() {
+        return sign == POSITIVE ? 1 : sign == NEGATIVE ? -1 : 0;
+    }
+
+    @Override
+    public int compareMagnitude(BigNumber that) {
+        arena.checkOpen();
+        return OffHeapLimbs.compare(mag, limbsOf(that));
+    }
+
+    @Override
+    public int compareTo(BigNumber that) {
+        if (sign != that.getSign()) {
+            return signum() > that.signum() ? 1 : -1;
+        }
+        int compareResult = compareMagnitude(that);
+        return sign == NEGATIVE ? -compareResult : compareResult;
+    }
+
+    @Override
+    public String toString() {
+        arena.checkOpen();
+        return new String(DecimalCodec.toChars(OffHeapLimbs.toArray(mag), sign == NEGATIVE ? '-' : '+'));
+    }
+
+    /**
+     * @return {@code true} for the integers of the same value, whether they are big, small or off-heap ones
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj instanceof BigInt || obj instanceof SmallInt) return compareTo((BigNumber) obj) == 0;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        OffHeapBigInt that = (OffHeapBigInt) obj;
+
+        return sign == that.sign && compareMagnitude(that) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        arena.checkOpen();
+        int result = 1;
+        for (int i = 0; i < mag.limit(); i++) {
+            result = 31 * result + mag.get(i);
+        }
+        return 31 * result + sign.hashCode();
+    }
+}
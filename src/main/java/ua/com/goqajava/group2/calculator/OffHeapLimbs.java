@@ -0,0 +1,251 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.nio.IntBuffer;
+
+/**
+ * The kernels of {@link Limbs} over the magnitudes in the int buffers, direct or heap ones.
+ * A magnitude is the limbs from the index 0 up to the limit of the buffer, normalized as in {@link Limbs}.
+ * The new magnitudes are acquired from the pool and the temporary ones are released back to it at once,
+ * so the heap holds only the small buffer views.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 27.07.2016.
+ */
+final class OffHeapLimbs {
+
+    static final IntBuffer EMPTY = IntBuffer.allocate(0);
+
+    private static final int BASE = Limbs.BASE;
+
+    private OffHeapLimbs() {
+    }
+
+    static IntBuffer copyOf(int[] mag, OffHeapPool pool) {
+        if (mag.length == 0) {
+            return EMPTY;
+        }
+        IntBuffer copy = pool.acquire(mag.length);
+        copy.put(mag);
+        copy.flip();
+        return copy;
+    }
+
+    static int[] toArray(IntBuffer mag) {
+        int[] array = new int[mag.limit()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = mag.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Drops the leading zero limbs by moving the limit
+     */
+    static IntBuffer trim(IntBuffer mag) {
+        int length = mag.limit();
+        while (length > 0 && mag.get(length - 1) == 0) {
+            length--;
+        }
+        mag.limit(length);
+        return mag;
+    }
+
+    /**
+     * @return the normalized view of the limbs from {@code from} inclusive to {@code to} exclusive
+     */
+    static IntBuffer slice(IntBuffer mag, int from, int to) {
+        to = Math.min(to, mag.limit());
+        while (to > from && mag.get(to - 1) == 0) {
+            to--;
+        }
+        if (to <= from) {
+            return EMPTY;
+        }
+        IntBuffer view = mag.duplicate();
+        view.limit(to);
+        view.position(from);
+        return view.slice();
+    }
+
+    static int compare(IntBuffer a, IntBuffer b) {
+        int length = a.limit();
+        if (length != b.limit()) {
+            return length > b.limit() ? 1 : -1;
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            int item1 = a.get(i);
+            int item2 = b.get(i);
+            if (item1 != item2) {
+                return item1 > item2 ? 1 : -1;
+            }
+        }
+        return 0;
+    }
+
+    static IntBuffer add(IntBuffer a, IntBuffer b, OffHeapPool pool) {
+        if (a.limit() < b.limit()) {
+            IntBuffer swap = a;
+            a = b;
+            b = swap;
+        }
+        int length = a.limit();
+        int shorter = b.limit();
+        IntBuffer sum = pool.acquire(length + 1);
+        int carry = 0;
+        int i = 0;
+        for (; i < shorter; i++) {
+            int item = a.get(i) + b.get(i) + carry - BASE;
+            carry = ~item >>> 31;
+            sum.put(i, item + (BASE & (item >> 31)));
+        }
+        for (; i < length; i++) {
+            int item = a.get(i) + carry - BASE;
+            carry = ~item >>> 31;
+            sum.put(i, item + (BASE & (item >> 31)));
+        }
+        sum.put(length, carry);
+        return trim(sum);
+    }
+
+    /**
+     * Subtracts the magnitude {@code b} from the magnitude {@code a}, where {@code a >= b}.
+     */
+    static IntBuffer subtract(IntBuffer a, IntBuffer b, OffHeapPool pool) {
+        IntBuffer difference = pool.acquire(a.limit());
+        for (int i = 0; i < a.limit(); i++) {
+            difference.put(i, a.get(i));
+        }
+        subtractInPlace(difference, b);
+        return difference;
+    }
+
+    /**
+     * Subtracts the magnitude {@code b} from the magnitude {@code a} in place, where {@code a >= b}.
+     */
+    static void subtractInPlace(IntBuffer a, IntBuffer b) {
+        int shorter = b.limit();
+        int borrow = 0;
+        for (int i = 0; i < a.limit() && (i < shorter || borrow != 0); i++) {
+            int item = a.get(i) - (i < shorter ? b.get(i) : 0) - borrow;
+            borrow = item >>> 31;
+            a.put(i, item + (BASE & (item >> 31)));
+        }
+        trim(a);
+    }
+
+    /**
+     * Adds the magnitude {@code addend} multiplied by BASE^{@code offset} to the {@code target} in place
+     */
+    static void addShifted(IntBuffer target, IntBuffer addend, int offset) {
+        int carry = 0;
+        int i = 0;
+        for (; i < addend.limit(); i++) {
+            int item = target.get(offset + i) + addend.get(i) + carry - BASE;
+            carry = ~item >>> 31;
+            target.put(offset + i, item + (BASE & (item >> 31)));
+        }
+        for (int j = offset + i; carry != 0; j++) {
+            int item = target.get(j) + 1;
+            if (item == BASE) {
+                target.put(j, 0);
+            } else {
+                target.put(j, item);
+                carry = 0;
+            }
+        }
+    }
+
+    /**
+     * Multiplies by the schoolbook method or by Karatsuba, the unbalanced operands piece by piece
+     */
+    static IntBuffer multiply(IntBuffer a, IntBuffer b, OffHeapPool pool) {
+        if (a.limit() < b.limit()) {
+            IntBuffer swap = a;
+            a = b;
+            b = swap;
+        }
+        if (b.limit() == 0) {
+            return EMPTY;
+        }
+        if (b.limit() < Multiplication.getKaratsubaThreshold()) {
+            return multiplySchoolbook(a, b, pool);
+        }
+        if (2 * b.limit() <= a.limit()) {
+            return multiplyUnbalanced(a, b, pool);
+        }
+        return multiplyKaratsuba(a, b, pool);
+    }
+
+    private static IntBuffer multiplySchoolbook(IntBuffer a, IntBuffer b, OffHeapPool pool) {
+        int length = a.limit();
+        IntBuffer product = pool.acquire(length + b.limit());
+        for (int i = 0; i < b.limit(); i++) {
+            long multiplier = b.get(i);
+            if (multiplier == 0) {
+                continue;
+            }
+            long carry = 0;
+            for (int j = 0; j < length; j++) {
+                long item = a.get(j) * multiplier + product.get(i + j) + carry;
+                carry = item / BASE;
+                product.put(i + j, (int) (item - carry * BASE));
+            }
+            product.put(i + length, (int) carry);
+        }
+        return trim(product);
+    }
+
+    private static IntBuffer multiplyUnbalanced(IntBuffer a, IntBuffer b, OffHeapPool pool) {
+        int piece = b.limit();
+        IntBuffer product = pool.acquire(a.limit() + piece);
+        for (int offset = 0; offset < a.limit(); offset += piece) {
+            IntBuffer partial = multiply(slice(a, offset, offset + piece), b, pool);
+            addShifted(product, partial, offset);
+            pool.release(partial);
+        }
+        return trim(product);
+    }
+
+    private static IntBuffer multiplyKaratsuba(IntBuffer a, IntBuffer b, OffHeapPool pool) {
+        int half = (a.limit() + 1) / 2;
+
+        IntBuffer a0 = slice(a, 0, half);
+        IntBuffer a1 = slice(a, half, a.limit());
+        IntBuffer b0 = slice(b, 0, half);
+        IntBuffer b1 = slice(b, half, b.limit());
+
+        IntBuffer z0 = multiply(a0, b0, pool);
+        IntBuffer z2 = multiply(a1, b1, pool);
+        IntBuffer aSum = add(a0, a1, pool);
+        IntBuffer bSum = add(b0, b1, pool);
+        IntBuffer z1 = multiply(aSum, bSum, pool);
+        pool.release(aSum);
+        pool.release(bSum);
+        subtractInPlace(z1, z0);
+        subtractInPlace(z1, z2);
+
+        IntBuffer product = pool.acquire(a.limit() + b.limit());
+        addShifted(product, z0, 0);
+        addShifted(product, z1, half);
+        addShifted(product, z2, 2 * half);
+        pool.release(z0);
+        pool.release(z1);
+        pool.release(z2);
+        return trim(product);
+    }
+
+    /**
+     * Divides the magnitude {@code a} by the positive {@code divisor} below {@link Limbs#BASE}.
+     * The quotient is written to {@code quotient}, which may be {@code a} itself, and the remainder is returned.
+     */
+    static int divideByInt(IntBuffer a, int divisor, IntBuffer quotient) {
+        long remainder = 0;
+        for (int i = a.limit() - 1; i >= 0; i--) {
+            long item = remainder * BASE + a.get(i);
+            quotient.put(i, (int) (item / divisor));
+            remainder = item % divisor;
+        }
+        return (int) remainder;
+    }
+
+}
@@ -0,0 +1,112 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The thread-safe pool of the direct buffers for the off-heap limbs.
+ * The buffers are grouped by their capacities, which are powers of two; a released buffer is kept
+ * for the reuse while the pooled bytes stay below the limit, otherwise it is left to the garbage collector.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 27.07.2016.
+ */
+public final class OffHeapPool {
+
+    public static final long DEFAULT_MAX_POOLED_BYTES = 256L << 20;
+
+    private static final int MIN_CAPACITY_BITS = 4;
+
+    private static final OffHeapPool SHARED = new OffHeapPool(DEFAULT_MAX_POOLED_BYTES);
+
+    private final long maxPooledBytes;
+    private final ConcurrentLinkedDeque<IntBuffer>[] buckets;
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+
+    /**
+     * @param maxPooledBytes the maximal size of the released buffers kept for the reuse
+     */
+    @SuppressWarnings("unchecked")
+    public OffHeapPool(long maxPooledBytes) {
+        if (maxPooledBytes < 0) {
+            throw new IllegalArgumentException("The pool size '" + maxPooledBytes + "' is negative");
+        }
+        this.maxPooledBytes = maxPooledBytes;
+        this.buckets = (ConcurrentLinkedDeque<IntBuffer>[]) new ConcurrentLinkedDeque<?>[32];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ConcurrentLinkedDeque<>();
+        }
+    }
+
+    /**
+     * @return the pool shared by the whole application
+     */
+    public static OffHeapPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return a new open arena, its numbers live till it is closed
+     */
+    public OffHeapArena newArena() {
+        return new OffHeapArena(this);
+    }
+
+    /**
+     * @return a buffer of zeros with the limit of {@code limbs}
+     */
+    IntBuffer acquire(int limbs) {
+        int bits = Math.max(MIN_CAPACITY_BITS, 32 - Integer.numberOfLeadingZeros(Math.max(limbs - 1, 1)));
+        IntBuffer buffer = buckets[bits].pollFirst();
+        if (buffer == null) {
+            allocatedBytes.addAndGet(4L << bits);
+            buffer = ByteBuffer.allocateDirect(4 << bits).order(ByteOrder.nativeOrder()).asIntBuffer();
+            buffer.limit(limbs);
+            return buffer;
+        }
+        pooledBytes.addAndGet(-4L * buffer.capacity());
+        buffer.clear();
+        buffer.limit(limbs);
+        for (int i = 0; i < limbs; i++) {
+            buffer.put(i, 0);
+        }
+        return buffer;
+    }
+
+    /**
+     * Takes back a buffer returned by {@link #acquire(int)}, the heap buffers are ignored
+     */
+    void release(IntBuffer buffer) {
+        if (!buffer.isDirect()) {
+            return;
+        }
+        long bytes = 4L * buffer.capacity();
+        if (pooledBytes.addAndGet(bytes) > maxPooledBytes) {
+            pooledBytes.addAndGet(-bytes);
+            return;
+        }
+        buckets[Integer.numberOfTrailingZeros(buffer.capacity())].offerFirst(buffer);
+    }
+
+    public long getMaxPooledBytes() {
+        return maxPooledBytes;
+    }
+
+    /**
+     * @return the size of the released buffers kept for the reuse
+     */
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    /**
+     * @return the size of all the direct buffers allocated by the pool
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes.get();
+    }
+}
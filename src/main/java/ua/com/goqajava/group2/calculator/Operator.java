@@ -0,0 +1,336 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * The operators and the functions of the arithmetic expressions.
+ * A function is called by its name with the arguments in the parentheses, as {@code modPow(2, 100, 7)}.
+ * The {@link #SUM} and the {@link #PRODUCT} of any number of operands are never parsed,
+ * they are made by the {@link Optimizer} of the chains of '+' and '*'.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 21.07.2016.
+ */
+enum Operator {
+
+    ADD('+', 1, 2, false, (left, right, context) -> left.add(right)),
+    SUBTRACT('-', 1, 2, false, (left, right, context) -> left.subtract(right)),
+    // a variable multiplied by itself is squared
+    MULTIPLY('*', 2, 2, false, (left, right, context) -> left == right ? left.square() : left.multiply(right)),
+    DIVIDE('/', 2, 2, false, Operator::divide),
+    MODULO('%', 2, 2, false, (left, right, context) -> left.mod(right)),
+    NEGATE('-', 3, 1, true, (left, right, context) -> left.negate()),
+    /**
+     * Binds tighter than the unary minus, so {@code -2^2} is -4, and to the right, so {@code 2^3^2} is 2^9
+     */
+    POWER('^', 4, 2, true, Operator::power),
+    MOD_POW("modPow", 3) {
+        @Override
+        BigNumber apply(BigNumber[] operands, int offset, int count, EvaluationContext context) {
+            long start = context.startTiming();
+            BigNumber result = SmallInt.demote(operands[offset].modPow(operands[offset + 1], operands[offset + 2]));
+            return context.operated(this, start, operands[offset + 1], operands[offset + 2], result);
+        }
+    },
+    /**
+     * Adds the operands by {@link #ADD}, the shortest ones first
+     */
+    SUM('+', 1, Operator.VARIADIC, false) {
+        @Override
+        BigNumber apply(BigNumber[] operands, int offset, int count, EvaluationContext context) {
+            return combine(ADD, operands, offset, count, context);
+        }
+    },
+    /**
+     * Multiplies the operands by {@link #MULTIPLY}, the shortest ones first, as the Huffman coding merges
+     * the rarest symbols, so the intermediate products stay as short as possible and the longest operands
+     * are multiplied last, by the fastest algorithms
+     */
+    PRODUCT('*', 2, Operator.VARIADIC, false) {
+        @Override
+        BigNumber apply(BigNumber[] operands, int offset, int count, EvaluationContext context) {
+            return combine(MULTIPLY, operands, offset, count, context);
+        }
+    };
+
+    /**
+     * The arity of the operators of any number of operands, the number is kept by the {@link Program}
+     */
+    static final int VARIADIC = 0;
+
+    /**
+     * The precedence of the functions, their arguments are always in the parentheses
+     */
+    private static final int FUNCTION_PRECEDENCE = 5;
+
+    private final char symbol;
+    private final String name;
+    private final int precedence;
+    private final int arity;
+    private final boolean rightAssociative;
+
+    /**
+     * The computation of the unary and the binary operators, {@code null} for the ones applied to an array
+     */
+    private final Computation computation;
+
+    Operator(char symbol, int precedence, int arity, boolean rightAssociative, Computation computation) {
+        this.symbol = symbol;
+        this.name = String.valueOf(symbol);
+        this.precedence = precedence;
+        this.arity = arity;
+        this.rightAssociative = rightAssociative;
+        this.computation = computation;
+    }
+
+    /**
+     * An operator of any number of operands, it overrides {@link #apply(BigNumber[], int, int, EvaluationContext)}
+     */
+    Operator(char symbol, int precedence, int arity, boolean rightAssociative) {
+        this(symbol, precedence, arity, rightAssociative, null);
+    }
+
+    /**
+     * A function, it overrides {@link #apply(BigNumber[], int, int, EvaluationContext)}
+     */
+    Operator(String name, int arity) {
+        this.symbol = 0;
+        this.name = name;
+        this.precedence = FUNCTION_PRECEDENCE;
+        this.arity = arity;
+        this.rightAssociative = false;
+        this.computation = null;
+    }
+
+    /**
+     * Computes a unary or a binary operator, the right operand of the unary operators is {@code null}
+     */
+    interface Computation {
+
+        BigNumber compute(BigNumber left, BigNumber right, EvaluationContext context);
+    }
+
+    /**
+     * Applies the unary or the binary operator, the right operand of the unary operators is {@code null}.
+     * The left operand is turned into a fraction first if the context divides exactly, into a decimal if the right
+     * one is a decimal, or moved off the heap if the context keeps the operands of its size there, so the result
+     * is kept in the same way. A heap result which fits into a {@code long} is demoted to {@link SmallInt}.
+     * The operation is reported to the listener of the context, if there is one.
+     */
+    BigNumber apply(BigNumber left, BigNumber right, EvaluationContext context) {
+        long start = context.startTiming();
+        BigNumber result = SmallInt.demote(computation.compute(context.represent(this, left, right), right, context));
+        return context.operated(this, start, left, right, result);
+    }
+
+    /**
+     * Applies the operator to the {@code count} operands starting at the {@code offset},
+     * the functions of more than two arguments and the variadic operators override it
+     */
+    BigNumber apply(BigNumber[] operands, int offset, int count, EvaluationContext context) {
+        return apply(operands[offset], count == 1 ? null : operands[offset + 1], context);
+    }
+
+    /**
+     * Applies the associative and commutative binary operator to the two shortest operands
+     * until a single value is left
+     */
+    private static BigNumber combine(Operator operator, BigNumber[] operands, int offset, int count,
+                                     EvaluationContext context) {
+        PriorityQueue<BigNumber> queue = new PriorityQueue<>(count, Comparator.comparingLong(BigNumber::getLength));
+        for (int i = offset; i < offset + count; i++) {
+            queue.add(operands[i]);
+        }
+        while (queue.size() > 1) {
+            BigNumber left = queue.poll();
+            queue.add(operator.apply(left, queue.poll(), context));
+        }
+        return queue.poll();
+    }
+
+    private static BigNumber divide(BigNumber left, BigNumber right, EvaluationContext context) {
+        if (left instanceof BigRational) {
+            return left.divide(right);
+        }
+        if (left instanceof BigDecimalNumber) {
+            return ((BigDecimalNumber) left).divide(right, context.getSettings().getDecimalContext(), context);
+        }
+        BigNumber[] quotientAndRemainder = left.divideAndRemainder(right);
+        if (!quotientAndRemainder[1].isZero()) {
+            context.markTruncated();
+        }
+        return quotientAndRemainder[0];
+    }
+
+    private static BigNumber power(BigNumber left, BigNumber right, EvaluationContext context) {
+        int exponent = exponent(right);
+        if (exponent >= 0 || left instanceof BigRational) {
+            return left.pow(exponent);
+        }
+        // a negative power is the reciprocal divided as '/' divides the operands of the type
+        if (left instanceof BigDecimalNumber) {
+            return divide(BigDecimalNumber.valueOf(SmallInt.valueOf(1)), left.pow(-exponent), context);
+        }
+        if (left.isZero()) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (left.compareMagnitude(SmallInt.valueOf(1)) == 0) {
+            return left.pow(-(exponent % 2));
+        }
+        context.markTruncated();
+        return SmallInt.valueOf(0);
+    }
+
+    /**
+     * @return the operand as an exponent of {@link #POWER}
+     * @throws ArithmeticException if the operand isn't an integer of the {@code int} range
+     */
+    private static int exponent(BigNumber operand) {
+        BigNumber exponent = SmallInt.demote(BigInt.valueOfExact(operand));
+        long value = exponent instanceof SmallInt ? ((SmallInt) exponent).longValue() : Long.MAX_VALUE;
+        if (value != (int) value) {
+            throw new ArithmeticException("The exponent " + operand + " is out of the int range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Estimates the number of the digits of the result, the right operand of the unary operators has no digits.
+     * The functions of three arguments are estimated by the last two of them, the variadic operators
+     * by every next operand added to the estimation of the previous ones.
+     */
+    long estimateDigits(long leftDigits, long rightDigits) {
+        switch (this) {
+            case MULTIPLY:
+            case PRODUCT:
+                return leftDigits + rightDigits;
+            case DIVIDE:
+                return Math.max(leftDigits - rightDigits + 1, 1);
+            case MODULO:
+            case MOD_POW:
+                return rightDigits;
+            case POWER:
+                return rightDigits > 18 ? Long.MAX_VALUE / 2 : saturatedMultiply(leftDigits, pow10(rightDigits));
+            case NEGATE:
+                return leftDigits;
+            default:
+                return Math.max(leftDigits, rightDigits) + 1;
+        }
+    }
+
+    /**
+     * Estimates the cost of the operator itself in the operations on the limbs of nine digits
+     */
+    long estimateCost(long leftDigits, long rightDigits) {
+        long leftLimbs = leftDigits / Limbs.BASE_DIGITS + 1;
+        long rightLimbs = rightDigits / Limbs.BASE_DIGITS + 1;
+        switch (this) {
+            case MULTIPLY:
+            case PRODUCT:
+                return leftLimbs * rightLimbs;
+            case DIVIDE:
+            case MODULO:
+                return Math.max(leftLimbs - rightLimbs + 1, 1) * rightLimbs;
+            case NEGATE:
+                return 1;
+            case POWER:
+                long digits = estimateDigits(leftDigits, rightDigits);
+                long limbs = digits / Limbs.BASE_DIGITS + 1;
+                return saturatedMultiply(limbs, limbs);
+            case MOD_POW:
+                // a squaring and a Barrett reduction of the modulus length per bit of the exponent
+                return saturatedMultiply(saturatedMultiply(leftDigits * 4, rightLimbs), 3 * rightLimbs);
+            default:
+                return Math.max(leftLimbs, rightLimbs);
+        }
+    }
+
+    private static long pow10(long exponent) {
+        long power = 1;
+        for (long i = 0; i < exponent; i++) {
+            power *= 10;
+        }
+        return power;
+    }
+
+    private static long saturatedMultiply(long value1, long value2) {
+        return value2 != 0 && value1 > Long.MAX_VALUE / value2 ? Long.MAX_VALUE : value1 * value2;
+    }
+
+    /**
+     * @return the computation of the unary and the binary operators,
+     * {@code null} for the ones applied to an array of operands
+     */
+    Computation getComputation() {
+        return computation;
+    }
+
+    /**
+     * @return the symbol of the operator, 0 for the functions
+     */
+    char getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * @return the name of the function, the symbol of the operator
+     */
+    String getName() {
+        return name;
+    }
+
+    boolean isFunction() {
+        return symbol == 0;
+    }
+
+    int getPrecedence() {
+        return precedence;
+    }
+
+    /**
+     * @return the number of the operands, {@link #VARIADIC} for the operators of any number of them
+     */
+    int getArity() {
+        return arity;
+    }
+
+    boolean isVariadic() {
+        return arity == VARIADIC;
+    }
+
+    boolean isRightAssociative() {
+        return rightAssociative;
+    }
+
+    static Operator binary(char symbol) {
+        switch (symbol) {
+            case '+':
+                return ADD;
+            case '-':
+                return SUBTRACT;
+            case '*':
+                return MULTIPLY;
+            case '/':
+                return DIVIDE;
+            case '%':
+                return MODULO;
+            case '^':
+                return POWER;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the function of the name, {@code null} if there is no such function
+     */
+    static Operator function(String name) {
+        for (Operator operator : values()) {
+            if (operator.isFunction() && operator.name.equals(name)) {
+                return operator;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,430 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites a parsed {@link Program} to an equal one doing less work, for the machine-generated expressions
+ * full of the repeated subexpressions and the neutral operands:
+ * <ul>
+ * <li>the identical subexpressions are made a single node (hash-consing), a node used more than once
+ * is a shared subexpression of the program, evaluated once before its body;</li>
+ * <li>the operators of the integer constants are folded, as {@code 2 * 3 + 4} to {@code 10};</li>
+ * <li>the identities are removed: {@code x * 1}, {@code x + 0}, {@code x - 0}, {@code x ^ 1} and {@code -(-x)}
+ * are {@code x}, {@code 0 - x} is {@code -x}, and {@code x - x} is zero if {@code x} is surely an integer;</li>
+ * <li>the operands of '+' and '*' are put in the same order, so {@code a * b} and {@code b * a} are shared,
+ * and their chains are made a {@link Operator#SUM} or a {@link Operator#PRODUCT}, which combine
+ * the shortest values first.</li>
+ * </ul>
+ * The multiplications and the divisions by the powers of ten aren't rewritten, the arithmetic shifts the digits
+ * for them whatever the expression is. Only the operators which can't fail are folded or removed, so an expression
+ * dividing by zero fails as before, and the value is the same as of the parsed program, the scale of a decimal
+ * included. The operators folded or removed aren't reported to the listener.
+ * <p>
+ * The nodes are walked by the loops over their indices, so the nesting depth of the expression isn't limited
+ * by the thread stack, as the one of the {@link Program}.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 04.08.2016.
+ */
+final class Optimizer {
+
+    private static final BigNumber ZERO = SmallInt.valueOf(0);
+    private static final BigNumber ONE = SmallInt.valueOf(1);
+
+    /**
+     * The unique nodes in the order of their creation, so the operands of a node precede it
+     */
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<Node, Node> interned = new HashMap<>();
+
+    private Operator[] operators = new Operator[16];
+    private BigNumber[] constants = new BigNumber[16];
+    private int[] arguments = new int[16];
+    private int size;
+    private int depth;
+    private int maxDepth;
+
+    private Optimizer() {
+    }
+
+    /**
+     * @return the optimized program if the settings optimize, the same program otherwise
+     */
+    static Program optimize(Program program, EvaluatorSettings settings) {
+        return settings.isOptimized() ? optimize(program) : program;
+    }
+
+    /**
+     * @param program a program made by the {@link Parser}
+     */
+    static Program optimize(Program program) {
+        if (program.size() == 0) {
+            return program;
+        }
+        return new Optimizer().rewrite(program);
+    }
+
+    private Program rewrite(Program program) {
+        Node root = build(program);
+        countReferences(root);
+        flattenChains();
+
+        String[] variables = program.getVariables();
+        List<Integer> shared = new ArrayList<>();
+        for (Node node : nodes) {
+            if (node.references > 1 && !node.isLeaf()) {
+                emit(node);
+                node.slot = variables.length + shared.size();
+                shared.add(size - 1);
+                depth = 0;
+            }
+        }
+        emit(root);
+
+        int[] ends = new int[shared.size()];
+        for (int i = 0; i < ends.length; i++) {
+            ends[i] = shared.get(i);
+        }
+        return new Program(Arrays.copyOf(operators, size), Arrays.copyOf(constants, size),
+                Arrays.copyOf(arguments, size), variables, maxDepth, ends);
+    }
+
+    /**
+     * Turns the instructions into the nodes, simplifying and interning every node when it is made
+     *
+     * @return the root node
+     */
+    private Node build(Program program) {
+        Node[] stack = new Node[program.size()];
+        int top = -1;
+        for (int i = 0; i < program.size(); i++) {
+            Operator operator = program.operator(i);
+            if (operator == null) {
+                BigNumber constant = program.constant(i);
+                stack[++top] = intern(constant != null ? new Node(constant) : new Node(program.argument(i)));
+            } else {
+                int arity = program.arity(i);
+                top -= arity - 1;
+                stack[top] = make(operator, Arrays.copyOfRange(stack, top, top + arity));
+            }
+        }
+        return stack[0];
+    }
+
+    private Node constant(BigNumber value) {
+        return intern(new Node(value));
+    }
+
+    private Node make(Operator operator, Node... operands) {
+        Node simplified = simplify(operator, operands);
+        if (simplified != null) {
+            return simplified;
+        }
+        if ((operator == Operator.ADD || operator == Operator.MULTIPLY) && operands[0].id > operands[1].id) {
+            // the commutative operands in the order of their creation, so the swapped operands are shared
+            operands = new Node[]{operands[1], operands[0]};
+        }
+        return intern(new Node(operator, operands));
+    }
+
+    /**
+     * @return the node the operator is reduced to, {@code null} if it can't be reduced
+     */
+    private Node simplify(Operator operator, Node[] operands) {
+        Node left = operands[0];
+        Node right = operands.length > 1 ? operands[1] : null;
+        switch (operator) {
+            case NEGATE:
+                if (left.operator == Operator.NEGATE) {
+                    return left.operands[0];
+                }
+                break;
+            case ADD:
+                if (isInteger(right, ZERO)) {
+                    return left;
+                }
+                if (isInteger(left, ZERO)) {
+                    return right;
+                }
+                break;
+            case SUBTRACT:
+                if (isInteger(right, ZERO)) {
+                    return left;
+                }
+                if (isInteger(left, ZERO)) {
+                    return make(Operator.NEGATE, right);
+                }
+                if (left == right && left.integral) {
+                    return constant(ZERO);
+                }
+                break;
+            case MULTIPLY:
+                if (isInteger(right, ONE)) {
+                    return left;
+                }
+                if (isInteger(left, ONE)) {
+                    return right;
+                }
+                break;
+            case POWER:
+                if (isInteger(right, ONE)) {
+                    return left;
+                }
+                break;
+            default:
+        }
+        return fold(operator, left, right);
+    }
+
+    /**
+     * Computes the operator of the integer constants if the result doesn't depend on the settings
+     *
+     * @return the constant node of the result, {@code null} if it isn't computed here
+     */
+    private Node fold(Operator operator, Node left, Node right) {
+        boolean foldable = operator == Operator.ADD || operator == Operator.SUBTRACT
+                || operator == Operator.MULTIPLY || operator == Operator.NEGATE
+                || operator == Operator.POWER && isInteger(right, null) && right.constant.signum() >= 0;
+        if (!foldable || !isInteger(left, null) || right != null && !isInteger(right, null)) {
+            return null;
+        }
+        try {
+            // the context is used only by the division, which isn't folded
+            BigNumber value = operator.getComputation().compute(left.constant, right == null ? null : right.constant,
+                    null);
+            return constant(SmallInt.demote(value));
+        } catch (ArithmeticException e) {
+            // too large a power fails when the program is evaluated
+            return null;
+        }
+    }
+
+    /**
+     * @param value the value of the constant, {@code null} for any integer
+     */
+    private static boolean isInteger(Node node, BigNumber value) {
+        BigNumber constant = node.constant;
+        return (constant instanceof SmallInt || constant instanceof BigInt) && (value == null || value.equals(constant));
+    }
+
+    private Node intern(Node node) {
+        Node existing = interned.get(node);
+        if (existing != null) {
+            return existing;
+        }
+        node.id = nodes.size();
+        nodes.add(node);
+        interned.put(node, node);
+        return node;
+    }
+
+    /**
+     * Counts the references to the nodes reachable from the root, the unreachable ones have none
+     */
+    private void countReferences(Node root) {
+        root.reachable = true;
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            Node node = nodes.get(i);
+            if (node.reachable && !node.isLeaf()) {
+                for (Node operand : node.operands) {
+                    operand.reachable = true;
+                    operand.references++;
+                    operand.parent = node;
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes every chain of '+' or '*' a single node of all the operands of the chain;
+     * a link of a chain used elsewhere isn't taken into it, as it is evaluated once anyway
+     */
+    private void flattenChains() {
+        for (Node node : nodes) {
+            if (!node.reachable || !isChainLink(node.operator) || isAbsorbed(node)) {
+                continue;
+            }
+            List<Node> operands = new ArrayList<>();
+            List<Node> pending = new ArrayList<>();
+            pending.add(node);
+            while (!pending.isEmpty()) {
+                Node link = pending.remove(pending.size() - 1);
+                for (int i = link.operands.length - 1; i >= 0; i--) {
+                    Node operand = link.operands[i];
+                    if (isAbsorbed(operand)) {
+                        pending.add(operand);
+                    } else {
+                        operands.add(operand);
+                    }
+                }
+            }
+            if (operands.size() > 2) {
+                node.operator = node.operator == Operator.ADD ? Operator.SUM : Operator.PRODUCT;
+                node.operands = operands.toArray(new Node[operands.size()]);
+            }
+        }
+    }
+
+    private static boolean isChainLink(Operator operator) {
+        return operator == Operator.ADD || operator == Operator.MULTIPLY;
+    }
+
+    /**
+     * @return {@code true} for a link of a chain used only by the next link of the same chain
+     */
+    private static boolean isAbsorbed(Node node) {
+        return isChainLink(node.operator) && node.references == 1 && node.parent.operator == node.operator;
+    }
+
+    /**
+     * Emits the instructions of the node in the post-order; the leaves and the shared nodes but the emitted one
+     * are single instructions
+     */
+    private void emit(Node root) {
+        Node[] stack = new Node[16];
+        int[] next = new int[16];
+        int top = 0;
+        stack[0] = root;
+        while (top >= 0) {
+            Node node = stack[top];
+            if (node.isLeaf() || node != root && node.slot >= 0) {
+                emitOperand(node);
+                top--;
+            } else if (next[top] < node.operands.length) {
+                Node operand = node.operands[next[top]++];
+                if (++top == stack.length) {
+                    stack = Arrays.copyOf(stack, top * 2);
+                    next = Arrays.copyOf(next, top * 2);
+                }
+                stack[top] = operand;
+                next[top] = 0;
+            } else {
+                ensureCapacity();
+                operators[size] = node.operator;
+                arguments[size++] = node.operator.isVariadic() ? node.operands.length : 0;
+                depth -= node.operands.length - 1;
+                top--;
+            }
+        }
+    }
+
+    private void emitOperand(Node node) {
+        ensureCapacity();
+        constants[size] = node.constant;
+        arguments[size++] = node.slot >= 0 ? node.slot : Math.max(node.argument, 0);
+        maxDepth = Math.max(maxDepth, ++depth);
+    }
+
+    private void ensureCapacity() {
+        if (size == operators.length) {
+            operators = Arrays.copyOf(operators, size * 2);
+            constants = Arrays.copyOf(constants, size * 2);
+            arguments = Arrays.copyOf(arguments, size * 2);
+        }
+    }
+
+    /**
+     * A node of the expression: an operator of the operand nodes, a constant or a variable.
+     * The interned nodes are equal if their operators, constants and variables are equal and their operands
+     * are the same nodes.
+     */
+    private static final class Node {
+
+        private Operator operator;
+        private Node[] operands;
+        private final BigNumber constant;
+        private final int argument;
+
+        /**
+         * {@code true} if the value of the node is an integer whatever the variables are,
+         * and its evaluation can't fail
+         */
+        private final boolean integral;
+        private final int hash;
+
+        private int id;
+        private boolean reachable;
+        private int references;
+        /**
+         * The last node referring to this one
+         */
+        private Node parent;
+        /**
+         * The index of the value of a shared node among the values of the program, -1 if it isn't shared
+         */
+        private int slot = -1;
+
+        Node(Operator operator, Node[] operands) {
+            this(operator, operands, null, -1);
+        }
+
+        Node(BigNumber constant) {
+            this(null, null, constant, -1);
+        }
+
+        /**
+         * @param argument the index of the variable
+         */
+        Node(int argument) {
+            this(null, null, null, argument);
+        }
+
+        private Node(Operator operator, Node[] operands, BigNumber constant, int argument) {
+            this.operator = operator;
+            this.operands = operands;
+            this.constant = constant;
+            this.argument = argument;
+            boolean integral = operator == null ? constant instanceof SmallInt || constant instanceof BigInt :
+                    operator == Operator.ADD || operator == Operator.SUBTRACT || operator == Operator.MULTIPLY
+                            || operator == Operator.NEGATE;
+            int hash = operator == null ? 0 : operator.hashCode();
+            for (int i = 0; operands != null && i < operands.length; i++) {
+                integral &= operands[i].integral;
+                hash = 31 * hash + operands[i].id;
+            }
+            this.integral = integral;
+            this.hash = 31 * (31 * hash + argument) + (constant == null ? 0 : constant.hashCode());
+        }
+
+        boolean isLeaf() {
+            return operator == null;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Node)) return false;
+
+            Node that = (Node) obj;
+
+            if (operator != that.operator || argument != that.argument) return false;
+            if (constant != null ? !sameConstant(constant, that.constant) : that.constant != null) return false;
+            if (operands == null || that.operands == null) return operands == that.operands;
+            if (operands.length != that.operands.length) return false;
+            for (int i = 0; i < operands.length; i++) {
+                if (operands[i] != that.operands[i]) return false;
+            }
+            return true;
+        }
+
+        /**
+         * @return {@code true} for the equal constants of the same type, the decimals of the same scale
+         */
+        private static boolean sameConstant(BigNumber constant1, BigNumber constant2) {
+            if (constant1 instanceof BigDecimalNumber || constant2 instanceof BigDecimalNumber) {
+                return constant1.getClass() == constant2.getClass() && constant1.equals(constant2)
+                        && ((BigDecimalNumber) constant1).getScale() == ((BigDecimalNumber) constant2).getScale();
+            }
+            return constant2 != null && constant1.equals(constant2);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
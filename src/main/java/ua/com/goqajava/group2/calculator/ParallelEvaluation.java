@@ -0,0 +1,156 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Evaluates the independent subexpressions of a {@link Program} in parallel on a fork/join pool.
+ * The cost of every subexpression is estimated from the digit counts of its operands;
+ * two siblings are evaluated in parallel only if both are at least as costly as the parallel threshold,
+ * the cheaper subexpressions are evaluated sequentially. Only the body of the program is evaluated here,
+ * its shared subexpressions are already among the values.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 22.07.2016.
+ */
+@SuppressWarnings("serial")
+final class ParallelEvaluation extends RecursiveTask<BigNumber> {
+
+    /**
+     * The deeper subexpressions are evaluated sequentially to keep the recursion of the tasks bounded
+     */
+    private static final int MAX_DEPTH = 512;
+
+    private final Program program;
+    private final BigNumber[] values;
+    private final EvaluationContext context;
+    private final long[] costs;
+    private final int index;
+    private final int depth;
+
+    private ParallelEvaluation(Program program, BigNumber[] values, EvaluationContext context, long[] costs,
+                               int index, int depth) {
+        this.program = program;
+        this.values = values;
+        this.context = context;
+        this.costs = costs;
+        this.index = index;
+        this.depth = depth;
+    }
+
+    static BigNumber execute(Program program, BigNumber[] values, EvaluationContext context) {
+        int last = program.size() - 1;
+        long[] costs = estimateCosts(program, values);
+        if (costs[last] < 2 * context.getSettings().getParallelThreshold()) {
+            return program.execute(program.start(last), last, values, context);
+        }
+        ParallelEvaluation task = new ParallelEvaluation(program, values, context, costs, last, 0);
+        ForkJoinPool pool = context.getSettings().getPool();
+        // a worker of another pool, as of the common pool running a parallel stream, hands the task over
+        return ForkJoinTask.getPool() == pool ? task.invoke() : pool.invoke(task);
+    }
+
+    /**
+     * @return the estimated cost of the subexpression ending at every instruction
+     */
+    private static long[] estimateCosts(Program program, BigNumber[] values) {
+        int size = program.size();
+        long[] digits = new long[size];
+        long[] costs = new long[size];
+        for (int i = 0; i < size; i++) {
+            Operator operator = program.operator(i);
+            if (operator == null) {
+                digits[i] = program.operand(i, values).getLength();
+            } else if (program.arity(i) == 1) {
+                digits[i] = operator.estimateDigits(digits[i - 1], 0);
+                costs[i] = saturatedAdd(costs[i - 1], operator.estimateCost(digits[i - 1], 0));
+            } else if (operator.isVariadic()) {
+                int[] children = children(program, i);
+                digits[i] = digits[children[0]];
+                costs[i] = costs[children[0]];
+                for (int j = 1; j < children.length; j++) {
+                    long childDigits = digits[children[j]];
+                    costs[i] = saturatedAdd(costs[i], operator.estimateCost(digits[i], childDigits));
+                    costs[i] = saturatedAdd(costs[i], costs[children[j]]);
+                    digits[i] = operator.estimateDigits(digits[i], childDigits);
+                }
+            } else {
+                int[] children = children(program, i);
+                int right = children[children.length - 1];
+                int left = children[children.length - 2];
+                digits[i] = operator.estimateDigits(digits[left], digits[right]);
+                costs[i] = operator.estimateCost(digits[left], digits[right]);
+                for (int child : children) {
+                    costs[i] = saturatedAdd(costs[i], costs[child]);
+                }
+            }
+        }
+        return costs;
+    }
+
+    /**
+     * @return the indices of the last instructions of the operands of the operator at the {@code index}
+     */
+    private static int[] children(Program program, int index) {
+        int[] children = new int[program.arity(index)];
+        int child = index - 1;
+        for (int i = children.length - 1; i >= 0; i--) {
+            children[i] = child;
+            child = program.start(child) - 1;
+        }
+        return children;
+    }
+
+    private static long saturatedAdd(long value1, long value2) {
+        long sum = value1 + value2;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    @Override
+    protected BigNumber compute() {
+        long threshold = context.getSettings().getParallelThreshold();
+        Operator operator = program.operator(index);
+        if (operator == null) {
+            return program.operand(index, values);
+        }
+        if (costs[index] < threshold || depth >= MAX_DEPTH) {
+            return program.execute(program.start(index), index, values, context);
+        }
+        int arity = program.arity(index);
+        if (arity == 1) {
+            return operator.apply(subexpression(index - 1).compute(), null, context);
+        }
+        if (arity > 2 || operator.isVariadic()) {
+            // the costly operands but the last one are forked, the last one is evaluated by this thread
+            int[] children = children(program, index);
+            ParallelEvaluation[] tasks = new ParallelEvaluation[children.length];
+            for (int i = 0; i < children.length; i++) {
+                tasks[i] = subexpression(children[i]);
+                if (i < children.length - 1 && costs[children[i]] >= threshold) {
+                    tasks[i].fork();
+                }
+            }
+            BigNumber[] operands = new BigNumber[children.length];
+            for (int i = children.length - 1; i >= 0; i--) {
+                boolean forked = i < children.length - 1 && costs[children[i]] >= threshold;
+                operands[i] = forked ? tasks[i].join() : tasks[i].compute();
+            }
+            return operator.apply(operands, 0, arity, context);
+        }
+        int right = index - 1;
+        int left = program.start(right) - 1;
+        if (costs[left] >= threshold && costs[right] >= threshold) {
+            ParallelEvaluation leftTask = subexpression(left);
+            leftTask.fork();
+            BigNumber rightValue = subexpression(right).compute();
+            return operator.apply(leftTask.join(), rightValue, context);
+        }
+        BigNumber leftValue = subexpression(left).compute();
+        return operator.apply(leftValue, subexpression(right).compute(), context);
+    }
+
+    private ParallelEvaluation subexpression(int index) {
+        return new ParallelEvaluation(program, values, context, costs, index, depth + 1);
+    }
+}
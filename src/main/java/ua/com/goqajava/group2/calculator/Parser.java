@@ -0,0 +1,274 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static ua.com.goqajava.group2.calculator.Lexer.TokenType.*;
+
+/**
+ * Compiles an arithmetic expression to a {@link Program} by the shunting-yard algorithm.
+ * The expression is read once, left to right, with explicit stacks instead of the recursion.
+ * A '+' or '-' met where an operand is expected is a unary sign.
+ * A name of a function is followed by its arguments in the parentheses, separated by the commas.
+ * The names of the variables are letters, digits and underscores starting with a letter or an underscore,
+ * or a '$' followed by digits, the names of the results of a {@link Session}.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 21.07.2016.
+ */
+final class Parser {
+
+    private final Lexer lexer;
+    private final boolean variablesAllowed;
+    private final EvaluationListener listener;
+    private final Map<String, Integer> variables = new LinkedHashMap<>();
+
+    private Operator[] operators = new Operator[16];
+    private BigNumber[] constants = new BigNumber[16];
+    private int[] arguments = new int[16];
+    private int size;
+    private int depth;
+    private int maxDepth;
+
+    /**
+     * The pending operators, a {@code null} stands for a left parenthesis
+     */
+    private Operator[] pending = new Operator[16];
+    private int[] pendingPositions = new int[16];
+    /**
+     * The number of the arguments met in every pending parenthesis
+     */
+    private int[] pendingArguments = new int[16];
+    private int pendingSize;
+
+    private Parser(CharSequence expression, boolean variablesAllowed, EvaluationListener listener) {
+        this.lexer = new Lexer(expression);
+        this.variablesAllowed = variablesAllowed;
+        this.listener = listener;
+    }
+
+    /**
+     * Compiles an expression of the numbers only
+     *
+     * @throws ExpressionSyntaxException if the expression is invalid, an empty expression is compiled to zero
+     */
+    static Program parse(CharSequence expression) {
+        return parse(expression, null);
+    }
+
+    /**
+     * Compiles an expression of the numbers only and reports the time of the parsing to the listener
+     *
+     * @param listener the receiver of the time, {@code null} to measure nothing
+     */
+    static Program parse(CharSequence expression, EvaluationListener listener) {
+        return new Parser(expression, false, listener).measuredParse();
+    }
+
+    /**
+     * Compiles an expression which may refer to the variables
+     *
+     * @throws ExpressionSyntaxException if the expression is invalid, an empty expression is compiled to zero
+     */
+    static Program compile(CharSequence expression) {
+        return compile(expression, null);
+    }
+
+    /**
+     * Compiles an expression which may refer to the variables and reports the time of the parsing to the listener
+     *
+     * @param listener the receiver of the time, {@code null} to measure nothing
+     */
+    static Program compile(CharSequence expression, EvaluationListener listener) {
+        return new Parser(expression, true, listener).measuredParse();
+    }
+
+    private Program measuredParse() {
+        if (listener == null) {
+            return parse();
+        }
+        long start = System.nanoTime();
+        try {
+            return parse();
+        } finally {
+            listener.parsed(lexer.getExpression().length(), System.nanoTime() - start);
+        }
+    }
+
+    private Program parse() {
+        boolean expectOperand = true;
+        boolean empty = true;
+        while (lexer.next() != END) {
+            empty = false;
+            if (pendingSize > 0 && pending[pendingSize - 1] != null && pending[pendingSize - 1].isFunction()
+                    && lexer.getType() != LEFT_PARENTHESIS) {
+                throw lexer.error("'(' is expected");
+            }
+            switch (lexer.getType()) {
+                case NUMBER:
+                    if (!expectOperand) {
+                        throw lexer.error("an operator is expected");
+                    }
+                    emitConstant(lexer.isDecimal() ?
+                            DecimalCodec.parseDecimal(lexer.getExpression(), lexer.getStart(),
+                                    lexer.getEnd() - lexer.getStart()) :
+                            DecimalCodec.parseCompact(lexer.getExpression(), lexer.getStart(),
+                                    lexer.getEnd() - lexer.getStart()));
+                    expectOperand = false;
+                    break;
+                case IDENTIFIER:
+                    if (!expectOperand) {
+                        throw lexer.error("an operator is expected");
+                    }
+                    String name = lexer.getText();
+                    Operator function = Operator.function(name);
+                    if (function != null) {
+                        push(function, lexer.getStart());
+                        break;
+                    }
+                    if (!variablesAllowed) {
+                        throw lexer.error("the variable '" + name + "' isn't defined");
+                    }
+                    Integer index = variables.get(name);
+                    if (index == null) {
+                        variables.put(name, index = variables.size());
+                    }
+                    emitArgument(index);
+                    expectOperand = false;
+                    break;
+                case LEFT_PARENTHESIS:
+                    if (!expectOperand) {
+                        throw lexer.error("an operator is expected");
+                    }
+                    push(null, lexer.getStart());
+                    break;
+                case RIGHT_PARENTHESIS:
+                    if (expectOperand) {
+                        throw lexer.error("an operand is expected");
+                    }
+                    popToParenthesis();
+                    if (pendingSize == 0) {
+                        throw lexer.error("there is no matching '('");
+                    }
+                    int count = pendingArguments[--pendingSize];
+                    if (pendingSize > 0 && pending[pendingSize - 1] != null && pending[pendingSize - 1].isFunction()) {
+                        Operator called = pending[--pendingSize];
+                        if (count != called.getArity()) {
+                            throw new ExpressionSyntaxException("the function '" + called.getName() + "' takes "
+                                    + called.getArity() + " arguments", lexer.getExpression(),
+                                    pendingPositions[pendingSize]);
+                        }
+                        emit(called);
+                    }
+                    break;
+                case COMMA:
+                    if (expectOperand) {
+                        throw lexer.error("an operand is expected");
+                    }
+                    popToParenthesis();
+                    if (pendingSize < 2 || pending[pendingSize - 2] == null
+                            || !pending[pendingSize - 2].isFunction()) {
+                        throw lexer.error("',' is outside of the arguments of a function");
+                    }
+                    pendingArguments[pendingSize - 1]++;
+                    expectOperand = true;
+                    break;
+                case OPERATOR:
+                    char symbol = lexer.getSymbol();
+                    if (expectOperand) {
+                        if (symbol == '-') {
+                            push(Operator.NEGATE, lexer.getStart());
+                        } else if (symbol != '+') {
+                            throw lexer.error("an operand is expected");
+                        }
+                        break;
+                    }
+                    Operator operator = Operator.binary(symbol);
+                    while (pendingSize > 0 && pending[pendingSize - 1] != null &&
+                            precedes(pending[pendingSize - 1], operator)) {
+                        emit(pending[--pendingSize]);
+                    }
+                    push(operator, lexer.getStart());
+                    expectOperand = true;
+                    break;
+                default:
+            }
+        }
+        if (empty) {
+            return new Program(new Operator[0], new BigNumber[0], new int[0], new String[0], 0);
+        }
+        if (pendingSize > 0 && pending[pendingSize - 1] != null && pending[pendingSize - 1].isFunction()) {
+            throw lexer.error("'(' is expected");
+        }
+        if (expectOperand) {
+            throw lexer.error("an operand is expected");
+        }
+        while (pendingSize > 0) {
+            Operator operator = pending[--pendingSize];
+            if (operator == null) {
+                throw new ExpressionSyntaxException("there is no matching ')'", lexer.getExpression(),
+                        pendingPositions[pendingSize]);
+            }
+            emit(operator);
+        }
+        return new Program(Arrays.copyOf(operators, size), Arrays.copyOf(constants, size), Arrays.copyOf(arguments, size),
+                variables.keySet().toArray(new String[variables.size()]), maxDepth);
+    }
+
+    /**
+     * Emits the pending operators down to the innermost left parenthesis, which stays pending
+     */
+    private void popToParenthesis() {
+        while (pendingSize > 0 && pending[pendingSize - 1] != null) {
+            emit(pending[--pendingSize]);
+        }
+    }
+
+    private static boolean precedes(Operator pending, Operator operator) {
+        return pending.getPrecedence() > operator.getPrecedence() ||
+                pending.getPrecedence() == operator.getPrecedence() && !operator.isRightAssociative();
+    }
+
+    private void push(Operator operator, int position) {
+        if (pendingSize == pending.length) {
+            pending = Arrays.copyOf(pending, pendingSize * 2);
+            pendingPositions = Arrays.copyOf(pendingPositions, pendingSize * 2);
+            pendingArguments = Arrays.copyOf(pendingArguments, pendingSize * 2);
+        }
+        pending[pendingSize] = operator;
+        pendingArguments[pendingSize] = 1;
+        pendingPositions[pendingSize++] = position;
+    }
+
+    private void emitConstant(BigNumber constant) {
+        ensureCapacity();
+        constants[size++] = constant;
+        maxDepth = Math.max(maxDepth, ++depth);
+    }
+
+    private void emitArgument(int index) {
+        ensureCapacity();
+        arguments[size++] = index;
+        maxDepth = Math.max(maxDepth, ++depth);
+    }
+
+    private void emit(Operator operator) {
+        if (operator == Operator.NEGATE && size > 0 && operators[size - 1] == null && constants[size - 1] != null) {
+            // a negated literal is folded to a negative constant
+            constants[size - 1] = constants[size - 1].negate();
+            return;
+        }
+        ensureCapacity();
+        operators[size++] = operator;
+        depth -= operator.getArity() - 1;
+    }
+
+    private void ensureCapacity() {
+        if (size == operators.length) {
+            operators = Arrays.copyOf(operators, size * 2);
+            constants = Arrays.copyOf(constants, size * 2);
+            arguments = Arrays.copyOf(arguments, size * 2);
+        }
+    }
+}
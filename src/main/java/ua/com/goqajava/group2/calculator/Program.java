@@ -0,0 +1,207 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.util.Arrays;
+
+/**
+ * An arithmetic expression compiled to the reverse Polish notation.
+ * The program is immutable, its execution keeps the whole state on a local stack
+ * and never recurses, so the nesting depth of the expression isn't limited by the thread stack.
+ * <p>
+ * The instructions are in the post-order of the expression tree, so every subexpression
+ * is a contiguous run of the instructions ending with its operator.
+ * <p>
+ * A program made by the {@link Optimizer} may start with the shared subexpressions: each of them is executed
+ * once, before the body, and its value is kept after the values of the variables, where the body and
+ * the later shared subexpressions read it as a variable.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 21.07.2016.
+ */
+final class Program {
+
+    private static final BigNumber ZERO_VALUE = new BigInt("0");
+
+    /**
+     * The operators, a {@code null} pushes the constant with the same index
+     * or, if there is no such constant, the argument from the same index of the {@code arguments};
+     * the {@code arguments} of a variadic operator is the number of its operands
+     */
+    private final Operator[] operators;
+    private final BigNumber[] constants;
+    private final int[] arguments;
+    private final String[] variables;
+    private final int maxDepth;
+
+    /**
+     * The index of the last instruction of every shared subexpression, in the order of their execution
+     */
+    private final int[] shared;
+    private final int bodyStart;
+
+    /**
+     * The index of the first instruction of the subexpression ending at every index, built on demand
+     */
+    private volatile int[] starts;
+
+    Program(Operator[] operators, BigNumber[] constants, int[] arguments, String[] variables, int maxDepth) {
+        this(operators, constants, arguments, variables, maxDepth, new int[0]);
+    }
+
+    /**
+     * @param shared the index of the last instruction of every shared subexpression, the body follows the last one
+     */
+    Program(Operator[] operators, BigNumber[] constants, int[] arguments, String[] variables, int maxDepth,
+            int[] shared) {
+        this.operators = operators;
+        this.constants = constants;
+        this.arguments = arguments;
+        this.variables = variables;
+        this.maxDepth = maxDepth;
+        this.shared = shared;
+        this.bodyStart = shared.length == 0 ? 0 : shared[shared.length - 1] + 1;
+    }
+
+    /**
+     * @return the names of the variables in the order of their first appearance
+     */
+    String[] getVariables() {
+        return variables;
+    }
+
+    BigNumber execute() {
+        return execute(new BigNumber[0], new EvaluationContext(EvaluatorSettings.DEFAULT));
+    }
+
+    /**
+     * Evaluates the program without variables
+     *
+     * @param expression the source of the program
+     */
+    Evaluation evaluate(String expression, EvaluatorSettings settings) {
+        return evaluate(expression, new BigNumber[0], settings);
+    }
+
+    /**
+     * @param values the values of the variables in the order of {@link #getVariables()}
+     */
+    Evaluation evaluate(String expression, BigNumber[] values, EvaluatorSettings settings) {
+        EvaluationContext context = new EvaluationContext(settings);
+        BigNumber value = execute(values, context);
+        return new Evaluation(Evaluation.removeWhitespaces(expression), value, !context.isTruncated());
+    }
+
+    /**
+     * @param values the values of the variables in the order of {@link #getVariables()}
+     */
+    BigNumber execute(BigNumber[] values, EvaluationContext context) {
+        if (operators.length == 0) {
+            return ZERO_VALUE;
+        }
+        long start = context.startTiming();
+        boolean succeeded = false;
+        try {
+            values = executeShared(values, context);
+            BigNumber result = context.getSettings().isParallel() ?
+                    ParallelEvaluation.execute(this, values, context) :
+                    execute(bodyStart, operators.length - 1, values, context);
+            result = context.complete(result);
+            succeeded = true;
+            return result;
+        } finally {
+            context.evaluated(start, succeeded);
+            context.close();
+        }
+    }
+
+    /**
+     * @return the values of the variables followed by the values of the shared subexpressions
+     */
+    private BigNumber[] executeShared(BigNumber[] values, EvaluationContext context) {
+        if (shared.length == 0) {
+            return values;
+        }
+        BigNumber[] extended = Arrays.copyOf(values, variables.length + shared.length);
+        int first = 0;
+        for (int i = 0; i < shared.length; i++) {
+            extended[variables.length + i] = execute(first, shared[i], extended, context);
+            first = shared[i] + 1;
+        }
+        return extended;
+    }
+
+    /**
+     * Evaluates the subexpression made of the instructions from {@code first} to {@code last} inclusive
+     */
+    BigNumber execute(int first, int last, BigNumber[] values, EvaluationContext context) {
+        BigNumber[] stack = new BigNumber[maxDepth];
+        int top = -1;
+        for (int i = first; i <= last; i++) {
+            Operator operator = operators[i];
+            if (operator == null) {
+                stack[++top] = operand(i, values);
+            } else {
+                int arity = arity(i);
+                top -= arity - 1;
+                stack[top] = operator.apply(stack, top, arity, context);
+            }
+        }
+        return stack[0];
+    }
+
+    int size() {
+        return operators.length;
+    }
+
+    Operator operator(int index) {
+        return operators[index];
+    }
+
+    /**
+     * @return the number of the operands of the operator at the {@code index}
+     */
+    int arity(int index) {
+        Operator operator = operators[index];
+        return operator.isVariadic() ? arguments[index] : operator.getArity();
+    }
+
+    /**
+     * @return the constant or the value of the variable pushed by the instruction
+     */
+    BigNumber operand(int index, BigNumber[] values) {
+        BigNumber constant = constants[index];
+        return constant != null ? constant : values[arguments[index]];
+    }
+
+    /**
+     * @return the constant pushed by the instruction, {@code null} if it pushes a variable or it is an operator
+     */
+    BigNumber constant(int index) {
+        return constants[index];
+    }
+
+    /**
+     * @return the index of the variable pushed by the instruction
+     */
+    int argument(int index) {
+        return arguments[index];
+    }
+
+    /**
+     * @return the index of the first instruction of the subexpression ending at the {@code index}
+     */
+    int start(int index) {
+        int[] starts = this.starts;
+        if (starts == null) {
+            starts = new int[operators.length];
+            for (int i = 0; i < operators.length; i++) {
+                int start = i;
+                for (int operand = 0; operators[i] != null && operand < arity(i); operand++) {
+                    start = starts[start - 1];
+                }
+                starts[i] = start;
+            }
+            this.starts = starts;
+        }
+        return starts[index];
+    }
+}
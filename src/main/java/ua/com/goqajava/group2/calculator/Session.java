@@ -0,0 +1,330 @@
+package ua.com.goqajava.group2.calculator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An interactive session of the calculator with the variables and the history of the results.
+ * <p>
+ * A line {@code name = expression} defines a variable, any other line is an expression whose result
+ * is appended to the history. The expressions may refer to the variables, to the results of the history by
+ * {@code $1}, {@code $2}, ... and to the last result by {@value #LAST_RESULT}. The values are held once
+ * and passed to the compiled expressions by reference, they are never printed and parsed back.
+ * <p>
+ * The definitions make a dependency graph: when a variable is redefined, only the variables depending on it
+ * are recomputed, in the topological order, and a variable whose inputs haven't changed isn't recomputed at all.
+ * A definition refers to the variables defined before, so the graph has no cycles; the results of the history,
+ * {@value #LAST_RESULT} and the variable itself, as in {@code x = x + 1}, are taken by their values at the time
+ * of the definition. A value is changed also when only its scale is, as {@code 1.0} and {@code 1.00}.
+ * <p>
+ * A session keeps a state, so an instance mustn't be shared between threads, as a {@link Calculator}.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 03.08.2016.
+ */
+public final class Session {
+
+    public static final String LAST_RESULT = "ans";
+
+    private final ExpressionEvaluator evaluator;
+    private final Map<String, Definition> definitions = new LinkedHashMap<>();
+
+    /**
+     * The names of the variables whose definitions refer to the variable
+     */
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+    private final List<Evaluation> history = new ArrayList<>();
+    private List<Evaluation> recomputed = Collections.emptyList();
+
+    public Session() {
+        this(new ExpressionEvaluator());
+    }
+
+    public Session(ExpressionEvaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Defines the variable of an assignment, recomputing the variables depending on it,
+     * or evaluates the expression and appends its result to the history
+     *
+     * @return the evaluation of the expression; of an assignment, it is named by the variable
+     * @throws ExpressionSyntaxException if the line is invalid
+     * @throws IllegalArgumentException  if a variable or a result isn't defined or a definition is circular
+     * @throws ArithmeticException       if an expression can't be evaluated, then nothing is changed
+     */
+    public Evaluation execute(String line) {
+        int assignment = line.indexOf('=');
+        if (assignment >= 0) {
+            return define(line.substring(0, assignment).trim(), line.substring(assignment + 1), line);
+        }
+        CompiledExpression compiled = evaluator.compile(line);
+        Evaluation evaluation = compiled.evaluation(resolve(compiled.getVariables(), null, Collections.emptyMap(),
+                null));
+        history.add(evaluation);
+        recomputed = Collections.emptyList();
+        return evaluation;
+    }
+
+    private Evaluation define(String name, String expression, String line) {
+        if (!isVariableName(name)) {
+            throw new ExpressionSyntaxException("'" + name + "' isn't a name of a variable", line, 0);
+        }
+        CompiledExpression compiled = evaluator.compile(expression);
+        Set<String> dependencies = new LinkedHashSet<>();
+        for (String variable : compiled.getVariables()) {
+            if (isVariableName(variable) && !variable.equals(name)) {
+                dependencies.add(variable);
+            }
+        }
+        Set<String> affected = dependentsOf(name);
+        if (!Collections.disjoint(dependencies, affected)) {
+            throw new IllegalArgumentException("The definition of '" + name + "' is circular");
+        }
+
+        BigNumber[] arguments = resolve(compiled.getVariables(), null, Collections.emptyMap(), name);
+        Definition previous = definitions.get(name);
+        String text = Evaluation.removeWhitespaces(expression);
+        if (previous != null && previous.text.equals(text) && isSame(previous.arguments, arguments)) {
+            recomputed = Collections.emptyList();
+            return previous.evaluation;
+        }
+        Map<String, Definition> updated = new LinkedHashMap<>();
+        updated.put(name, new Definition(name, text, compiled, dependencies, arguments));
+        List<Evaluation> recomputedNow = new ArrayList<>();
+        if (previous == null || !isSame(previous.getValue(), updated.get(name).getValue())) {
+            recompute(name, affected, updated, recomputedNow);
+        }
+
+        // the graph is changed only when all the values have been computed
+        if (previous != null) {
+            for (String dependency : previous.dependencies) {
+                dependents.get(dependency).remove(name);
+            }
+        }
+        for (String dependency : dependencies) {
+            dependents.computeIfAbsent(dependency, key -> new HashSet<>()).add(name);
+        }
+        definitions.putAll(updated);
+        recomputed = Collections.unmodifiableList(recomputedNow);
+        return updated.get(name).evaluation;
+    }
+
+    /**
+     * Recomputes the affected variables by Kahn's algorithm: a variable is taken when all its dependencies
+     * among the affected ones are taken; it is evaluated only if the value of a dependency has changed
+     */
+    private void recompute(String name, Set<String> affected, Map<String, Definition> updated,
+                           List<Evaluation> recomputedNow) {
+        Map<String, Integer> pendingDependencies = new HashMap<>();
+        ArrayDeque<String> ready = new ArrayDeque<>();
+        for (String variable : affected) {
+            int count = 0;
+            for (String dependency : definitions.get(variable).dependencies) {
+                if (affected.contains(dependency)) {
+                    count++;
+                }
+            }
+            pendingDependencies.put(variable, count);
+            if (count == 0) {
+                ready.add(variable);
+            }
+        }
+        Set<String> changed = new HashSet<>();
+        changed.add(name);
+        while (!ready.isEmpty()) {
+            String variable = ready.poll();
+            Definition definition = definitions.get(variable);
+            if (!Collections.disjoint(definition.dependencies, changed)) {
+                Definition redefined = new Definition(variable, definition.text, definition.compiled,
+                        definition.dependencies,
+                        resolve(definition.compiled.getVariables(), definition.arguments, updated, variable));
+                updated.put(variable, redefined);
+                recomputedNow.add(redefined.evaluation);
+                if (!isSame(redefined.getValue(), definition.getValue())) {
+                    changed.add(variable);
+                }
+            }
+            for (String dependent : dependents.getOrDefault(variable, Collections.emptySet())) {
+                if (affected.contains(dependent) && pendingDependencies.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the variables depending on the variable directly or indirectly, without it
+     */
+    private Set<String> dependentsOf(String name) {
+        Set<String> found = new LinkedHashSet<>();
+        ArrayDeque<String> queue = new ArrayDeque<>();
+        queue.add(name);
+        while (!queue.isEmpty()) {
+            for (String dependent : dependents.getOrDefault(queue.poll(), Collections.emptySet())) {
+                if (found.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @param names    the variables of a compiled expression
+     * @param previous the values of a definition being recomputed, its results of the history are kept;
+     *                 {@code null} for a new expression
+     * @param updated  the definitions recomputed but not stored yet, they take precedence
+     * @param self     the variable being defined, it refers to its own value before the definition;
+     *                 {@code null} for an expression
+     */
+    private BigNumber[] resolve(List<String> names, BigNumber[] previous, Map<String, Definition> updated,
+                                String self) {
+        BigNumber[] values = new BigNumber[names.size()];
+        for (int i = 0; i < values.length; i++) {
+            String name = names.get(i);
+            Definition definition;
+            if (name.equals(self)) {
+                // as a result of the history, the own value is kept when the definition is recomputed
+                definition = previous == null ? definitions.get(name) : null;
+            } else {
+                definition = updated.containsKey(name) ? updated.get(name) : definitions.get(name);
+            }
+            if (definition != null) {
+                values[i] = definition.getValue();
+            } else if (previous != null) {
+                values[i] = previous[i];
+            } else if (name.equals(LAST_RESULT)) {
+                if (history.isEmpty()) {
+                    throw new IllegalArgumentException("There is no result for '" + LAST_RESULT + "' yet");
+                }
+                values[i] = history.get(history.size() - 1).getValue();
+            } else if (name.startsWith("$")) {
+                values[i] = getResult(name);
+            } else {
+                throw new IllegalArgumentException("The variable '" + name + "' isn't defined");
+            }
+        }
+        return values;
+    }
+
+    private BigNumber getResult(String reference) {
+        int number;
+        try {
+            number = Integer.parseInt(reference.substring(1));
+        } catch (NumberFormatException e) {
+            number = 0;
+        }
+        if (number < 1 || number > history.size()) {
+            throw new IllegalArgumentException("The result '" + reference + "' doesn't exist");
+        }
+        return history.get(number - 1).getValue();
+    }
+
+    /**
+     * @return {@code true} if the values are equal and of the same scale, so the dependents wouldn't change
+     */
+    private static boolean isSame(BigNumber value1, BigNumber value2) {
+        if (value1 instanceof BigDecimalNumber || value2 instanceof BigDecimalNumber) {
+            return value1 instanceof BigDecimalNumber && value2 instanceof BigDecimalNumber
+                    && ((BigDecimalNumber) value1).getScale() == ((BigDecimalNumber) value2).getScale()
+                    && value1.equals(value2);
+        }
+        return value1.equals(value2);
+    }
+
+    private static boolean isSame(BigNumber[] values1, BigNumber[] values2) {
+        for (int i = 0; i < values1.length; i++) {
+            if (!isSame(values1[i], values2[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} for the names which may be defined: not a function, a result or {@value #LAST_RESULT}
+     */
+    private static boolean isVariableName(String name) {
+        if (name.isEmpty() || name.equals(LAST_RESULT) || Operator.function(name) != null) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char symbol = name.charAt(i);
+            boolean letter = symbol >= 'a' && symbol <= 'z' || symbol >= 'A' && symbol <= 'Z' || symbol == '_';
+            if (!letter && (i == 0 || symbol < '0' || symbol > '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the value of the variable, {@code null} if it isn't defined
+     */
+    public BigNumber getVariable(String name) {
+        Definition definition = definitions.get(name);
+        return definition == null ? null : definition.getValue();
+    }
+
+    /**
+     * @return the values of the variables in the order of their first definitions
+     */
+    public Map<String, BigNumber> getVariables() {
+        Map<String, BigNumber> values = new LinkedHashMap<>();
+        for (Definition definition : definitions.values()) {
+            values.put(definition.name, definition.getValue());
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * @return the evaluations of the expressions, the first one is {@code $1}
+     */
+    public List<Evaluation> getHistory() {
+        return Collections.unmodifiableList(history);
+    }
+
+    /**
+     * @return the evaluations of the variables recomputed by the last line, named by the variables
+     */
+    public List<Evaluation> getRecomputed() {
+        return recomputed;
+    }
+
+    /**
+     * The compiled expression of a variable and the values of its variables, with the evaluation of them
+     */
+    private static final class Definition {
+
+        private final String name;
+        private final String text;
+        private final CompiledExpression compiled;
+        private final Set<String> dependencies;
+        private final BigNumber[] arguments;
+        private final Evaluation evaluation;
+
+        Definition(String name, String text, CompiledExpression compiled, Set<String> dependencies,
+                   BigNumber[] arguments) {
+            this.name = name;
+            this.text = text;
+            this.compiled = compiled;
+            this.dependencies = dependencies;
+            this.arguments = arguments;
+            Evaluation result = compiled.evaluation(arguments);
+            this.evaluation = new Evaluation(name, result.getValue(), result.isExact());
+        }
+
+        BigNumber getValue() {
+            return evaluation.getValue();
+        }
+    }
+}
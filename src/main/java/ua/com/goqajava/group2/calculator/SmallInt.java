@@ -0,0 +1,292 @@
+package ua.com.goqajava.group2.calculator;
+
+import static ua.com.goqajava.group2.calculator.Calculable.Sign.*;
+
+/**
+ * The compact big number of a {@code long} value.
+ * The class is immutable.
+ * <p>
+ * The operations on two small numbers detect the overflow and promote the result to {@link BigInt} only then;
+ * the operations with other numbers are delegated to them and their results are demoted back
+ * whenever they fit into a {@code long}. The small numbers are equal to the big integers of the same value.
+ *
+ * @author Dmitrij Lenchuk
+ * @since 29.07.2016.
+ */
+public final class SmallInt implements BigNumber {
+
+    private static final long BASE = Limbs.BASE;
+
+    private static final SmallInt[] CACHE = new SmallInt[256];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new SmallInt(i - 128);
+        }
+    }
+
+    private final long value;
+
+    private SmallInt(long value) {
+        this.value = value;
+    }
+
+    public static SmallInt valueOf(long value) {
+        return value >= -128 && value < 128 ? CACHE[(int) value + 128] : new SmallInt(value);
+    }
+
+    /**
+     * @return the small number of the same value if the number is a {@link BigInt} which fits into a {@code long},
+     * otherwise the number itself
+     */
+    public static BigNumber demote(BigNumber number) {
+        if (!(number instanceof BigInt)) {
+            return number;
+        }
+        int[] mag = ((BigInt) number).limbs();
+        long magnitude;
+        switch (mag.length) {
+            case 0:
+                return CACHE[128];
+            case 1:
+                magnitude = mag[0];
+                break;
+            case 2:
+                magnitude = mag[1] * BASE + mag[0];
+                break;
+            case 3:
+                long high = mag[2] * BASE + mag[1];
+                if (high > Long.MAX_VALUE / BASE) {
+                    return number;
+                }
+                magnitude = high * BASE + mag[0];
+                if (magnitude < 0) {
+                    // only -2^63 fits, its magnitude overflows to itself
+                    return magnitude == Long.MIN_VALUE && number.getSign() == NEGATIVE ? valueOf(magnitude) : number;
+                }
+                break;
+            default:
+                return number;
+        }
+        return valueOf(number.getSign() == NEGATIVE ? -magnitude : magnitude);
+    }
+
+    public long longValue() {
+        return value;
+    }
+
+    public BigInt toBigInt() {
+        return BigInt.valueOf(value);
+    }
+
+    @Override
+    public BigNumber add(BigNumber addend) {
+        if (addend instanceof SmallInt) {
+            long that = ((SmallInt) addend).value;
+            long sum = value + that;
+            if (((value ^ sum) & (that ^ sum)) < 0) {
+                return toBigInt().add(addend);
+            }
+            return valueOf(sum);
+        }
+        return demote(addend.add(this));
+    }
+
+    @Override
+    public BigNumber subtract(BigNumber deduction) {
+        if (deduction instanceof SmallInt) {
+            long that = ((SmallInt) deduction).value;
+            long difference = value - that;
+            if (((value ^ that) & (value ^ difference)) < 0) {
+                return toBigInt().subtract(deduction);
+            }
+            return valueOf(difference);
+        }
+        return demote(deduction.negate().add(this));
+    }
+
+    @Override
+    public BigNumber multiply(BigNumber multiplier) {
+        if (multiplier instanceof SmallInt) {
+            long that = ((SmallInt) multiplier).value;
+            long product = value * that;
+            if ((Math.abs(value) | Math.abs(that)) >>> 31 != 0
+                    && (that != 0 && product / that != value || value == Long.MIN_VALUE && that == -1)) {
+                return toBigInt().multiply(multiplier);
+            }
+            return valueOf(product);
+        }
+        return demote(multiplier.multiply(this));
+    }
+
+    @Override
+    public BigNumber divide(BigNumber divisor) {
+        if (divisor instanceof SmallInt) {
+            long that = checkDivisor(((SmallInt) divisor).value);
+            return value == Long.MIN_VALUE && that == -1 ? toBigInt().negate() : valueOf(value / that);
+        }
+        return demote(toBigInt().divide(divisor));
+    }
+
+    @Override
+    public BigNumber[] divideAndRemainder(BigNumber divisor) {
+        if (divisor instanceof SmallInt) {
+            long that = checkDivisor(((SmallInt) divisor).value);
+            return new BigNumber[]{divide(divisor), valueOf(value % that)};
+        }
+        BigNumber[] quotientAndRemainder = toBigInt().divideAndRemainder(divisor);
+        return new BigNumber[]{demote(quotientAndRemainder[0]), demote(quotientAndRemainder[1])};
+    }
+
+    @Override
+    public BigNumber mod(BigNumber divisor) {
+        if (divisor instanceof SmallInt) {
+            return valueOf(value % checkDivisor(((SmallInt) divisor).value));
+        }
+        return demote(toBigInt().mod(divisor));
+    }
+
+    private static long checkDivisor(long divisor) {
+        if (divisor == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        return divisor;
+    }
+
+    @Override
+    public BigNumber average(BigNumber value) {
+        if (value instanceof SmallInt) {
+            long that = ((SmallInt) value).value;
+            long sum = this.value + that;
+            if (((this.value ^ sum) & (that ^ sum)) >= 0) {
+                return valueOf(sum / 2);
+            }
+        }
+        return demote(toBigInt().average(value));
+    }
+
+    @Override
+    public BigNumber square() {
+        if (Math.abs(value) >>> 31 != 0) {
+            return toBigInt().square();
+        }
+        return valueOf(value * value);
+    }
+
+    @Override
+    public BigNumber pow(int exponent) {
+        if (exponent < 0) {
+            throw new ArithmeticException("Negative exponent");
+        }
+        long magnitude = Math.abs(value);
+        if (magnitude > 1 && (64 - Long.numberOfLeadingZeros(magnitude)) * (long) exponent > 62
+                || value == Long.MIN_VALUE) {
+            return demote(toBigInt().pow(exponent));
+        }
+        long power = 1;
+        long square = value;
+        for (int rest = exponent; rest != 0; rest >>>= 1) {
+            if ((rest & 1) != 0) {
+                power *= square;
+            }
+            square *= square;
+        }
+        return valueOf(power);
+    }
+
+    @Override
+    public BigNumber modPow(BigNumber exponent, BigNumber modulus) {
+        return demote(toBigInt().modPow(exponent, modulus));
+    }
+
+    @Override
+    public BigNumber negate() {
+        return value == Long.MIN_VALUE ? toBigInt().negate() : valueOf(-value);
+    }
+
+    @Override
+    public BigNumber abs() {
+        return value >= 0 ? this : negate();
+    }
+
+    @Override
+    public boolean isZero() {
+        return value == 0;
+    }
+
+    @Override
+    public int[] getValues() {
+        int[] values = new int[getLength()];
+        long magnitude = value;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (int) Math.abs(magnitude % 10);
+            magnitude /= 10;
+        }
+        return values;
+    }
+
+    @Override
+    public Sign getSign() {
+        return value > 0 ? POSITIVE : value < 0 ? NEGATIVE : ZERO;
+    }
+
+    @Override
+    public int getLength() {
+        int length = 0;
+        for (long magnitude = value; magnitude != 0; magnitude /= 10) {
+            length++;
+        }
+        return length;
+    }
+
+    @Override
+    public int signum() {
+        return Long.signum(value);
+    }
+
+    @Override
+    public int compareMagnitude(BigNumber that) {
+        if (that instanceof SmallInt) {
+            return Long.compareUnsigned(Math.abs(value), Math.abs(((SmallInt) that).value));
+        }
+        return -that.compareMagnitude(this);
+    }
+
+    @Override
+    public int compareTo(BigNumber that) {
+        if (that instanceof SmallInt) {
+            return Long.compare(value, ((SmallInt) that).value);
+        }
+        return -that.compareTo(this);
+    }
+
+    @Override
+    public String toString() {
+        return value >= 0 ? "+" + value : Long.toString(value);
+    }
+
+    /**
+     * @return {@code true} for the small numbers and the big integers of the same value
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj instanceof SmallInt) return value == ((SmallInt) obj).value;
+        return (obj instanceof BigInt || obj instanceof OffHeapBigInt) && obj.equals(this);
+    }
+
+    /**
+     * @return the hash code of the {@link BigInt} of the same value
+     */
+    @Override
+    public int hashCode() {
+        if (value == Long.MIN_VALUE) {
+            return toBigInt().hashCode();
+        }
+        int result = 1;
+        for (long magnitude = Math.abs(value); magnitude != 0; magnitude /= BASE) {
+            result = 31 * result + (int) (magnitude % BASE);
+        }
+        return 31 * result + getSign().hashCode();
+    }
+}
@@ -0,0 +1,83 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BatchEvaluatorTest {
+
+    @Test
+    public void calculatesAllLazily() throws Exception {
+        Iterator<Evaluation> evaluations = new ExpressionEvaluator()
+                .calculateAll(Stream.of("2 + 3", "1 / 0", "2 +", "7 * 6")).iterator();
+        assertEquals("5", evaluations.next().getResultText());
+
+        Evaluation divisionByZero = evaluations.next();
+        assertTrue(divisionByZero.isFailed());
+        assertNull(divisionByZero.getValue());
+        assertTrue(divisionByZero.getError() instanceof ArithmeticException);
+        assertEquals("1/0 ! error: Division by zero", divisionByZero.toString());
+
+        assertTrue(evaluations.next().getError() instanceof ExpressionSyntaxException);
+        Evaluation last = evaluations.next();
+        assertFalse(last.isFailed());
+        assertEquals(new BigInt("42"), last.getValue());
+        assertFalse(evaluations.hasNext());
+    }
+
+    @Test
+    public void keepsOrderInParallel() throws Exception {
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            if (i % 997 == 0) {
+                input.append("1 / (").append(i).append(" - ").append(i).append(')');
+                expected.append("error: Division by zero");
+            } else if (i % 1001 == 0) {
+                input.append("  ");
+            } else {
+                input.append(i).append(" * ").append(i).append(" - 1");
+                expected.append((long) i * i - 1);
+            }
+            input.append('\n');
+            expected.append(System.lineSeparator());
+        }
+        StringWriter output = new StringWriter();
+        long lines = new BatchEvaluator(new ExpressionEvaluator(), 4, 16, 3)
+                .run(new BufferedReader(new StringReader(input.toString())), output);
+        assertEquals(5000, lines);
+        assertEquals(expected.toString(), output.toString());
+    }
+
+    @Test
+    public void writesErrorsInline() throws Exception {
+        List<String> results = new BatchEvaluator(new ExpressionEvaluator(), 1, 2, 1)
+                .evaluate(Arrays.asList("12a", "(1 + 2", "", "-5 - 5"));
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).startsWith("error: "));
+        assertFalse(results.get(0).contains("\n"));
+        assertTrue(results.get(1).startsWith("error: "));
+        assertEquals("", results.get(2));
+        assertEquals("-10", results.get(3));
+        assertEquals(results, new ExpressionEvaluator().calculateAll(Stream.of("12a", "(1 + 2", "", "-5 - 5"))
+                .parallel().map(evaluation -> evaluation.getExpression().isEmpty() ? "" : evaluation.getResultText())
+                .collect(Collectors.toList()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyQueue() throws Exception {
+        new BatchEvaluator(new ExpressionEvaluator(), 1, 1, 0);
+    }
+}
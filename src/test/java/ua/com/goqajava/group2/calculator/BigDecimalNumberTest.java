@@ -0,0 +1,132 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BigDecimalNumberTest {
+
+    @Test
+    public void parsesAndFormats() throws Exception {
+        assertEquals("+12.345", BigDecimalNumber.parse("12.345").toString());
+        assertEquals("-0.001", BigDecimalNumber.parse("-0.001").toString());
+        assertEquals("+0.00", BigDecimalNumber.parse("0.00").toString());
+        assertEquals("+1000000000.000000001", BigDecimalNumber.parse("+1000000000.000000001").toString());
+        assertEquals("+42", BigDecimalNumber.parse("42").toString());
+        assertEquals(3, BigDecimalNumber.parse("12.345").getScale());
+        assertEquals("+12", BigDecimalNumber.parse("12.945").toBigInt().toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidNumber() throws Exception {
+        BigDecimalNumber.parse("1.2.3");
+    }
+
+    @Test
+    public void calculatesAsBigDecimal() throws Exception {
+        Random random = new Random(19);
+        RoundingMode[] modes = {RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR,
+                RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN};
+        for (int i = 0; i < 500; i++) {
+            String text1 = randomDecimal(random, 1 + random.nextInt(i < 250 ? 12 : 60));
+            String text2 = randomDecimal(random, 1 + random.nextInt(i < 250 ? 12 : 60));
+            BigDecimal expected1 = new BigDecimal(text1);
+            BigDecimal expected2 = new BigDecimal(text2);
+            BigDecimalNumber value1 = BigDecimalNumber.parse(text1);
+            BigDecimalNumber value2 = BigDecimalNumber.parse(text2);
+
+            assertEquals(format(expected1.add(expected2)), value1.add(value2).toString());
+            assertEquals(format(expected1.subtract(expected2)), value1.subtract(value2).toString());
+            assertEquals(format(expected1.multiply(expected2)), value1.multiply(value2).toString());
+            assertEquals(expected1.compareTo(expected2), value1.compareTo(value2));
+            assertEquals(expected1.abs().compareTo(expected2.abs()), value1.compareMagnitude(value2));
+            if (expected2.signum() != 0) {
+                int precision = 1 + random.nextInt(40);
+                RoundingMode mode = modes[random.nextInt(modes.length)];
+                assertEquals(text1 + " / " + text2 + " " + mode,
+                        format(expected1.divide(expected2, new MathContext(precision, mode))),
+                        value1.divide(value2, new DecimalContext(precision, mode)).toString());
+                BigDecimal[] quotientAndRemainder = expected1.divideAndRemainder(expected2);
+                BigNumber[] actual = value1.divideAndRemainder(value2);
+                assertEquals(0, quotientAndRemainder[0].compareTo(new BigDecimal(actual[0].toString())));
+                assertEquals(0, quotientAndRemainder[1].compareTo(new BigDecimal(actual[1].toString())));
+            }
+        }
+    }
+
+    private static String randomDecimal(Random random, int digits) {
+        String value = MultiplicationTest.randomNumber(random, digits);
+        int scale = random.nextInt(digits + 3);
+        if (scale == 0) {
+            return value;
+        }
+        String sign = value.startsWith("-") ? "-" : "";
+        String magnitude = value.substring(sign.length());
+        while (magnitude.length() <= scale) {
+            magnitude = "0" + magnitude;
+        }
+        int point = magnitude.length() - scale;
+        return sign + magnitude.substring(0, point) + "." + magnitude.substring(point);
+    }
+
+    private static String format(BigDecimal value) {
+        if (value.scale() < 0) {
+            value = value.setScale(0);
+        }
+        return (value.signum() >= 0 ? "+" : "") + value.toPlainString();
+    }
+
+    @Test
+    public void dividesExactly() throws Exception {
+        assertEquals("+0.125", BigDecimalNumber.parse("1").divide(SmallInt.valueOf(8), DecimalContext.UNLIMITED)
+                .toString());
+        assertEquals("+25", BigDecimalNumber.parse("100").divide(BigDecimalNumber.parse("4.0"), DecimalContext.UNLIMITED)
+                .toString());
+        assertEquals("+0.0016", BigDecimalNumber.valueOf(BigRational.valueOf(SmallInt.valueOf(2), SmallInt.valueOf(1250)))
+                .toString());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testNonTerminatingQuotient() throws Exception {
+        BigDecimalNumber.parse("1").divide(SmallInt.valueOf(3), DecimalContext.UNLIMITED);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testUnnecessaryRounding() throws Exception {
+        BigDecimalNumber.parse("1").divide(SmallInt.valueOf(3), new DecimalContext(10, RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    public void equalsByValue() throws Exception {
+        assertEquals(BigDecimalNumber.parse("2.50"), BigDecimalNumber.parse("2.5"));
+        assertEquals(BigDecimalNumber.parse("2.50").hashCode(), BigDecimalNumber.parse("2.5").hashCode());
+        assertFalse(BigDecimalNumber.parse("2.5").equals(BigDecimalNumber.parse("2.05")));
+        assertEquals("+1.5", BigDecimalNumber.parse("1").average(SmallInt.valueOf(2)).toString());
+        assertEquals("+3", BigDecimalNumber.parse("2").average(SmallInt.valueOf(4)).toString());
+        assertEquals(1, new BigInt("3").compareTo(BigDecimalNumber.parse("2.99")));
+        assertEquals("+5.5", new BigInt("3").add(BigDecimalNumber.parse("2.5")).toString());
+    }
+
+    @Test
+    public void evaluatesDecimals() throws Exception {
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        assertEquals("0.1 + 0.2 = 0.3", evaluator.evaluate("0.1 + 0.2").toString());
+        assertEquals("2.5*4 = 10.0", evaluator.evaluate("2.5*4").toString());
+        assertEquals("1/4.0 = 0.25", evaluator.evaluate("1/4.0").toString());
+        assertEquals("1/3.0 ~ 0.3333333333333333333333333333333333", evaluator.evaluate("1/3.0").toString());
+        assertEquals("2/3.0 ~ 0.67", new ExpressionEvaluator(EvaluatorSettings.DEFAULT
+                .withDecimalContext(new DecimalContext(2, RoundingMode.HALF_UP))).evaluate("2/3.0").toString());
+        assertEquals("0.1*3 = 0.3", new ExpressionEvaluator(EvaluatorSettings.DEFAULT.withExactArithmetic(true))
+                .evaluate("0.1*3").toString());
+        assertEquals("1/3 + 0.5 = 5/6", new ExpressionEvaluator(EvaluatorSettings.DEFAULT.withExactArithmetic(true))
+                .evaluate("1/3 + 0.5").toString());
+        assertTrue(new Calculator("1.5 * 2").getEvaluation().isExact());
+    }
+}
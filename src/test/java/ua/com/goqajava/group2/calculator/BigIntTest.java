@@ -4,7 +4,12 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.Assert.assertEquals;
 import static ua.com.goqajava.group2.calculator.Calculable.Sign.*;
@@ -96,6 +101,23 @@ public class BigIntTest {
         }
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void compareMagnitude() throws Exception {
+        assertEquals(new BigInteger(BASE_BIG_INT_STRING).abs().compareTo(new BigInteger(value).abs()),
+                new BigInt(BASE_BIG_INT_STRING).compareMagnitude(new BigInt(value)));
+        if (valid) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void signum() throws Exception {
+        assertEquals(new BigInteger(value).signum(), new BigInt(value).signum());
+        if (valid) {
+            throw new IllegalArgumentException();
+        }
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void getSign() throws Exception {
         final int sign = new BigInteger(value).signum();
@@ -105,6 +127,67 @@ public class BigIntTest {
         }
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void getValues() throws Exception {
+        String digits = new BigInteger(value).abs().toString();
+        BigInt bigInt = new BigInt(value);
+        int length = digits.equals("0") ? 0 : digits.length();
+        assertEquals(length, bigInt.getLength());
+        for (int i = 0; i < length; i++) {
+            assertEquals(digits.charAt(length - 1 - i) - '0', bigInt.getValues()[i]);
+        }
+        if (valid) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse() throws Exception {
+        String line = "12," + value + ",34";
+        if (!valid) {
+            // all the paths share one loop, so they fail the same way
+            String message = parseError(() -> BigInt.parse(line, 3, value.length()));
+            assertEquals(message, parseError(() -> BigInt.parse(line.toCharArray(), 3, value.length())));
+            assertEquals(message,
+                    parseError(() -> BigInt.parse(line.getBytes(StandardCharsets.US_ASCII), 3, value.length())));
+            throw new IllegalArgumentException(message);
+        }
+        BigInt expected = new BigInt(value);
+        assertEquals(expected, BigInt.parse(line, 3, value.length()));
+        assertEquals(expected, BigInt.parse(line.toCharArray(), 3, value.length()));
+        assertEquals(expected, BigInt.parse(line.getBytes(StandardCharsets.US_ASCII), 3, value.length()));
+        throw new IllegalArgumentException();
+    }
+
+    private static String parseError(Runnable parse) {
+        try {
+            parse.run();
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        throw new AssertionError("An invalid number is parsed");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readAndWrite() throws Exception {
+        Path file = Files.createTempFile("big-int", ".txt");
+        try {
+            Files.write(file, (" " + value + "\n").getBytes(StandardCharsets.US_ASCII));
+            BigInt bigInt = BigInt.read(file);
+            assertEquals(new BigInt(value), bigInt);
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            long written = bigInt.write(Channels.newChannel(output));
+            assertEquals(new BigInteger(value).toString(), output.toString("US-ASCII"));
+            assertEquals(output.size(), written);
+        } finally {
+            Files.delete(file);
+        }
+        if (valid) {
+            throw new IllegalArgumentException();
+        }
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testToString() throws Exception {
         assertEquals(new BigInteger(value).toString(), new BigInt(value).toString().replaceFirst("\\+", ""));
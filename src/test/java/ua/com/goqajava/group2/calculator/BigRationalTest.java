@@ -0,0 +1,160 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BigRationalTest {
+
+    @Test
+    public void testGcd() {
+        BigInteger fibonacci1 = BigInteger.ZERO;
+        BigInteger fibonacci2 = BigInteger.ONE;
+        for (int i = 0; i < 500; i++) {
+            BigInteger next = fibonacci1.add(fibonacci2);
+            fibonacci1 = fibonacci2;
+            fibonacci2 = next;
+        }
+        BigInteger factor = BigInteger.valueOf(2).pow(64).multiply(BigInteger.valueOf(3).pow(40));
+        // the consecutive Fibonacci numbers are the longest run of the Euclidean steps
+        checkGcd(fibonacci2, fibonacci1);
+        checkGcd(fibonacci2.multiply(factor), fibonacci1.multiply(factor));
+        checkGcd(BigInteger.ZERO, BigInteger.TEN);
+        checkGcd(BigInteger.TEN.pow(100), BigInteger.TEN.pow(100));
+        checkGcd(BigInteger.TEN.pow(100), BigInteger.TEN.pow(37));
+        checkGcd(BigInteger.TEN.pow(50).multiply(BigInteger.valueOf(7)), BigInteger.valueOf(7));
+        checkGcd(new BigInteger("999999999999999998"), new BigInteger("999999999999999999"));
+        checkGcd(new BigInteger("121932631112635269"), new BigInteger("13717421"));
+        checkGcd(factor.multiply(BigInteger.valueOf(1000000007)), factor.multiply(BigInteger.valueOf(999999937)));
+    }
+
+    private static void checkGcd(BigInteger value1, BigInteger value2) {
+        int[] gcd = Gcd.gcd(new BigInt(value1.toString()).limbs(), new BigInt(value2.toString()).limbs());
+        assertEquals(value1.gcd(value2).toString(), new BigInt(gcd, Calculable.Sign.POSITIVE).toString().substring(1));
+    }
+
+    @Test
+    public void testArithmetic() {
+        BigRational half = fraction(1, 2);
+        BigRational third = fraction(1, 3);
+        assertEquals("+5/6", half.add(third).toString());
+        assertEquals("+1/6", half.subtract(third).toString());
+        assertEquals("-1/6", third.subtract(half).toString());
+        assertEquals("+1/6", half.multiply(third).toString());
+        assertEquals("+3/2", half.divide(third).toString());
+        assertEquals("-2", half.divide(fraction(-1, 4)).toString());
+        assertEquals("+0", half.subtract(half).toString());
+        assertEquals("+1", half.add(half).toString());
+        assertEquals("+1/4", half.average(SmallInt.valueOf(0)).toString());
+        assertEquals("-1/2", fraction(1, -2).toString());
+        assertEquals("+1/2", fraction(-1, -2).toString());
+    }
+
+    @Test
+    public void testDivideAndRemainder() {
+        BigNumber[] quotientAndRemainder = fraction(7, 2).divideAndRemainder(fraction(1, 3));
+        assertEquals("+10", quotientAndRemainder[0].toString());
+        assertEquals("+1/6", quotientAndRemainder[1].toString());
+        quotientAndRemainder = fraction(-7, 2).divideAndRemainder(fraction(1, 3));
+        assertEquals("-10", quotientAndRemainder[0].toString());
+        assertEquals("-1/6", quotientAndRemainder[1].toString());
+        assertEquals("-3", fraction(-7, 2).toBigInt().toString());
+        assertEquals("+1/2", fraction(7, 2).mod(SmallInt.valueOf(3)).toString());
+    }
+
+    @Test
+    public void testPow() {
+        assertEquals("-8/27", fraction(-2, 3).pow(3).toString());
+        assertEquals("+9/4", fraction(2, 3).pow(-2).toString());
+        assertEquals("-3/2", fraction(-2, 3).pow(-1).toString());
+        assertEquals("+1", fraction(5, 7).pow(0).toString());
+        assertEquals("+4/9", fraction(4, 6).square().toString());
+    }
+
+    @Test
+    public void testCompare() {
+        assertEquals(1, fraction(-1, 3).compareTo(fraction(-1, 2)));
+        assertEquals(-1, fraction(1, 3).compareTo(fraction(1, 2)));
+        assertEquals(0, fraction(2, 4).compareTo(fraction(1, 2)));
+        assertEquals(1, fraction(1, 2).compareTo(new BigInt("0")));
+        assertEquals(-1, new BigInt("0").compareTo(fraction(1, 2)));
+        assertEquals(1, fraction(-3, 2).compareMagnitude(SmallInt.valueOf(1)));
+    }
+
+    @Test
+    public void testReduceLongTerms() {
+        BigInteger numerator = BigInteger.valueOf(2).pow(200).multiply(BigInteger.valueOf(3).pow(50));
+        BigInteger denominator = BigInteger.valueOf(2).pow(150).multiply(BigInteger.valueOf(5).pow(60));
+        BigRational fraction = BigRational.valueOf(new BigInt(numerator.toString()),
+                new BigInt(denominator.toString()));
+        BigInteger gcd = numerator.gcd(denominator);
+        assertEquals(new BigInt(numerator.divide(gcd).toString()), fraction.getNumerator());
+        assertEquals(new BigInt(denominator.divide(gcd).toString()), fraction.getDenominator());
+        assertEquals(new BigInt(numerator.divide(denominator).toString()), fraction.toBigInt());
+    }
+
+    @Test
+    public void testReduceLazily() {
+        BigNumber sum = SmallInt.valueOf(0);
+        BigInteger[] expected = {BigInteger.ZERO, BigInteger.ONE};
+        for (int i = 1; i <= 300; i++) {
+            sum = sum.add(fraction(1, i));
+            expected = new BigInteger[]{expected[0].multiply(BigInteger.valueOf(i)).add(expected[1]),
+                    expected[1].multiply(BigInteger.valueOf(i))};
+        }
+        BigInteger gcd = expected[0].gcd(expected[1]);
+        assertEquals("+" + expected[0].divide(gcd) + "/" + expected[1].divide(gcd), sum.toString());
+        assertTrue(((BigRational) sum).getDenominator().getLength() < 200);
+    }
+
+    @Test
+    public void testEquals() {
+        BigRational half = fraction(1, 2);
+        assertEquals(half, fraction(-7, -14));
+        assertEquals(half.hashCode(), BigRational.valueOf(new BigInt("500"), new BigInt("1000")).hashCode());
+        assertEquals("-1/2", half.negate().toString());
+        assertEquals(SmallInt.valueOf(3), fraction(6, 2).toNumber());
+        assertEquals("+3/2", new BigInt("1").add(half).toString());
+    }
+
+    @Test
+    public void testDivideIntegerByFraction() {
+        BigRational twoThirds = fraction(2, 3);
+        assertEquals("+3/2", new BigInt("1").divide(twoThirds).toString());
+        assertEquals("+3/2", SmallInt.valueOf(1).divide(twoThirds).toString());
+        assertEquals("+1", new BigInt("1").divideAndRemainder(twoThirds)[0].toString());
+        assertEquals("+1/3", SmallInt.valueOf(1).mod(twoThirds).toString());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testZeroDenominator() {
+        fraction(1, 0);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testDivisionByZero() {
+        fraction(1, 2).divide(fraction(0, 5));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testZeroToNegativePower() {
+        fraction(0, 5).pow(-1);
+    }
+
+    @Test
+    public void testEvaluateExactly() {
+        ExpressionEvaluator evaluator = new ExpressionEvaluator(EvaluatorSettings.DEFAULT.withExactArithmetic(true));
+        assertEquals("(1/3)*3 = 1", evaluator.evaluate("(1/3)*3").toString());
+        assertEquals("1/3 + 1/6 = 1/2", evaluator.evaluate("1/3 + 1/6").toString());
+        assertEquals("10/4 - 7 = -9/2", evaluator.evaluate("10/4 - 7").toString());
+        assertEquals(SmallInt.valueOf(5), evaluator.calculate("10 / 2"));
+        assertEquals("(1/3)*3 ~ 0", new ExpressionEvaluator().evaluate("(1/3)*3").toString());
+    }
+
+    private static BigRational fraction(long numerator, long denominator) {
+        return BigRational.valueOf(SmallInt.valueOf(numerator), SmallInt.valueOf(denominator));
+    }
+}
@@ -0,0 +1,196 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CalculatorServerTest {
+
+    private MetricsRegistry metrics;
+    private CalculatorServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        metrics = new MetricsRegistry();
+        server = new CalculatorServer(new ExpressionEvaluator(EvaluatorSettings.DEFAULT.withListener(metrics)),
+                metrics, 8, 4, 100);
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        server.start(new InetSocketAddress(loopback, 0), new InetSocketAddress(loopback, 0));
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getLinePort());
+        socket.setSoTimeout(10_000);
+        return socket;
+    }
+
+    private static BufferedReader readerOf(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static Writer writerOf(Socket socket) throws IOException {
+        return new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void answersPipelinedExpressionsInOrder() throws Exception {
+        try (Socket socket = connect()) {
+            StringBuilder input = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                input.append(i % 100 == 0 ? "1 / 0" : i + " * " + i + " - 1").append(i % 2 == 0 ? "\n" : "\r\n");
+            }
+            input.append('\n');
+            Writer writer = writerOf(socket);
+            writer.write(input.toString());
+            writer.flush();
+
+            BufferedReader reader = readerOf(socket);
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i % 100 == 0 ? "error: Division by zero" : String.valueOf((long) i * i - 1),
+                        reader.readLine());
+            }
+            assertEquals("", reader.readLine());
+        }
+        assertEquals(1000, metrics.getEvaluationCount());
+    }
+
+    @Test
+    public void servesClientsConcurrently() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int client = 0; client < 8; client++) {
+                int base = client * 1000;
+                results.add(clients.submit(() -> {
+                    try (Socket socket = connect()) {
+                        Writer writer = writerOf(socket);
+                        BufferedReader reader = readerOf(socket);
+                        for (int i = 0; i < 50; i++) {
+                            writer.write((base + i) + " + 1\n");
+                            writer.flush();
+                            if (!String.valueOf(base + i + 1).equals(reader.readLine())) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    public void answersTooLongExpressionByError() throws Exception {
+        try (Socket socket = connect()) {
+            StringBuilder longExpression = new StringBuilder("1");
+            for (int i = 0; i < 100; i++) {
+                longExpression.append(" + 1");
+            }
+            Writer writer = writerOf(socket);
+            writer.write(longExpression + "\n2 ^ 10\n");
+            writer.flush();
+
+            BufferedReader reader = readerOf(socket);
+            assertEquals("error: the expression is longer than 100 characters", reader.readLine());
+            assertEquals("1024", reader.readLine());
+        }
+    }
+
+    @Test
+    public void servesHttp() throws Exception {
+        String base = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getHttpPort();
+
+        HttpURLConnection get = (HttpURLConnection) new URL(base + "/evaluate?expression="
+                + URLEncoder.encode("(2 + 3) * 4", "UTF-8")).openConnection();
+        assertEquals(200, get.getResponseCode());
+        assertEquals("20\n", read(get.getInputStream()));
+
+        HttpURLConnection post = (HttpURLConnection) new URL(base + "/evaluate").openConnection();
+        post.setRequestMethod("POST");
+        post.setDoOutput(true);
+        try (OutputStream body = post.getOutputStream()) {
+            body.write("7 * 6\n1 / 0\n\n2 - 5\n".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(200, post.getResponseCode());
+        assertEquals("42\nerror: Division by zero\n\n-3\n", read(post.getInputStream()));
+
+        HttpURLConnection missed = (HttpURLConnection) new URL(base + "/evaluate").openConnection();
+        assertEquals(400, missed.getResponseCode());
+
+        HttpURLConnection stats = (HttpURLConnection) new URL(base + "/stats").openConnection();
+        assertEquals(200, stats.getResponseCode());
+        assertTrue(read(stats.getInputStream()).startsWith("{\"parse\":"));
+    }
+
+    @Test
+    public void shutsDownGracefully() throws Exception {
+        try (Socket socket = connect()) {
+            Writer writer = writerOf(socket);
+            BufferedReader reader = readerOf(socket);
+            writer.write("2 + 2\n");
+            writer.flush();
+            assertEquals("4", reader.readLine());
+
+            server.close();
+            assertNull(reader.readLine());
+        }
+        try (Socket ignored = connect()) {
+            fail("The closed server has accepted a connection");
+        } catch (ConnectException e) {
+            // the server socket is closed
+        }
+        server.awaitTermination();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositivePipelineDepth() throws Exception {
+        new CalculatorServer(new ExpressionEvaluator(), null, 1, 0, 1);
+    }
+
+    private static String read(InputStream stream) throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (InputStreamReader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            char[] buffer = new char[1024];
+            for (int count; (count = reader.read(buffer)) != -1; ) {
+                text.append(buffer, 0, count);
+            }
+        }
+        return text.toString();
+    }
+}
@@ -35,6 +35,15 @@ public class CalculatorTest {
         };
     }
 
+    @Test(expected = Exception.class)
+    public void evaluate() throws Exception {
+        Evaluation evaluation = new ExpressionEvaluator().evaluate(expression);
+        assertEquals(result, evaluation.getValue());
+        if (valid) {
+            throw new Exception("Is Valid");
+        }
+    }
+
     @Test(expected = Exception.class)
     public void calculate() throws Exception {
         assertEquals(result, new Calculator(expression).getResult());
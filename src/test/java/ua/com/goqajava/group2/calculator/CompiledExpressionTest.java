@@ -0,0 +1,47 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class CompiledExpressionTest {
+
+    @Test
+    public void evaluateByPosition() throws Exception {
+        CompiledExpression expression = new Calculator().compile("a * b + c - a");
+        assertEquals(Arrays.asList("a", "b", "c"), expression.getVariables());
+        assertEquals(new BigInt("8"), expression.evaluate(new BigInt("2"), new BigInt("3"), new BigInt("4")));
+        assertEquals(new BigInt("-1000000000000000000000"),
+                expression.evaluate(new BigInt("-1000000000000"), new BigInt("1000000000"), new BigInt("-1000000000000")));
+    }
+
+    @Test
+    public void evaluateByName() throws Exception {
+        CompiledExpression expression = CompiledExpression.compile("-(x_1 - y) / 2");
+        Map<String, BigNumber> values = new HashMap<>();
+        values.put("x_1", new BigInt("3"));
+        values.put("y", new BigInt("10"));
+        values.put("unused", new BigInt("1"));
+        assertEquals(new BigInt("3"), expression.evaluate(values));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingVariable() throws Exception {
+        CompiledExpression.compile("a + b").evaluate(new HashMap<String, BigNumber>());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongNumberOfValues() throws Exception {
+        CompiledExpression.compile("a + b").evaluate(new BigInt("1"));
+    }
+
+    @Test(expected = ExpressionSyntaxException.class)
+    public void variablesAreNotCalculated() throws Exception {
+        new Calculator().calculate("a + 1");
+    }
+
+}
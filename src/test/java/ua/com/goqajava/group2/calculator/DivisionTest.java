@@ -0,0 +1,77 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static ua.com.goqajava.group2.calculator.MultiplicationTest.randomNumber;
+
+@RunWith(value = Parameterized.class)
+public class DivisionTest {
+
+    private final int dividendDigits;
+    private final int divisorDigits;
+    private final int newtonThreshold;
+
+    public DivisionTest(int dividendDigits, int divisorDigits, int newtonThreshold) {
+        this.dividendDigits = dividendDigits;
+        this.divisorDigits = divisorDigits;
+        this.newtonThreshold = newtonThreshold;
+    }
+
+    @Parameterized.Parameters(name = "{0} / {1} digits, Newton from {2} limbs")
+    public static Object[][] testData() {
+        return new Object[][] {
+                {5, 30, Division.DEFAULT_NEWTON_THRESHOLD},
+                {30, 7, Division.DEFAULT_NEWTON_THRESHOLD},
+                {40, 18, Division.DEFAULT_NEWTON_THRESHOLD},
+                {300, 100, Division.DEFAULT_NEWTON_THRESHOLD},
+                {3000, 1500, Division.DEFAULT_NEWTON_THRESHOLD},
+                {300, 100, 2},
+                {3000, 1000, 4},
+                {6000, 2900, 8}
+        };
+    }
+
+    @After
+    public void restoreThreshold() {
+        Division.setNewtonThreshold(Division.DEFAULT_NEWTON_THRESHOLD);
+    }
+
+    @Test
+    public void divideAndRemainder() throws Exception {
+        Division.setNewtonThreshold(newtonThreshold);
+        Random random = new Random(dividendDigits * 31L + divisorDigits);
+        for (int i = 0; i < 10; i++) {
+            String dividend = randomNumber(random, dividendDigits);
+            String divisor = randomNumber(random, divisorDigits);
+            BigInteger[] expected = new BigInteger(dividend).divideAndRemainder(new BigInteger(divisor));
+            BigNumber[] actual = new BigInt(dividend).divideAndRemainder(new BigInt(divisor));
+            assertEquals(expected[0].toString(), actual[0].toString().replaceFirst("\\+", ""));
+            assertEquals(expected[1].toString(), actual[1].toString().replaceFirst("\\+", ""));
+            assertEquals(expected[1].toString(),
+                    new BigInt(dividend).mod(new BigInt(divisor)).toString().replaceFirst("\\+", ""));
+        }
+    }
+
+    @Test
+    public void divideByPowerOfTen() throws Exception {
+        String dividend = randomNumber(new Random(dividendDigits * 7L + divisorDigits), dividendDigits);
+        String divisor = "1" + new String(new char[divisorDigits]).replace('\0', '0');
+        BigInteger[] expected = new BigInteger(dividend).divideAndRemainder(new BigInteger(divisor));
+        BigNumber[] actual = new BigInt(dividend).divideAndRemainder(new BigInt(divisor));
+        assertEquals(expected[0].toString(), actual[0].toString().replaceFirst("\\+", ""));
+        assertEquals(expected[1].toString(), actual[1].toString().replaceFirst("\\+", ""));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void divideByZero() throws Exception {
+        new BigInt(randomNumber(new Random(dividendDigits), dividendDigits)).divide(new BigInt("0"));
+    }
+
+}
@@ -0,0 +1,102 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ExpressionCacheTest {
+
+    @Test
+    public void cachesResults() throws Exception {
+        ExpressionCache cache = new ExpressionCache(EvictionPolicy.LRU, 10);
+        Calculator calculator = new Calculator(cache);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getMissCount());
+        BigNumber result = calculator.calculate("123456789 * 987654321");
+        assertSame(result, calculator.calculate("123456789 * 987654321"));
+        assertEquals(1, cache.getResultHitCount());
+        long hits = cache.getHitCount();
+        calculator.compile("a + b");
+        calculator.compile("a + b");
+        assertEquals(hits + 1, cache.getHitCount());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws Exception {
+        ExpressionCache cache = new ExpressionCache(EvictionPolicy.LRU, 2);
+        cache.evaluate("1", EvaluatorSettings.DEFAULT);
+        cache.evaluate("2", EvaluatorSettings.DEFAULT);
+        cache.evaluate("1", EvaluatorSettings.DEFAULT);
+        cache.evaluate("3", EvaluatorSettings.DEFAULT);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        long misses = cache.getMissCount();
+        cache.evaluate("1", EvaluatorSettings.DEFAULT);
+        assertEquals(misses, cache.getMissCount());
+        cache.evaluate("2", EvaluatorSettings.DEFAULT);
+        assertEquals(misses + 1, cache.getMissCount());
+    }
+
+    @Test
+    public void evictsLeastFrequentlyUsed() throws Exception {
+        ExpressionCache cache = new ExpressionCache(EvictionPolicy.LFU, 2);
+        cache.evaluate("1", EvaluatorSettings.DEFAULT);
+        cache.evaluate("1", EvaluatorSettings.DEFAULT);
+        cache.evaluate("2", EvaluatorSettings.DEFAULT);
+        cache.evaluate("3", EvaluatorSettings.DEFAULT);
+        long misses = cache.getMissCount();
+        cache.evaluate("1", EvaluatorSettings.DEFAULT);
+        assertEquals(misses, cache.getMissCount());
+        cache.evaluate("2", EvaluatorSettings.DEFAULT);
+        assertEquals(misses + 1, cache.getMissCount());
+    }
+
+    @Test
+    public void boundsWeight() throws Exception {
+        ExpressionCache cache = new ExpressionCache(EvictionPolicy.LRU, 100, 200);
+        for (int i = 0; i < 50; i++) {
+            cache.evaluate("1000000000000000000000 * " + i, EvaluatorSettings.DEFAULT);
+        }
+        assertEquals(true, cache.getWeight() <= 200);
+        assertEquals(50 - cache.size(), cache.getEvictionCount());
+    }
+
+    @Test
+    public void isThreadSafe() throws Exception {
+        final ExpressionCache cache = new ExpressionCache(EvictionPolicy.LFU, 16);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        for (int i = 0; i < 2000; i++) {
+                            int value = i % 40;
+                            if (!cache.evaluate(value + " * 2", EvaluatorSettings.DEFAULT).getValue().equals(BigInt.valueOf(value * 2))) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertEquals(true, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(16, cache.size());
+        assertEquals(16000, cache.getHitCount() + cache.getMissCount());
+    }
+
+}
@@ -0,0 +1,165 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ExpressionEvaluatorTest {
+
+    @Test
+    public void marksTruncatedDivision() throws Exception {
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        assertTrue(evaluator.evaluate("10 / 2").isExact());
+        assertFalse(evaluator.evaluate("10 / 3 * 3").isExact());
+        assertEquals("10/2 = 5", evaluator.evaluate("10 / 2").toString());
+        assertEquals("10/3 ~ 3", evaluator.evaluate("10 / 3").toString());
+        assertEquals("12 - (30 + 13)*10 = -418", evaluator.evaluate("12 - (30 + 13) * 10").toString());
+    }
+
+    @Test
+    public void calculatesMappedFile() throws Exception {
+        Random random = new Random(11);
+        String value1 = MultiplicationTest.randomNumber(random, 100000);
+        String value2 = MultiplicationTest.randomNumber(random, 40000);
+        Path file = Files.createTempFile("expression", ".txt");
+        try {
+            Files.write(file, ("\n" + value1 + " -\n(" + value2 + " * 3)\n").getBytes(StandardCharsets.US_ASCII));
+            BigInt result = (BigInt) new ExpressionEvaluator().calculate(file);
+            BigInteger expected = new BigInteger(value1).subtract(new BigInteger(value2).multiply(BigInteger.valueOf(3)));
+            assertEquals(new BigInt(expected.toString()), result);
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            result.write(Channels.newChannel(output));
+            assertEquals(expected.toString(), output.toString("US-ASCII"));
+
+            Files.write(file, output.toByteArray());
+            assertEquals(result, BigInt.read(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void reportsErrorOfMappedFileByExcerpt() throws Exception {
+        Random random = new Random(13);
+        String value1 = MultiplicationTest.randomNumber(random, 100000).replace("-", "");
+        String value2 = MultiplicationTest.randomNumber(random, 100000).replace("-", "");
+        Path file = Files.createTempFile("expression", ".txt");
+        try {
+            Files.write(file, (value1 + " * ) " + value2).getBytes(StandardCharsets.US_ASCII));
+            new ExpressionEvaluator().calculate(file);
+            fail("The invalid expression is calculated");
+        } catch (ExpressionSyntaxException e) {
+            assertEquals(value1.length() + 3, e.getPosition());
+            assertEquals("..." + value1.substring(value1.length() - 29) + " * ) " + value2.substring(0, 30) + "...",
+                    e.getExcerpt());
+            assertTrue(e.getMessage().length() < 200);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void evaluatesInParallel() throws Exception {
+        Random random = new Random(7);
+        StringBuilder expression = new StringBuilder();
+        for (int i = 0; i < 12; i++) {
+            expression.append(i == 0 ? "(" : " + (")
+                    .append(MultiplicationTest.randomNumber(random, 2000)).append(" * ")
+                    .append(MultiplicationTest.randomNumber(random, 1500)).append(") / ")
+                    .append(MultiplicationTest.randomNumber(random, 300));
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            EvaluatorSettings settings = EvaluatorSettings.DEFAULT.withParallelism(pool).withParallelThreshold(1000);
+            assertEquals(new ExpressionEvaluator().evaluate(expression.toString()),
+                    new ExpressionEvaluator(settings).evaluate(expression.toString()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void evaluatesInConfiguredPoolFromAnotherPool() throws Exception {
+        Random random = new Random(9);
+        final String expression = "(" + MultiplicationTest.randomNumber(random, 2000) + " * "
+                + MultiplicationTest.randomNumber(random, 1500) + ") - ("
+                + MultiplicationTest.randomNumber(random, 1500) + " * "
+                + MultiplicationTest.randomNumber(random, 2000) + ")";
+        final Set<ForkJoinPool> pools = Collections.newSetFromMap(new ConcurrentHashMap<ForkJoinPool, Boolean>());
+        EvaluationListener listener = new EvaluationListener() {
+            @Override
+            public void operated(String operator, long leftDigits, long rightDigits, long nanos, long allocatedBytes) {
+                pools.add(ForkJoinTask.getPool());
+            }
+        };
+        ForkJoinPool pool = new ForkJoinPool(2);
+        ForkJoinPool other = new ForkJoinPool(1);
+        try {
+            final ExpressionEvaluator evaluator = new ExpressionEvaluator(EvaluatorSettings.DEFAULT
+                    .withParallelism(pool).withParallelThreshold(1000).withListener(listener));
+            // as from a parallel stream of the common pool
+            Evaluation evaluation = CompletableFuture.supplyAsync(() -> evaluator.evaluate(expression), other).get();
+            assertEquals(new ExpressionEvaluator().evaluate(expression), evaluation);
+            assertEquals(Collections.singleton(pool), pools);
+        } finally {
+            pool.shutdown();
+            other.shutdown();
+        }
+    }
+
+    @Test
+    public void evaluatesConcurrently() throws Exception {
+        final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                final int offset = thread;
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        for (int i = 0; i < 1000; i++) {
+                            long value = offset * 1000L + i;
+                            Evaluation evaluation = evaluator.evaluate(value + " * 3 / 2");
+                            if (!evaluation.getValue().equals(BigInt.valueOf(value * 3 / 2)) ||
+                                    evaluation.isExact() != (value % 2 == 0)) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void countsOperations() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        EvaluatorSettings settings = EvaluatorSettings.DEFAULT.withListener(metrics);
+        Calculator calculator = new Calculator(new ExpressionEvaluator(settings));
+        calculator.calculate("2 * 3 + 4 * 5");
+        calculator.calculate("modPow(2, 10, 1000) - -1");
+        try {
+            calculator.calculate("1 / 0");
+        } catch (ArithmeticException e) {
+            // counted as a failed evaluation
+        }
+        try {
+            calculator.calculate("1 +");
+        } catch (ExpressionSyntaxException e) {
+            // counted as a parsing
+        }
+
+        assertEquals(4, metrics.getParseCount());
+        assertEquals(3, metrics.getEvaluationCount());
+        assertEquals(1, metrics.getFailureCount());
+        assertEquals(2, metrics.getCount("*"));
+        assertEquals(1, metrics.getCount("+"));
+        assertEquals(1, metrics.getCount("modPow"));
+        assertEquals(0, metrics.getCount("/"));
+        assertTrue(metrics.getAllocatedBytes("*") > 0);
+
+        String text = metrics.toText();
+        assertTrue(text, text.startsWith("parse: count=4 "));
+        assertTrue(text, text.contains("evaluate: count=3 "));
+        assertTrue(text, text.contains("'*' 0-9 digits: count=2 "));
+        String json = metrics.toJson();
+        assertTrue(json, json.startsWith("{\"parse\":{\"count\":4,"));
+        assertTrue(json, json.contains("\"operators\":{\"*\":[{\"digits\":\"0-9\",\"latency\":{\"count\":2,"));
+        assertTrue(json, json.endsWith("}}"));
+
+        metrics.reset();
+        assertEquals(0, metrics.getParseCount());
+        assertEquals(0, metrics.getCount("*"));
+        assertTrue(metrics.toJson().startsWith("{\"parse\":{\"count\":0,"));
+    }
+
+    @Test
+    public void reportsOperandSizes() throws Exception {
+        final List<String> operations = Collections.synchronizedList(new ArrayList<String>());
+        EvaluationListener listener = new EvaluationListener() {
+            @Override
+            public void operated(String operator, long leftDigits, long rightDigits, long nanos, long allocatedBytes) {
+                operations.add(leftDigits + operator + rightDigits);
+            }
+        };
+        ExpressionEvaluator evaluator = new ExpressionEvaluator(EvaluatorSettings.DEFAULT.withListener(listener)
+                .withParallelism(ForkJoinPool.commonPool()).withParallelThreshold(1));
+        evaluator.calculate("123456789012 * 12 + -(7 - 2)");
+        Collections.sort(operations);
+        assertEquals("[1-0, 1-1, 12*2, 13+1]", operations.toString());
+    }
+}
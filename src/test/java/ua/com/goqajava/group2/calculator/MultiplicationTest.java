@@ -0,0 +1,106 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(value = Parameterized.class)
+public class MultiplicationTest {
+
+    private final int digits1;
+    private final int digits2;
+
+    public MultiplicationTest(int digits1, int digits2) {
+        this.digits1 = digits1;
+        this.digits2 = digits2;
+    }
+
+    @Parameterized.Parameters(name = "{0} * {1} digits")
+    public static Object[][] testData() {
+        return new Object[][] {
+                {1, 1},
+                {20, 35},
+                {100, 100},
+                {150, 1000},
+                {999, 1001},
+                {2500, 1800},
+                {5000, 5000}
+        };
+    }
+
+    @Before
+    public void lowerThresholds() {
+        Multiplication.setKaratsubaThreshold(4);
+        Multiplication.setToomCookThreshold(12);
+        Multiplication.setParallelThreshold(16);
+    }
+
+    @After
+    public void restoreThresholds() {
+        Multiplication.setKaratsubaThreshold(Multiplication.DEFAULT_KARATSUBA_THRESHOLD);
+        Multiplication.setToomCookThreshold(Multiplication.DEFAULT_TOOM_COOK_THRESHOLD);
+        Multiplication.setNttThreshold(Multiplication.DEFAULT_NTT_THRESHOLD);
+        Multiplication.setParallelThreshold(Multiplication.DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    @Test
+    public void multiply() throws Exception {
+        Random random = new Random(digits1 * 31L + digits2);
+        for (int i = 0; i < 5; i++) {
+            String value1 = randomNumber(random, digits1);
+            String value2 = randomNumber(random, digits2);
+            assertEquals(new BigInteger(value1).multiply(new BigInteger(value2)).toString(),
+                    new BigInt(value1).multiply(new BigInt(value2)).toString().replaceFirst("\\+", ""));
+        }
+    }
+
+    @Test
+    public void multiplyByPowerOfTen() throws Exception {
+        Random random = new Random(digits1 * 7L + digits2);
+        String value = randomNumber(random, digits1);
+        String power = "1" + new String(new char[digits2]).replace('\0', '0');
+        String expected = new BigInteger(value).multiply(new BigInteger(power)).toString();
+        assertEquals(expected, new BigInt(value).multiply(new BigInt(power)).toString().replaceFirst("\\+", ""));
+        assertEquals(expected, new BigInt(power).multiply(new BigInt(value)).toString().replaceFirst("\\+", ""));
+    }
+
+    @Test
+    public void multiplyByTransform() throws Exception {
+        Multiplication.setNttThreshold(8);
+        multiply();
+    }
+
+    @Test
+    public void square() throws Exception {
+        Random random = new Random(digits1 * 17L + digits2);
+        for (int i = 0; i < 5; i++) {
+            String value = randomNumber(random, digits2);
+            String expected = new BigInteger(value).pow(2).toString();
+            assertEquals(expected, new BigInt(value).square().toString().replaceFirst("\\+", ""));
+            assertEquals(expected, SmallInt.demote(new BigInt(value)).square().toString().replaceFirst("\\+", ""));
+            Multiplication.setNttThreshold(8);
+            assertEquals(expected, new BigInt(value).square().toString().replaceFirst("\\+", ""));
+            Multiplication.setNttThreshold(Multiplication.DEFAULT_NTT_THRESHOLD);
+        }
+    }
+
+    static String randomNumber(Random random, int digits) {
+        StringBuilder stringBuilder = new StringBuilder(digits + 1);
+        if (random.nextBoolean()) {
+            stringBuilder.append('-');
+        }
+        stringBuilder.append(1 + random.nextInt(9));
+        for (int i = 1; i < digits; i++) {
+            stringBuilder.append(random.nextBoolean() ? random.nextInt(10) : 9);
+        }
+        return stringBuilder.toString();
+    }
+
+}
@@ -0,0 +1,123 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MutableBigIntTest {
+
+    private static final BigInt TWO_LIMBS_OF_NINES = new BigInt("999999999999999999");
+
+    @Test
+    public void testCapacityGrowth() {
+        assertEquals(1, new MutableBigInt(0).capacity());
+
+        MutableBigInt accumulator = new MutableBigInt(2).set(TWO_LIMBS_OF_NINES);
+        assertEquals(2, accumulator.capacity());
+        accumulator.addTo(new BigInt("1"));
+        assertEquals(3, accumulator.capacity());
+        assertEquals(new BigInt("1000000000000000000"), accumulator.toImmutable());
+
+        accumulator = new MutableBigInt(4).set(new BigInt("999999999999999999999999999999999999"));
+        accumulator.addTo(new BigInt("1"));
+        assertEquals(6, accumulator.capacity());
+        assertEquals(new BigInt("1000000000000000000000000000000000000"), accumulator.toImmutable());
+
+        accumulator = new MutableBigInt(1).set(new BigInt("999999999"));
+        accumulator.multiplyBy(999999999);
+        assertEquals(3, accumulator.capacity());
+        assertEquals(new BigInt("999999998000000001"), accumulator.toImmutable());
+    }
+
+    @Test
+    public void testReuseCapacity() {
+        MutableBigInt accumulator = new MutableBigInt(8);
+        for (int i = 0; i < 10000; i++) {
+            accumulator.addTo(TWO_LIMBS_OF_NINES);
+        }
+        assertEquals(8, accumulator.capacity());
+        assertEquals(new BigInt("9999999999999999990000"), accumulator.toImmutable());
+        MutableBigInt copy = new MutableBigInt().set(accumulator);
+        accumulator.subtractFrom(copy);
+        assertTrue(accumulator.isZero());
+        assertEquals(0, accumulator.signum());
+        assertEquals(new BigInt("0"), accumulator.toImmutable());
+        assertEquals(8, accumulator.capacity());
+    }
+
+    @Test
+    public void testSetShorterValue() {
+        MutableBigInt accumulator = new MutableBigInt(new BigInt("-123456789123456789123456789"));
+        accumulator.set(new BigInt("5")).shift(18);
+        assertEquals(new BigInt("5000000000000000000"), accumulator.toImmutable());
+        accumulator.set(new MutableBigInt(new BigInt("7"))).addTo(TWO_LIMBS_OF_NINES);
+        assertEquals(new BigInt("1000000000000000006"), accumulator.toImmutable());
+    }
+
+    @Test
+    public void testSubtractChangesSign() {
+        MutableBigInt accumulator = new MutableBigInt(new BigInt("1000000000"));
+        accumulator.subtractFrom(new BigInt("1000000001"));
+        assertEquals(new BigInt("-1"), accumulator.toImmutable());
+        accumulator.subtractFrom(new BigInt("-1"));
+        assertTrue(accumulator.isZero());
+        accumulator.subtractFrom(new BigInt("5")).negate();
+        assertEquals(1, accumulator.signum());
+    }
+
+    @Test
+    public void testShift() {
+        MutableBigInt accumulator = new MutableBigInt(new BigInt("-123456789"));
+        accumulator.shift(9);
+        assertEquals(new BigInt("-123456789000000000"), accumulator.toImmutable());
+        accumulator.shift(4);
+        assertEquals(new BigInt("-1234567890000000000000"), accumulator.toImmutable());
+        accumulator.shift(-17);
+        assertEquals(new BigInt("-12345"), accumulator.toImmutable());
+        accumulator.shift(-5);
+        assertTrue(accumulator.isZero());
+        assertEquals(0, accumulator.signum());
+    }
+
+    @Test
+    public void testDivideBy() {
+        MutableBigInt accumulator = new MutableBigInt(new BigInt("-7"));
+        assertEquals(-1, accumulator.divideBy(2));
+        assertEquals(new BigInt("-3"), accumulator.toImmutable());
+        assertEquals(0, accumulator.divideBy(-3));
+        assertEquals(new BigInt("1"), accumulator.toImmutable());
+        assertEquals(1, accumulator.divideBy(-999999999));
+        assertTrue(accumulator.isZero());
+
+        accumulator.set(new BigInt("1000000000000000000"));
+        assertEquals(1, accumulator.divideBy(999999999));
+        assertEquals(new BigInt("1000000001"), accumulator.toImmutable());
+    }
+
+    @Test
+    public void testMultiplyByIntegerMinValue() {
+        MutableBigInt accumulator = new MutableBigInt(new BigInt("-999999999999999999"));
+        accumulator.multiplyBy(Integer.MIN_VALUE);
+        assertEquals(new BigInt("2147483647999999997852516352"), accumulator.toImmutable());
+        accumulator.multiplyBy(0);
+        assertTrue(accumulator.isZero());
+    }
+
+    @Test
+    public void testAverage() {
+        assertEquals(new BigInt("-2"), new BigInt("-7").average(new BigInt("3")));
+        assertEquals(new BigInt("500000000000000000"), TWO_LIMBS_OF_NINES.average(new BigInt("1")));
+        assertEquals(new BigInt("0"), new BigInt("-1").average(new BigInt("0")));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testDivideByZero() {
+        new MutableBigInt(new BigInt("5")).divideBy(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDivideByLongDivisor() {
+        new MutableBigInt(new BigInt("5")).divideBy(1000000000);
+    }
+}
@@ -0,0 +1,158 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapBigIntTest {
+
+    @Test
+    public void testEdges() {
+        List<String> values = edgeValues();
+        try (OffHeapArena arena = new OffHeapPool(1 << 20).newArena()) {
+            for (String value1 : values) {
+                for (String value2 : values) {
+                    BigInteger bigInteger1 = new BigInteger(value1);
+                    BigInteger bigInteger2 = new BigInteger(value2);
+                    OffHeapBigInt offHeap = OffHeapBigInt.valueOf(new BigInt(value1), arena);
+                    BigInt heap = new BigInt(value2);
+                    String pair = value1.length() + " and " + value2.length() + " characters";
+
+                    assertEquals(pair, bigInteger1.add(bigInteger2), toBigInteger(offHeap.add(heap)));
+                    assertEquals(pair, bigInteger1.subtract(bigInteger2), toBigInteger(offHeap.subtract(heap)));
+                    assertEquals(pair, bigInteger1.multiply(bigInteger2), toBigInteger(offHeap.multiply(heap)));
+                    assertEquals(pair, bigInteger1.multiply(bigInteger2),
+                            toBigInteger(offHeap.multiply(OffHeapBigInt.valueOf(heap, arena))));
+                    assertEquals(pair, bigInteger1.compareTo(bigInteger2), offHeap.compareTo(heap));
+                    assertEquals(pair, bigInteger1.add(bigInteger2), toBigInteger(heap.add(offHeap)));
+                    if (bigInteger2.signum() != 0) {
+                        assertEquals(pair, bigInteger1.divide(bigInteger2), toBigInteger(offHeap.divide(heap)));
+                        assertEquals(pair, bigInteger1.remainder(bigInteger2), toBigInteger(offHeap.mod(heap)));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The values around the limb boundaries and around the Karatsuba threshold of the off-heap multiplication
+     */
+    private static List<String> edgeValues() {
+        int threshold = Multiplication.getKaratsubaThreshold() * Limbs.BASE_DIGITS;
+        List<String> values = new ArrayList<>();
+        values.add("0");
+        values.add("7");
+        values.add("-999999999");
+        values.add("1000000000");
+        values.add("999999999999999999");
+        values.add("-1000000000000000001");
+        values.add(repeat('9', threshold - Limbs.BASE_DIGITS));
+        values.add("-" + repeat('9', threshold));
+        values.add("1" + repeat('0', threshold));
+        values.add(repeat('9', 2 * threshold + 1));
+        return values;
+    }
+
+    private static String repeat(char digit, int count) {
+        return new String(new char[count]).replace('\0', digit);
+    }
+
+    @Test
+    public void testConvert() {
+        try (OffHeapArena arena = new OffHeapPool(1 << 20).newArena()) {
+            OffHeapBigInt value = OffHeapBigInt.valueOf(new BigInt("-12345678901234567890"), arena);
+            assertEquals(new BigInt("-12345678901234567890"), value.toBigInt());
+            assertEquals("-12345678901234567890", value.toString());
+            assertEquals(new BigInt("-12345678901234567890").hashCode(), value.hashCode());
+            assertEquals(value, OffHeapBigInt.valueOf(value, arena));
+            assertTrue(value.subtract(value).isZero());
+            assertEquals(new BigInt("-6172839450617283945"), BigInt.valueOf(value.average(BigInt.valueOf(0))));
+            assertEquals(value, OffHeapBigInt.valueOf(SmallInt.valueOf(5), arena).multiply(value).divide(
+                    SmallInt.valueOf(5)));
+        }
+    }
+
+    @Test
+    public void testReuseReleasedBuffers() {
+        OffHeapPool pool = new OffHeapPool(1 << 20);
+        BigInt value = new BigInt(MultiplicationTest.randomNumber(new Random(5), 5000));
+        try (OffHeapArena arena = pool.newArena()) {
+            OffHeapBigInt.valueOf(value, arena).multiply(value);
+        }
+        long allocated = pool.getAllocatedBytes();
+        assertTrue(pool.getPooledBytes() > 0);
+        try (OffHeapArena arena = pool.newArena()) {
+            OffHeapBigInt.valueOf(value, arena).multiply(value);
+        }
+        assertEquals(allocated, pool.getAllocatedBytes());
+    }
+
+    @Test
+    public void testModPowStaysInArena() {
+        try (OffHeapArena arena = new OffHeapPool(1 << 20).newArena()) {
+            OffHeapBigInt value = OffHeapBigInt.valueOf(new BigInt("-12345678901234567890"), arena);
+            BigNumber power = value.modPow(new BigInt("65537"), new BigInt("1000000007"));
+            assertTrue(power instanceof OffHeapBigInt);
+            assertEquals(arena, ((OffHeapBigInt) power).getArena());
+            assertEquals(new BigInt("-12345678901234567890").modPow(new BigInt("65537"), new BigInt("1000000007")),
+                    ((OffHeapBigInt) power).toBigInt());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddAfterArenaClosed() {
+        OffHeapArena arena = OffHeapPool.shared().newArena();
+        OffHeapBigInt value = OffHeapBigInt.valueOf(new BigInt("123"), arena);
+        arena.close();
+        value.add(value);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testToStringAfterArenaClosed() {
+        OffHeapArena arena = OffHeapPool.shared().newArena();
+        OffHeapBigInt value = OffHeapBigInt.valueOf(new BigInt("123"), arena);
+        arena.close();
+        value.toString();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testOperandOfClosedArena() {
+        OffHeapArena closed = OffHeapPool.shared().newArena();
+        OffHeapBigInt value = OffHeapBigInt.valueOf(new BigInt("123"), closed);
+        closed.close();
+        try (OffHeapArena arena = OffHeapPool.shared().newArena()) {
+            OffHeapBigInt.valueOf(new BigInt("456"), arena).multiply(value);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testValueOfIntoClosedArena() {
+        OffHeapArena arena = OffHeapPool.shared().newArena();
+        arena.close();
+        OffHeapBigInt.valueOf(new BigInt("123"), arena);
+    }
+
+    @Test
+    public void testEvaluateOffHeap() {
+        Random random = new Random(9);
+        String expression = "(" + MultiplicationTest.randomNumber(random, 2000) + " * -"
+                + MultiplicationTest.randomNumber(random, 1500) + " - 7) / " + MultiplicationTest.randomNumber(random, 900)
+                + " + 5 / 2";
+        OffHeapPool pool = new OffHeapPool(1 << 20);
+        ExpressionEvaluator evaluator = new ExpressionEvaluator(EvaluatorSettings.DEFAULT.withOffHeap(pool, 10));
+        Evaluation evaluation = evaluator.evaluate(expression);
+        assertEquals(new ExpressionEvaluator().evaluate(expression), evaluation);
+        assertTrue(evaluation.getValue() instanceof BigInt);
+        assertTrue(pool.getAllocatedBytes() > 0);
+    }
+
+    private static BigInteger toBigInteger(BigNumber value) {
+        return new BigInteger(value.toString());
+    }
+}
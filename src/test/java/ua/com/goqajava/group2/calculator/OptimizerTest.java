@@ -0,0 +1,117 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class OptimizerTest {
+
+    private static final String[] EXPRESSIONS = {
+            "2 * 3 + 4 * 5",
+            "-(-(5)) - -(7 - 2)",
+            "7 / 2 + 0",
+            "1.50 * 1 + 0 - 0",
+            "0 - 2.5 ^ 1",
+            "(2 ^ 100 + 1) * (2 ^ 100 + 1) - (1 + 2 ^ 100)",
+            "3 * 1.5 * 2 * 0.5 * 3",
+            "1 + 2.25 + 3 + 4 + 5 * 6 * 7 * 8",
+            "modPow(3, 200, 1000) + modPow(3, 200, 1000)",
+            "2 ^ -1 + 2 ^ -1",
+            "123456789 * 10 ^ 30 / 10 ^ 20 % 10 ^ 25",
+            "(1 + 2) * 3 - (2 + 1) * 3 + 10 / 4 * (10 / 4)",
+            "(1 / 3 + 1 / 3) * 3",
+            "1.50 - 1.50",
+            "(2.5 - 2.5) * 3.25"
+    };
+
+    @Test
+    public void keepsValues() throws Exception {
+        EvaluatorSettings[] settings = {
+                EvaluatorSettings.DEFAULT,
+                EvaluatorSettings.DEFAULT.withExactArithmetic(true),
+                EvaluatorSettings.DEFAULT.withParallelism(ForkJoinPool.commonPool()).withParallelThreshold(1)
+        };
+        for (EvaluatorSettings setting : settings) {
+            ExpressionEvaluator plain = new ExpressionEvaluator(setting);
+            ExpressionEvaluator optimized = new ExpressionEvaluator(setting.withOptimization(true));
+            for (String expression : EXPRESSIONS) {
+                Evaluation expected = plain.evaluate(expression);
+                Evaluation actual = optimized.evaluate(expression);
+                assertEquals(expression, expected.getValue().toString(), actual.getValue().toString());
+                assertEquals(expression, expected.isExact(), actual.isExact());
+            }
+        }
+    }
+
+    @Test
+    public void evaluatesRepeatedSubexpressionsOnce() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        CompiledExpression expression = new ExpressionEvaluator(EvaluatorSettings.DEFAULT.withListener(metrics)
+                .withOptimization(true)).compile("(a * b + 1) * (b * a + 1) + (a * b + 1)");
+        assertEquals(new BigInt("182"), expression.evaluate(new BigInt("3"), new BigInt("4")));
+        assertEquals(2, metrics.getCount("*"));
+        assertEquals(2, metrics.getCount("+"));
+    }
+
+    @Test
+    public void removesIdentitiesAndFoldsConstants() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        ExpressionEvaluator evaluator = new ExpressionEvaluator(EvaluatorSettings.DEFAULT.withListener(metrics)
+                .withOptimization(true));
+        BigNumber x = new BigInt("123456789012345678901234567890");
+        assertEquals(x, evaluator.compile("-(-(x * 1 + 0 - 0)) ^ 1").evaluate(x));
+        assertEquals(new BigInt("26"), evaluator.calculate("2 * 3 + 4 * 5"));
+        assertEquals(0, metrics.getCount("*") + metrics.getCount("+") + metrics.getCount("-"));
+
+        // x may be a decimal, so x - x is subtracted to keep the scale, the shared x is evaluated once
+        assertEquals(new BigInt("0"), evaluator.compile("(x * 2 + 1) - (1 + 2 * x)").evaluate(x));
+        assertEquals("+0.0", evaluator.compile("(x * 2 + 1) - (1 + 2 * x)").evaluate(BigDecimalNumber.parse("0.5"))
+                .toString());
+        assertEquals(2, metrics.getCount("*"));
+        assertEquals(2, metrics.getCount("+"));
+        assertEquals(2, metrics.getCount("-"));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testFailingSubexpressionKept() throws Exception {
+        new ExpressionEvaluator(EvaluatorSettings.DEFAULT.withOptimization(true)).calculate("1 / 0 - 1 / 0");
+    }
+
+    @Test
+    public void multipliesShortestOperandsFirst() throws Exception {
+        final List<String> operations = Collections.synchronizedList(new ArrayList<String>());
+        EvaluationListener listener = new EvaluationListener() {
+            @Override
+            public void operated(String operator, long leftDigits, long rightDigits, long nanos, long allocatedBytes) {
+                operations.add(leftDigits + operator + rightDigits);
+            }
+        };
+        CompiledExpression expression = new ExpressionEvaluator(EvaluatorSettings.DEFAULT.withListener(listener)
+                .withOptimization(true)).compile("x * y * z");
+        BigNumber x = new BigInt("1" + new String(new char[999]).replace('\0', '0')).add(new BigInt("1"));
+        assertEquals(x.multiply(new BigInt("56")), expression.evaluate(x, new BigInt("7"), new BigInt("8")));
+        assertEquals("[1*1, 2*1000]", operations.toString());
+    }
+
+    @Test
+    public void optimizesDeepExpressions() throws Exception {
+        StringBuilder chain = new StringBuilder("x");
+        StringBuilder nested = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            chain.append(" + 1");
+            nested.append("(x - ");
+        }
+        nested.append('1');
+        for (int i = 0; i < 100_000; i++) {
+            nested.append(')');
+        }
+        ExpressionEvaluator evaluator = new ExpressionEvaluator(EvaluatorSettings.DEFAULT.withOptimization(true));
+        assertEquals(new BigInt("100005"), evaluator.compile(chain.toString()).evaluate(new BigInt("5")));
+        assertEquals(new BigInt("1"), evaluator.compile(nested.toString()).evaluate(new BigInt("5")));
+    }
+}
@@ -0,0 +1,87 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+@RunWith(value = Parameterized.class)
+public class ParserTest {
+
+    private final String expression;
+    private final String result;
+    private final int errorPosition;
+
+    public ParserTest(String expression, String result, int errorPosition) {
+        this.expression = expression;
+        this.result = result;
+        this.errorPosition = errorPosition;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Object[][] testData() {
+        return new Object[][] {
+                {"2 + 3 * 4", "+14", -1},
+                {"(2 + 3) * 4", "+20", -1},
+                {"20 - 5 - 3", "+12", -1},
+                {"100 / 10 / 5", "+2", -1},
+                {"-2 * -3", "+6", -1},
+                {"-(4 - 10)", "+6", -1},
+                {"--5", "+5", -1},
+                {"+7 - +2", "+5", -1},
+                {"7 / -2", "-3", -1},
+                {"  ", "+0", -1},
+                {nested(100000), "+1", -1},
+                {"2 ^ 10", "+1024", -1},
+                {"2 ^ 3 ^ 2", "+512", -1},
+                {"-2 ^ 2", "-4", -1},
+                {"(-2) ^ 3", "-8", -1},
+                {"17 % 5 * 2", "+4", -1},
+                {"-17 % 5", "-2", -1},
+                {"modPow(4, 13, 497)", "+445", -1},
+                {"1 + modPow(2 + 1, (10), 1000) * 2", "+99", -1},
+                {"modPow(2, 3)", null, 0},
+                {"1, 2", null, 1},
+                {"modPow 2", null, 7},
+                {"98 + ) - (1902837)/ 189273891", null, 5},
+                {"1+)2+3(+4", null, 2},
+                {"23748273 + 12873461AAA89723", null, 19},
+                {"(1 + 2", null, 0},
+                {"1 + 2)", null, 5},
+                {"1 2", null, 2},
+                {"3 *", null, 3},
+                {"* 3", null, 0}
+        };
+    }
+
+    private static String nested(int depth) {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            stringBuilder.append("(1*");
+        }
+        stringBuilder.append('1');
+        for (int i = 0; i < depth; i++) {
+            stringBuilder.append(')');
+        }
+        return stringBuilder.toString();
+    }
+
+    @Test
+    public void parse() throws Exception {
+        try {
+            Program program = Parser.parse(expression);
+            if (result == null) {
+                fail("The expression is invalid at " + errorPosition);
+            }
+            assertEquals(result, program.execute().toString());
+        } catch (ExpressionSyntaxException e) {
+            if (result != null) {
+                throw e;
+            }
+            assertEquals(errorPosition, e.getPosition());
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class PowerTest {
+
+    @Test
+    public void powAsBigInteger() throws Exception {
+        Random random = new Random(20);
+        for (int i = 0; i < 200; i++) {
+            String value = MultiplicationTest.randomNumber(random, 1 + random.nextInt(i < 150 ? 20 : 400));
+            int exponent = random.nextInt(i < 150 ? 40 : 12);
+            assertEquals(value + "^" + exponent, new BigInteger(value).pow(exponent).toString(),
+                    new BigInt(value).pow(exponent).toString().replaceFirst("\\+", ""));
+            assertEquals(new BigInteger(value).pow(exponent).toString(),
+                    SmallInt.demote(new BigInt(value)).pow(exponent).toString().replaceFirst("\\+", ""));
+        }
+        assertEquals("+1", BigInt.valueOf(0).pow(0).toString());
+        assertEquals("+" + BigInteger.TEN.pow(90), BigInt.valueOf(1_000_000_000).pow(10).toString());
+        assertEquals("-1", SmallInt.valueOf(-1).pow(Integer.MAX_VALUE).toString());
+    }
+
+    @Test
+    public void modPowAsBigInteger() throws Exception {
+        Random random = new Random(21);
+        for (int i = 0; i < 200; i++) {
+            String base = MultiplicationTest.randomNumber(random, 1 + random.nextInt(i < 180 ? 30 : 1000));
+            String exponent = MultiplicationTest.randomNumber(random, 1 + random.nextInt(i < 180 ? 30 : 1000))
+                    .replace("-", "");
+            String modulus = MultiplicationTest.randomNumber(random, 1 + random.nextInt(i < 180 ? 30 : 1000))
+                    .replace("-", "");
+            assertEquals(new BigInteger(base).modPow(new BigInteger(exponent), new BigInteger(modulus)).toString(),
+                    new BigInt(base).modPow(new BigInt(exponent), new BigInt(modulus)).toString()
+                            .replaceFirst("\\+", ""));
+        }
+        assertEquals("+0", SmallInt.valueOf(5).modPow(SmallInt.valueOf(0), SmallInt.valueOf(1)).toString());
+        assertEquals("+1", BigInt.valueOf(0).modPow(SmallInt.valueOf(0), new BigInt("1000000000007")).toString());
+    }
+
+    @Test
+    public void powOfFractions() throws Exception {
+        BigRational fraction = BigRational.valueOf(SmallInt.valueOf(-2), SmallInt.valueOf(3));
+        assertEquals("-8/27", fraction.pow(3).toString());
+        assertEquals("+9/4", fraction.pow(-2).toString());
+        assertEquals("+1", fraction.pow(0).toString());
+        assertEquals(new BigDecimal("-1.05").pow(7).toPlainString(),
+                BigDecimalNumber.parse("-1.05").pow(7).toString());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testNegativeExponent() throws Exception {
+        new BigInt("12").pow(-1);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testNonPositiveModulus() throws Exception {
+        new BigInt("12").modPow(SmallInt.valueOf(2), SmallInt.valueOf(0));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testFractionalModPow() throws Exception {
+        BigRational.valueOf(SmallInt.valueOf(1), SmallInt.valueOf(2)).modPow(SmallInt.valueOf(2), SmallInt.valueOf(7));
+    }
+
+    @Test
+    public void evaluatesPowers() throws Exception {
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        assertEquals("2^100 = 1267650600228229401496703205376", evaluator.evaluate("2^100").toString());
+        assertEquals("2^ - 1 ~ 0", evaluator.evaluate("2^-1").toString());
+        assertEquals("1.5^2 = 2.25", evaluator.evaluate("1.5^2").toString());
+        assertEquals("2.0^ - 2 = 0.25", evaluator.evaluate("2.0^-2").toString());
+        assertEquals("2^ - 2 = 1/4", new ExpressionEvaluator(EvaluatorSettings.DEFAULT.withExactArithmetic(true))
+                .evaluate("2^-2").toString());
+        assertEquals(SmallInt.valueOf(1), evaluator.evaluate(SmallInt.valueOf(7), '%', SmallInt.valueOf(3)).getValue());
+        assertEquals(BigInteger.valueOf(3).modPow(BigInteger.TEN.pow(300), BigInteger.TEN.pow(500).add(BigInteger.ONE))
+                        .toString(),
+                evaluator.calculate("modPow(3, 10^300, 10^500 + 1)").toString().replaceFirst("\\+", ""));
+        assertEquals(evaluator.calculate("modPow(3, 10^300, 10^500 + 1)"),
+                new ExpressionEvaluator(EvaluatorSettings.DEFAULT.withParallelism(ForkJoinPool.commonPool())
+                        .withParallelThreshold(1))
+                        .calculate("modPow(3, 10^300, 10^500 + 1)"));
+    }
+}
@@ -0,0 +1,157 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SessionTest {
+
+    private static List<String> texts(List<Evaluation> evaluations) {
+        return evaluations.stream().map(Evaluation::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    public void definesVariablesAndRefersToResults() throws Exception {
+        Session session = new Session();
+        assertEquals("x = 83810205", session.execute("x = 12345 * 6789").toString());
+        assertEquals("x + 1 = 83810206", session.execute("x + 1").toString());
+        assertEquals("$1*2 = 167620412", session.execute("$1 * 2").toString());
+        assertEquals("ans - $1 = 83810206", session.execute("ans - $1").toString());
+        assertEquals("y = 83810206", session.execute("y = ans").toString());
+        assertEquals(3, session.getHistory().size());
+        assertEquals(Arrays.asList("x", "y"), Arrays.asList(session.getVariables().keySet().toArray()));
+    }
+
+    @Test
+    public void sharesValuesByReference() throws Exception {
+        Session session = new Session();
+        session.execute("big = 7 ^ 1000");
+        BigNumber big = session.getVariable("big");
+        session.execute("copy = big");
+        assertSame(big, session.getVariable("copy"));
+        session.execute("big");
+        assertSame(big, session.getHistory().get(0).getValue());
+    }
+
+    @Test
+    public void recomputesOnlyDependents() throws Exception {
+        Session session = new Session();
+        session.execute("a = 2");
+        session.execute("b = 10");
+        session.execute("c = a * 3");
+        session.execute("d = c + b");
+        session.execute("e = b * b");
+        session.execute("f = d - a");
+
+        assertEquals("a = 5", session.execute("a = 5").toString());
+        assertEquals(Arrays.asList("c = 15", "d = 25", "f = 20"), texts(session.getRecomputed()));
+        assertEquals(new BigInt("100"), session.getVariable("e"));
+
+        // b's new value changes d only, f keeps its value so nothing past it would be recomputed
+        session.execute("b = 11");
+        assertEquals(Arrays.asList("d = 26", "e = 121", "f = 21"), texts(session.getRecomputed()));
+    }
+
+    @Test
+    public void memoizesUnchangedValues() throws Exception {
+        Session session = new Session();
+        session.execute("a = 4");
+        session.execute("b = a % 2");
+        session.execute("c = b + 1");
+
+        // b stays 0, so c isn't recomputed
+        session.execute("a = 6");
+        assertEquals(Arrays.asList("b = 0"), texts(session.getRecomputed()));
+
+        // the same definition with the same values isn't evaluated again
+        Evaluation evaluation = session.execute("c = b + 1");
+        assertSame(evaluation, session.execute("c  =  b+1"));
+        assertTrue(session.getRecomputed().isEmpty());
+
+        // the same value of a redefinition stops the recomputation
+        session.execute("a = 2 + 4");
+        assertTrue(session.getRecomputed().isEmpty());
+    }
+
+    @Test
+    public void keepsStateOnFailure() throws Exception {
+        Session session = new Session();
+        session.execute("a = 1");
+        session.execute("b = 10 / a");
+        try {
+            session.execute("a = 0");
+        } catch (ArithmeticException e) {
+            assertEquals("Division by zero", e.getMessage());
+        }
+        assertEquals(new BigInt("1"), session.getVariable("a"));
+        assertEquals(new BigInt("10"), session.getVariable("b"));
+    }
+
+    @Test
+    public void updatesVariableByItself() throws Exception {
+        Session session = new Session();
+        session.execute("a = 10");
+        session.execute("x = a + 1");
+        session.execute("y = x * 2");
+        assertEquals("x = 12", session.execute("x = x + 1").toString());
+        assertEquals(Arrays.asList("y = 24"), texts(session.getRecomputed()));
+        assertEquals("x = 13", session.execute("x = x + 1").toString());
+
+        // the own value is the one before the definition, a recomputation doesn't add to it again
+        session.execute("x = x + a");
+        assertEquals(new BigInt("23"), session.getVariable("x"));
+        session.execute("a = 20");
+        assertEquals(Arrays.asList("x = 33", "y = 66"), texts(session.getRecomputed()));
+    }
+
+    @Test
+    public void recomputesOnChangeOfScale() throws Exception {
+        Session session = new Session();
+        session.execute("a = 1.0");
+        assertEquals("b = 2.0", session.execute("b = a * 2").toString());
+        session.execute("a = 1.00");
+        assertEquals(Arrays.asList("b = 2.00"), texts(session.getRecomputed()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUndefinedSelfReference() throws Exception {
+        new Session().execute("x = x + 1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCircularDefinition() throws Exception {
+        Session session = new Session();
+        session.execute("a = 1");
+        session.execute("b = a + 1");
+        session.execute("a = b");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUndefinedVariable() throws Exception {
+        new Session().execute("a = b");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissedResult() throws Exception {
+        Session session = new Session();
+        session.execute("1 + 1");
+        session.execute("$2");
+    }
+
+    @Test(expected = ExpressionSyntaxException.class)
+    public void testInvalidName() throws Exception {
+        new Session().execute("modPow = 1");
+    }
+
+    @Test
+    public void undefinedVariableIsNull() throws Exception {
+        assertNull(new Session().getVariable("x"));
+    }
+}
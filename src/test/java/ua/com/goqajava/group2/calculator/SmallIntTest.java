@@ -0,0 +1,125 @@
+package ua.com.goqajava.group2.calculator;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SmallIntTest {
+
+    /**
+     * The values around the limb base, the square root of the long range and the long range itself
+     */
+    private static final long[] EDGES = {
+            0, 1, -1, 2, -2, 999999999, 1000000000, -1000000000, 3037000499L, 3037000500L, -3037000500L,
+            Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1,
+            Long.MIN_VALUE + 1,
+            999999999999999999L, 1000000000000000000L, -1000000000000000000L
+    };
+
+    private static final String LONG_MIN_NEGATED = "9223372036854775808";
+
+    @Test
+    public void testEdges() {
+        for (long value1 : EDGES) {
+            for (long value2 : EDGES) {
+                SmallInt small1 = SmallInt.valueOf(value1);
+                SmallInt small2 = SmallInt.valueOf(value2);
+                BigInt big2 = BigInt.valueOf(value2);
+                BigInteger bigInteger1 = BigInteger.valueOf(value1);
+                BigInteger bigInteger2 = BigInteger.valueOf(value2);
+                String pair = value1 + ", " + value2;
+
+                assertEquals(pair, bigInteger1.add(bigInteger2), toBigInteger(small1.add(small2)));
+                assertEquals(pair, bigInteger1.subtract(bigInteger2), toBigInteger(small1.subtract(small2)));
+                assertEquals(pair, bigInteger1.multiply(bigInteger2), toBigInteger(small1.multiply(small2)));
+                assertEquals(pair, bigInteger1.add(bigInteger2).divide(BigInteger.valueOf(2)),
+                        toBigInteger(small1.average(small2)));
+                assertEquals(pair, bigInteger1.add(bigInteger2), toBigInteger(small1.add(big2)));
+                assertEquals(pair, bigInteger1.multiply(bigInteger2), toBigInteger(big2.multiply(small1)));
+                assertEquals(pair, bigInteger1.compareTo(bigInteger2), small1.compareTo(small2));
+                assertEquals(pair, bigInteger1.compareTo(bigInteger2), small1.compareTo(big2));
+                assertEquals(pair, bigInteger1.abs().compareTo(bigInteger2.abs()), small1.compareMagnitude(small2));
+                if (value2 != 0) {
+                    assertEquals(pair, bigInteger1.divide(bigInteger2), toBigInteger(small1.divide(small2)));
+                    assertEquals(pair, bigInteger1.remainder(bigInteger2), toBigInteger(small1.mod(small2)));
+                    assertEquals(pair, bigInteger1.divide(bigInteger2),
+                            toBigInteger(small1.divideAndRemainder(big2)[0]));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOverflowOfLongMinValue() {
+        SmallInt min = SmallInt.valueOf(Long.MIN_VALUE);
+        assertEquals(new BigInt(LONG_MIN_NEGATED), min.negate());
+        assertEquals(new BigInt(LONG_MIN_NEGATED), min.abs());
+        assertEquals(new BigInt(LONG_MIN_NEGATED), min.divide(SmallInt.valueOf(-1)));
+        assertEquals(new BigInt(LONG_MIN_NEGATED), min.multiply(SmallInt.valueOf(-1)));
+        assertEquals(new BigInt(LONG_MIN_NEGATED), SmallInt.valueOf(-1).multiply(min));
+        assertEquals(new BigInt("-" + LONG_MIN_NEGATED), SmallInt.valueOf(0).subtract(min.negate()));
+        assertEquals(SmallInt.valueOf(0), min.mod(SmallInt.valueOf(-1)));
+        assertEquals(new BigInt("85070591730234615865843651857942052864"), min.square());
+        assertEquals(new BigInt("-9223372036854775809"), min.subtract(SmallInt.valueOf(1)));
+        assertEquals(new BigInt("-9223372036854775809"), min.add(SmallInt.valueOf(-1)));
+        assertEquals(SmallInt.valueOf(-1), min.add(SmallInt.valueOf(Long.MAX_VALUE)));
+        assertEquals(SmallInt.valueOf(Long.MIN_VALUE), min.average(min));
+    }
+
+    @Test
+    public void testOverflowPromotes() {
+        SmallInt max = SmallInt.valueOf(Long.MAX_VALUE);
+        assertEquals(new BigInt(LONG_MIN_NEGATED), max.add(SmallInt.valueOf(1)));
+        assertEquals(new BigInt("18446744073709551614"), max.multiply(SmallInt.valueOf(2)));
+        assertEquals(SmallInt.valueOf(Long.MAX_VALUE), max.average(max));
+        assertEquals(SmallInt.valueOf(9223372030926249001L), SmallInt.valueOf(3037000499L).square());
+        assertEquals(new BigInt("9223372037000250000"), SmallInt.valueOf(3037000500L).square());
+        assertEquals(SmallInt.valueOf(4611686018427387904L), SmallInt.valueOf(2).pow(62));
+        assertEquals(new BigInt(LONG_MIN_NEGATED), SmallInt.valueOf(2).pow(63));
+        assertEquals(SmallInt.valueOf(Long.MIN_VALUE), SmallInt.valueOf(-2).pow(63));
+    }
+
+    @Test
+    public void testDemote() {
+        for (long value : EDGES) {
+            BigInt big = BigInt.valueOf(value);
+            BigNumber small = SmallInt.demote(big);
+            assertTrue(small instanceof SmallInt);
+            assertEquals(big, small);
+            assertEquals(small, big);
+            assertEquals(big.hashCode(), small.hashCode());
+            assertEquals(big.toString(), small.toString());
+            assertEquals(big.getLength(), small.getLength());
+            assertEquals(big.getSign(), small.getSign());
+        }
+        BigInt tooBig = new BigInt(LONG_MIN_NEGATED);
+        assertTrue(SmallInt.demote(tooBig) instanceof BigInt);
+        assertTrue(SmallInt.demote(tooBig.negate()) instanceof SmallInt);
+        assertTrue(SmallInt.demote(tooBig.subtract(SmallInt.valueOf(1))) instanceof SmallInt);
+    }
+
+    @Test
+    public void testEvaluate() {
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        assertTrue(evaluator.calculate("10 + 15 * 2") instanceof SmallInt);
+        assertEquals(new BigInt("18446744073709551614"), evaluator.calculate("9223372036854775807 * 2"));
+        assertTrue(evaluator.calculate("99999999999999999999 - 99999999999999999990") instanceof SmallInt);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testDivideByZero() {
+        SmallInt.valueOf(5).divide(SmallInt.valueOf(0));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testModByZero() {
+        SmallInt.valueOf(Long.MIN_VALUE).mod(SmallInt.valueOf(0));
+    }
+
+    private static BigInteger toBigInteger(BigNumber value) {
+        return new BigInteger(value.toString());
+    }
+}